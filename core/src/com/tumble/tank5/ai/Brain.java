@@ -0,0 +1,53 @@
+package com.tumble.tank5.ai;
+
+import java.util.List;
+
+import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.inputs.Input;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Decides what a computer-controlled <code>Entity</code> does each
+ * <code>Round</code> (see <code>NPCController</code>).
+ *
+ * @author Tumbl
+ *
+ */
+public interface Brain {
+	/**
+	 * Works towards this <code>Round</code>'s decision. Called on a worker
+	 * thread, and possibly several times per <code>Round</code> - each call must
+	 * return by the deadline, keeping whatever progress it has made for the next
+	 * call if it isn't done yet. The <code>GameWorld</code> doesn't change while
+	 * <code>Brain</code>s are thinking, but other <code>Brain</code>s may be
+	 * thinking (about the same <code>GameWorld</code>) at the same time.
+	 *
+	 * @param body     - the <code>Entity</code> being controlled.
+	 *
+	 * @param game     - the <code>Game</code> it is in.
+	 *
+	 * @param deadline - the time (by the <code>Game</code>'s
+	 *                 <code>GameClock</code>) to return by.
+	 *
+	 * @return the <code>Input</code>s to submit (empty to do nothing), or
+	 *         <code>null</code> if more time is needed.
+	 */
+	List<Input> think(Entity body, Game game, long deadline);
+
+	/**
+	 * Decides what to do when this <code>Round</code>'s time has run out before
+	 * {@link Brain#think(Entity, Game, long)} has finished (e.g., carry on along a
+	 * route planned in an earlier <code>Round</code>). Called on the game thread,
+	 * so it must be quick.
+	 *
+	 * @param body - the <code>Entity</code> being controlled.
+	 *
+	 * @param game - the <code>Game</code> it is in.
+	 *
+	 * @param time - the time to give the <code>Input</code>s.
+	 *
+	 * @return the <code>Input</code>s to submit (empty or <code>null</code> to
+	 *         do nothing).
+	 */
+	List<Input> fallback(Entity body, Game game, long time);
+}
@@ -0,0 +1,368 @@
+package com.tumble.tank5.ai;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.game_n_world.GameWorld;
+
+/**
+ * The number of moves from every cell of a <code>GameWorld</code> to the
+ * nearest of a set of targets (following its navigation bitmasks, so
+ * <code>Ladder</code>s and <code>StairCase</code>s are taken into account).
+ * One <code>FlowField</code> can be shared by any number of
+ * <code>Entities</code> chasing the same targets: each just reads off which
+ * way to go from wherever it is, so the cost of planning doesn't grow with the
+ * number of chasers.
+ * <p>
+ * The field is brought up to date by {@link FlowField#update()}, which should
+ * be called once per round - it only does any work if the targets have moved or
+ * the <code>GameWorld</code> has changed since the last update, and then only
+ * for the cells whose distances those changes could affect (i.e., the cells
+ * whose exits changed, the targets that came and went, and whatever was
+ * reaching a target through them). Reading the field never changes it, so many
+ * readers can share it between updates.
+ *
+ * @author Tumbl
+ *
+ */
+public class FlowField implements GameWorld.NavigationListener {
+	/**
+	 * The distance to every cell that can't reach any target.
+	 */
+	public static final int UNREACHABLE = -1;
+
+	private final GameWorld world;
+	private final NavigationGrid grid;
+
+	// The number of moves from each cell to the nearest target.
+	private int[] distances = new int[0];
+	// The cells of the targets (in ascending order, without duplicates).
+	private int[] targets = new int[0];
+	// The targets the distances currently lead to.
+	private int[] reached = new int[0];
+	// The cells whose exits have changed since the last update (each marked).
+	private final IntArray changed = new IntArray();
+	private boolean[] marked = new boolean[0];
+	// Whether the distances need updating.
+	private boolean stale = true;
+
+	// Scratch space for updates, reused between them. Cells are visited in order
+	// of distance, by merging a sorted list of seeds with a FIFO queue (both
+	// holding cells packed together with their distances, see entry()).
+	private long[] seeds = new long[16];
+	private int seedCount, seedHead;
+	private long[] fifo = new long[16];
+	private int fifoHead, fifoTail;
+	private final IntArray invalidated = new IntArray();
+	private final int[] predecessors = new int[NavigationGrid.MAX_PREDECESSORS];
+
+	/**
+	 * Creates an (empty) <code>FlowField</code> for a <code>GameWorld</code>,
+	 * and starts listening for changes to it (see {@link FlowField#dispose()}).
+	 *
+	 * @param world - the <code>GameWorld</code> to cover.
+	 */
+	public FlowField(GameWorld world) {
+		if (world == null) throw new GameError("FlowField needs a GameWorld!");
+
+		this.world = world;
+		this.grid = new NavigationGrid(world);
+
+		world.addNavigationListener(this);
+		if (world.isLoaded()) worldLoaded(world);
+	}
+
+	/**
+	 * Stops listening for changes to the <code>GameWorld</code> (after which this
+	 * <code>FlowField</code> shouldn't be used).
+	 */
+	public void dispose() {
+		world.removeNavigationListener(this);
+	}
+
+	@Override
+	public void worldLoaded(GameWorld world) {
+		grid.resize();
+
+		distances = new int[grid.size()];
+		marked = new boolean[grid.size()];
+		targets = new int[0];
+		reached = new int[0];
+		changed.clear();
+
+		Arrays.fill(distances, UNREACHABLE);
+		stale = false;
+	}
+
+	@Override
+	public void exitsChanged(int x, int y, int z) {
+		if (!grid.inBounds(x, y, z)) return;
+
+		int cell = grid.cellIndex(x, y, z);
+		if (cell >= marked.length || marked[cell]) return;
+
+		marked[cell] = true;
+		changed.add(cell);
+		stale = true;
+	}
+
+	/**
+	 * Sets what to head for (replacing any previous targets). Takes effect at the
+	 * next {@link FlowField#update()}.
+	 *
+	 * @param positions - the targets (any that are <code>null</code> or off the
+	 *                  map are ignored).
+	 *
+	 * @return <code>true</code> if the targets changed, or <code>false</code> if
+	 *         they are all still in the same cells.
+	 */
+	public boolean setTargets(Position... positions) {
+		IntArray cells = new IntArray();
+
+		for (Position position : positions) {
+			int cell = grid.cellIndex(position);
+			if (cell != -1 && !cells.contains(cell)) cells.add(cell);
+		}
+
+		int[] newTargets = cells.toArray();
+		Arrays.sort(newTargets);
+
+		if (Arrays.equals(targets, newTargets)) return false;
+
+		targets = newTargets;
+		stale = true;
+		return true;
+	}
+
+	/**
+	 * Updates the field, if the targets have moved or the <code>GameWorld</code>
+	 * has changed since it was last updated.
+	 *
+	 * @return <code>true</code> if it was updated, otherwise <code>false</code>.
+	 */
+	public boolean update() {
+		if (!stale || !world.isLoaded()) return false;
+
+		invalidate();
+		relax();
+
+		for (int i = 0; i < changed.size; i++) marked[changed.get(i)] = false;
+		changed.clear();
+		invalidated.clear();
+
+		reached = targets;
+		stale = false;
+		return true;
+	}
+
+	/**
+	 * Forgets the distance of every cell that can no longer reach a target the
+	 * way it used to (adding it to <code>invalidated</code>). Starting from the
+	 * changed cells and the old targets, a cell keeps its distance as long as a
+	 * move still leads from it to a cell one closer. Cells are checked in order
+	 * of distance, so that cell has been checked itself by then.
+	 */
+	private void invalidate() {
+		startQueue();
+
+		for (int i = 0; i < changed.size; i++) {
+			int cell = changed.get(i);
+			if (distances[cell] != UNREACHABLE) seed(cell, distances[cell]);
+		}
+		for (int target : reached) {
+			if (!isTarget(target)) seed(target, 0);
+		}
+
+		sortSeeds();
+
+		while (!queueEmpty()) {
+			long entry = dequeue();
+			int cell = cellOf(entry);
+			int distance = distanceOf(entry);
+
+			if (distances[cell] != distance || isTarget(cell) || hasCloserNeighbour(cell)) continue;
+
+			distances[cell] = UNREACHABLE;
+			invalidated.add(cell);
+
+			// Whatever was heading this way has to be checked too.
+			int found = grid.predecessors(cell, predecessors);
+			for (int i = 0; i < found; i++) {
+				if (distances[predecessors[i]] == distance + 1) enqueue(predecessors[i], distance + 1);
+			}
+		}
+	}
+
+	/**
+	 * Works out the distance of every cell that may have got closer to a target
+	 * (the new targets, the changed cells and the invalidated ones), and carries
+	 * any improvement outwards from them along moves in reverse.
+	 */
+	private void relax() {
+		startQueue();
+
+		for (int target : targets) lower(target, 0);
+		for (int i = 0; i < changed.size; i++) lower(changed.get(i), viaNeighbours(changed.get(i)));
+		for (int i = 0; i < invalidated.size; i++) lower(invalidated.get(i), viaNeighbours(invalidated.get(i)));
+
+		sortSeeds();
+
+		while (!queueEmpty()) {
+			long entry = dequeue();
+			int cell = cellOf(entry);
+			int distance = distanceOf(entry);
+
+			if (distances[cell] != distance) continue;
+
+			int found = grid.predecessors(cell, predecessors);
+			for (int i = 0; i < found; i++) {
+				int previous = predecessors[i];
+				if (distances[previous] != UNREACHABLE && distances[previous] <= distance + 1) continue;
+
+				distances[previous] = distance + 1;
+				enqueue(previous, distance + 1);
+			}
+		}
+	}
+
+	// Seeds a cell with a distance, if that is an improvement.
+	private void lower(int cell, int distance) {
+		if (distance == UNREACHABLE || (distances[cell] != UNREACHABLE && distances[cell] <= distance)) return;
+
+		distances[cell] = distance;
+		seed(cell, distance);
+	}
+
+	// The distance of a cell through its closest neighbour (one move away).
+	private int viaNeighbours(int cell) {
+		int best = UNREACHABLE;
+
+		for (int m = 0; m < NavigationGrid.MOVES.length; m++) {
+			int next = grid.step(cell, m);
+			if (next == -1 || distances[next] == UNREACHABLE) continue;
+
+			if (best == UNREACHABLE || distances[next] + 1 < best) best = distances[next] + 1;
+		}
+
+		return best;
+	}
+
+	// Whether a move leads from a cell to one a move closer to a target.
+	private boolean hasCloserNeighbour(int cell) {
+		for (int m = 0; m < NavigationGrid.MOVES.length; m++) {
+			int next = grid.step(cell, m);
+
+			if (next != -1 && distances[next] != UNREACHABLE && distances[next] == distances[cell] - 1) return true;
+		}
+
+		return false;
+	}
+
+	private boolean isTarget(int cell) {
+		return Arrays.binarySearch(targets, cell) >= 0;
+	}
+
+	private void startQueue() {
+		seedCount = seedHead = fifoHead = fifoTail = 0;
+	}
+
+	private void seed(int cell, int distance) {
+		if (seedCount == seeds.length) seeds = Arrays.copyOf(seeds, seeds.length * 2);
+
+		seeds[seedCount++] = entry(cell, distance);
+	}
+
+	private void sortSeeds() {
+		Arrays.sort(seeds, 0, seedCount);
+	}
+
+	// Only ever called with distances no lower than the last one dequeued, so the
+	// FIFO stays in order.
+	private void enqueue(int cell, int distance) {
+		if (fifoTail == fifo.length) {
+			// Reclaim the space already dequeued before growing.
+			if (fifoHead > 0) {
+				System.arraycopy(fifo, fifoHead, fifo, 0, fifoTail - fifoHead);
+				fifoTail -= fifoHead;
+				fifoHead = 0;
+			}
+			if (fifoTail == fifo.length) fifo = Arrays.copyOf(fifo, fifo.length * 2);
+		}
+
+		fifo[fifoTail++] = entry(cell, distance);
+	}
+
+	private boolean queueEmpty() {
+		return seedHead == seedCount && fifoHead == fifoTail;
+	}
+
+	// The closer of the next seed and the head of the FIFO.
+	private long dequeue() {
+		if (fifoHead == fifoTail || (seedHead < seedCount && seeds[seedHead] < fifo[fifoHead])) return seeds[seedHead++];
+
+		return fifo[fifoHead++];
+	}
+
+	// Distances go in the high bits, so entries sort by distance.
+	private static long entry(int cell, int distance) {
+		return ((long) distance << Integer.SIZE) | cell;
+	}
+
+	private static int cellOf(long entry) {
+		return (int) entry;
+	}
+
+	private static int distanceOf(long entry) {
+		return (int) (entry >>> Integer.SIZE);
+	}
+
+	/**
+	 * @return <code>true</code> if the field is out of date (i.e.,
+	 *         {@link FlowField#update()} would change it).
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Gets the number of moves from a <code>Position</code> to the nearest target.
+	 *
+	 * @param position - where to measure from.
+	 *
+	 * @return the number of moves, or {@link FlowField#UNREACHABLE} if no target
+	 *         can be reached (or the <code>Position</code> is invalid).
+	 */
+	public int distanceFrom(Position position) {
+		int cell = grid.cellIndex(position);
+
+		return cell == -1 ? UNREACHABLE : distances[cell];
+	}
+
+	/**
+	 * Gets the first move to make from a <code>Position</code> towards the
+	 * nearest target.
+	 *
+	 * @param position - where to move from.
+	 *
+	 * @return the move, {@link Direction#NONE} if already at a target, or
+	 *         <code>null</code> if no target can be reached (or the
+	 *         <code>Position</code> is invalid).
+	 */
+	public Direction nextMove(Position position) {
+		int cell = grid.cellIndex(position);
+		if (cell == -1 || distances[cell] == UNREACHABLE) return null;
+		if (distances[cell] == 0) return Direction.NONE;
+
+		for (int m = 0; m < NavigationGrid.MOVES.length; m++) {
+			int next = grid.step(cell, m);
+
+			if (next != -1 && distances[next] == distances[cell] - 1) return NavigationGrid.MOVES[m];
+		}
+
+		// The world has changed since the last update.
+		return null;
+	}
+}
@@ -0,0 +1,418 @@
+package com.tumble.tank5.ai;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.inputs.Input;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.world_logic.GameClock;
+import com.tumble.tank5.world_logic.Round;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.Game.Phase;
+
+/**
+ * Runs the <code>Brain</code>s of a <code>Game</code>'s computer-controlled
+ * <code>Entities</code>, on a pool of worker threads, within a fixed share of
+ * each <code>Round</code>.
+ * <p>
+ * At the start of each <code>Round</code>'s {@link Phase#ACCEPTANCE}, every
+ * <code>Brain</code> starts thinking. Each one thinks in short slices, going to
+ * the back of the queue after every slice it doesn't finish in, so that no
+ * <code>Brain</code> can hog the workers. Decisions are submitted to the
+ * <code>Game</code> as soon as they are made (see
+ * {@link Game#submitInput(Input)}). Once the budget (a fraction of the
+ * <code>Round</code>'s duration, always ending at least one slice before the
+ * <code>Round</code>'s deadline) has run out, any <code>Brain</code> still
+ * thinking is stopped - waiting for any slice already in progress to return -
+ * and its fallback is submitted instead. So no <code>Brain</code> is ever
+ * still thinking once the <code>Round</code> moves on to
+ * {@link Phase#ENACTMENT}, and the <code>Game</code> never waits for more
+ * than a slice, however many <code>Brain</code>s there are.
+ * <p>
+ * A <code>Brain</code> that fails (throws) while thinking isn't asked again
+ * that <code>Round</code>: its fallback is submitted once the budget has run
+ * out, and it is counted by {@link NPCController#getFailures()} rather than
+ * {@link NPCController#getFallbacks()}.
+ * <p>
+ * Thinking only happens during {@link Phase#ACCEPTANCE}, while the
+ * <code>GameWorld</code> isn't changing. {@link NPCController#update()} must be
+ * called on the game thread, after each {@link Game#update(boolean)} (and in
+ * time for {@link NPCController#getNextDeadline()}) - a
+ * <code>GameScheduler</code> does both if the <code>NPCController</code> is
+ * attached to the <code>Game</code> (see
+ * {@link com.tumble.tank5.server.GameScheduler#attach(Game, Runnable, java.util.function.LongSupplier)}).
+ *
+ * @author Tumbl
+ *
+ */
+public class NPCController {
+	/**
+	 * The default share of each <code>Round</code> that <code>Brain</code>s may
+	 * spend thinking.
+	 */
+	public static final double DEFAULT_BUDGET = 0.5;
+	/**
+	 * The default length of each slice of thinking (in ms).
+	 */
+	public static final long DEFAULT_SLICE = 5;
+
+	/**
+	 * A <code>Brain</code>'s thinking for one <code>Round</code>.
+	 */
+	private final class Job implements Runnable {
+		private final Entity body;
+		private final Brain brain;
+		private final long deadline;
+
+		// Set once a decision (or fallback) has been submitted.
+		private final AtomicBoolean settled = new AtomicBoolean();
+		private volatile boolean cancelled;
+		// Set if the Brain threw (after which it isn't asked again).
+		private volatile boolean failed;
+
+		private Job(Entity body, Brain brain, long deadline) {
+			this.body = body;
+			this.brain = brain;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public void run() {
+			if (settled.get() || !startSlice(this)) return;
+
+			try {
+				think();
+			} finally {
+				endSlice();
+			}
+		}
+
+		private void think() {
+			long now = clock.currentTimeMillis();
+			// Out of time: the game thread will fall back.
+			if (now >= deadline) return;
+
+			List<Input> decision;
+
+			try {
+				decision = brain.think(body, game, Math.min(now + slice, deadline));
+			} catch (RuntimeException | GameError e) {
+				// The game thread will fall back.
+				failed = true;
+				return;
+			}
+
+			if (decision == null) {
+				// Back of the queue, to give everyone else a turn.
+				if (!cancelled && !workers.isShutdown()) workers.execute(this);
+				return;
+			}
+
+			if (settled.compareAndSet(false, true)) submit(decision);
+		}
+	}
+
+	private final Game game;
+	private final GameClock clock;
+	private final ExecutorService workers;
+	private final double budget;
+	private final long slice;
+
+	// How many slices of thinking are in progress (guarded by slicesLock).
+	private final Object slicesLock = new Object();
+	private int slicesInProgress;
+
+	// Everything below is only used on the game thread.
+	private final Map<Entity, Brain> brains = new LinkedHashMap<Entity, Brain>();
+	private final List<Runnable> roundStartTasks = new ArrayList<Runnable>();
+
+	// The Round being thought about (or -1), when thinking must stop, and
+	// everyone's thinking for it.
+	private int thinkingRound = -1;
+	private long budgetDeadline;
+	// The last Round thought about (so that each one is only thought about once).
+	private int lastRound = -1;
+	private final List<Job> jobs = new ArrayList<Job>();
+	// How many Brains fell back in the last Round (having run out of time, or
+	// failed).
+	private int fallbacks, failures;
+
+	/**
+	 * Creates an <code>NPCController</code> for a <code>Game</code>, with the
+	 * default budget and slice length.
+	 *
+	 * @param game          - the <code>Game</code> to control
+	 *                      <code>Entities</code> in.
+	 *
+	 * @param workerThreads - how many <code>Brain</code>s may think at once.
+	 *                      Must be > 0.
+	 */
+	public NPCController(Game game, int workerThreads) {
+		this(game, workerThreads, DEFAULT_BUDGET, DEFAULT_SLICE);
+	}
+
+	/**
+	 * Creates an <code>NPCController</code> for a <code>Game</code>.
+	 *
+	 * @param game          - the <code>Game</code> to control
+	 *                      <code>Entities</code> in.
+	 *
+	 * @param workerThreads - how many <code>Brain</code>s may think at once.
+	 *                      Must be > 0.
+	 *
+	 * @param budget        - the share of each <code>Round</code>'s duration
+	 *                      that <code>Brain</code>s may spend thinking (> 0 and
+	 *                      <= 1). Thinking always stops at least one slice
+	 *                      before the <code>Round</code>'s deadline, however
+	 *                      large the budget.
+	 *
+	 * @param slice         - the length of each slice of thinking (in ms, > 0).
+	 *
+	 * @throws GameError if any of the above are invalid.
+	 */
+	public NPCController(Game game, int workerThreads, double budget, long slice) {
+		if (game == null) throw new GameError("An NPCController needs a Game!");
+		if (workerThreads <= 0) {
+			throw new GameError("An NPCController needs at least one worker thread (" + workerThreads + " is invalid)!");
+		}
+		if (!(budget > 0 && budget <= 1)) throw new GameError("Invalid thinking budget: " + budget);
+		if (slice <= 0) throw new GameError("Invalid thinking slice: " + slice);
+
+		this.game = game;
+		this.clock = game.getClock();
+		this.budget = budget;
+		this.slice = slice;
+
+		workers = Executors.newFixedThreadPool(workerThreads, r -> {
+			Thread t = new Thread(r, "tank5-npc-worker");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Hands control of an <code>Entity</code> to a <code>Brain</code> (from the
+	 * next <code>Round</code> on), replacing any <code>Brain</code> it already
+	 * had.
+	 *
+	 * @param body  - the <code>Entity</code> to control.
+	 *
+	 * @param brain - the <code>Brain</code> to control it with.
+	 *
+	 * @return <code>true</code> if it was attached, or <code>false</code> if
+	 *         either was <code>null</code>.
+	 */
+	public boolean attach(Entity body, Brain brain) {
+		if (body == null || brain == null) return false;
+
+		brains.put(body, brain);
+		return true;
+	}
+
+	/**
+	 * Stops controlling an <code>Entity</code> (from the next <code>Round</code>
+	 * on).
+	 *
+	 * @param body - the <code>Entity</code> to stop controlling.
+	 *
+	 * @return <code>true</code> if it was being controlled, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean detach(Entity body) {
+		return brains.remove(body) != null;
+	}
+
+	/**
+	 * Adds a task to run on the game thread at the start of each
+	 * <code>Round</code>, before any <code>Brain</code> starts thinking (e.g.,
+	 * updating a <code>FlowField</code> the <code>Brain</code>s share).
+	 *
+	 * @param task - the task to run.
+	 *
+	 * @return <code>true</code> if it was added, or <code>false</code> if it was
+	 *         <code>null</code>.
+	 */
+	public boolean addRoundStartTask(Runnable task) {
+		if (task == null) return false;
+
+		return roundStartTasks.add(task);
+	}
+
+	/**
+	 * Starts the <code>Brain</code>s thinking when a new <code>Round</code> has
+	 * begun, and falls back for any that are still thinking once the budget has
+	 * run out (or the <code>Round</code> has stopped accepting
+	 * <code>Input</code>s).
+	 *
+	 * @return the number of <code>Brain</code>s started or fallen back for.
+	 */
+	public int update() {
+		boolean accepting = game.getPhase() == Phase.ACCEPTANCE;
+		int handled = 0;
+
+		if (thinkingRound != -1
+				&& (!accepting || thinkingRound != game.getRoundNumber() || clock.currentTimeMillis() >= budgetDeadline)) {
+			handled += fallBack();
+		}
+
+		if (accepting && thinkingRound == -1 && game.getRoundNumber() != lastRound) handled += startThinking();
+
+		return handled;
+	}
+
+	/**
+	 * Gets the next time {@link NPCController#update()} has something to do
+	 * (when the thinking budget runs out), if it isn't already due to be called
+	 * then by the <code>Game</code>'s own deadline.
+	 *
+	 * @return the time the budget runs out, or {@link Long#MAX_VALUE} if no
+	 *         <code>Brain</code>s are thinking.
+	 */
+	public long getNextDeadline() {
+		return thinkingRound == -1 ? Long.MAX_VALUE : budgetDeadline;
+	}
+
+	/**
+	 * @return how many <code>Brain</code>s ran out of time (and fell back) in the
+	 *         last <code>Round</code> that has finished being thought about.
+	 */
+	public int getFallbacks() {
+		return fallbacks;
+	}
+
+	/**
+	 * @return how many <code>Brain</code>s failed (and fell back) in the last
+	 *         <code>Round</code> that has finished being thought about.
+	 */
+	public int getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Stops every <code>Brain</code> and shuts the worker threads down (waiting
+	 * briefly for any slices in progress to finish).
+	 */
+	public void shutdown() {
+		synchronized (slicesLock) {
+			for (Job job : jobs) job.cancelled = true;
+		}
+		jobs.clear();
+		thinkingRound = -1;
+
+		workers.shutdown();
+
+		try {
+			workers.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int startThinking() {
+		Round round = game.getRound();
+
+		thinkingRound = round.roundNumber;
+		lastRound = thinkingRound;
+		// Leave a slice spare, so that any slice still in progress when the budget
+		// runs out has returned before the Round's deadline.
+		budgetDeadline = Math.min(round.getDeadline() - round.duration + (long) Math.ceil(round.duration * budget),
+				round.getDeadline() - slice);
+
+		for (Runnable task : roundStartTasks) task.run();
+
+		for (Map.Entry<Entity, Brain> entry : brains.entrySet()) {
+			Entity body = entry.getKey();
+			if (body.isDead() || !game.getWorld().hasEntity(body)) continue;
+
+			jobs.add(new Job(body, entry.getValue(), budgetDeadline));
+		}
+
+		for (Job job : jobs) workers.execute(job);
+
+		return jobs.size();
+	}
+
+	private int fallBack() {
+		Round round = game.getRound();
+		// Inputs must be dated within the Round to be accepted.
+		long time = Math.min(clock.currentTimeMillis(), round != null && round.roundNumber == thinkingRound
+				? round.getDeadline()
+				: budgetDeadline);
+
+		fallbacks = failures = 0;
+
+		stopThinking();
+
+		for (Job job : jobs) {
+			if (!job.settled.compareAndSet(false, true)) continue;
+
+			if (job.failed) {
+				failures++;
+			} else {
+				fallbacks++;
+			}
+			submit(job.brain.fallback(job.body, game, time));
+		}
+
+		jobs.clear();
+		thinkingRound = -1;
+		return fallbacks + failures;
+	}
+
+	/**
+	 * Stops every <code>Job</code> from starting another slice, then waits for
+	 * the slices already in progress to return (each returns by the budget's
+	 * deadline, if its <code>Brain</code> keeps to it), so that nothing is still
+	 * thinking once this returns.
+	 */
+	private void stopThinking() {
+		boolean interrupted = false;
+
+		synchronized (slicesLock) {
+			for (Job job : jobs) job.cancelled = true;
+
+			while (slicesInProgress > 0) {
+				try {
+					slicesLock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * @return <code>true</code> if a slice of a <code>Job</code> may start (and
+	 *         has been counted as in progress), or <code>false</code> if the
+	 *         <code>Job</code> has been cancelled.
+	 */
+	private boolean startSlice(Job job) {
+		synchronized (slicesLock) {
+			if (job.cancelled) return false;
+
+			slicesInProgress++;
+			return true;
+		}
+	}
+
+	private void endSlice() {
+		synchronized (slicesLock) {
+			if (--slicesInProgress == 0) slicesLock.notifyAll();
+		}
+	}
+
+	private void submit(List<Input> decision) {
+		if (decision == null) return;
+
+		for (Input input : decision) game.submitInput(input);
+	}
+}
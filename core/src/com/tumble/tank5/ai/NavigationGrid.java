@@ -0,0 +1,166 @@
+package com.tumble.tank5.ai;
+
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.game_n_world.GameWorld;
+import com.tumble.tank5.world_logic.game_n_world.Navigation;
+
+/**
+ * A view of a <code>GameWorld</code>'s cells as a graph of legal
+ * <code>Entity</code> moves (following its navigation bitmasks), with the cells
+ * numbered the same way as inside the <code>GameWorld</code>.
+ *
+ * @author Tumbl
+ *
+ */
+final class NavigationGrid {
+	// The moves an Entity can make (in the same order as the offsets below).
+	static final Direction[] MOVES = { Direction.N, Direction.E, Direction.S, Direction.W, Direction.UP, Direction.DOWN };
+	static final int[] DX = { 0, 1, 0, -1, 0, 0 };
+	static final int[] DY = { 1, 0, -1, 0, 0, 0 };
+	// The number of MOVES that are horizontal (the first ones).
+	static final int HORIZONTAL_MOVES = 4;
+	// The most cells a single cell can be reached from in one move.
+	static final int MAX_PREDECESSORS = HORIZONTAL_MOVES * 3 + 2;
+
+	final GameWorld world;
+
+	// The size of the map (in Tiles).
+	int width, length, depth;
+
+	NavigationGrid(GameWorld world) {
+		this.world = world;
+	}
+
+	/**
+	 * Picks up the size of the <code>GameWorld</code>'s current map.
+	 */
+	void resize() {
+		width = world.getXDimension();
+		length = world.getYDimension();
+		depth = world.getZDimension();
+	}
+
+	/**
+	 * @return the number of cells in the map.
+	 */
+	int size() {
+		return width * length * depth;
+	}
+
+	/**
+	 * Gets where a move out of a cell leads.
+	 *
+	 * @param cell - the cell to move from.
+	 *
+	 * @param move - the index of the move (in <code>MOVES</code>).
+	 *
+	 * @return the cell moved into, or -1 if the move isn't legal.
+	 */
+	int step(int cell, int move) {
+		int x = cellX(cell);
+		int y = cellY(cell);
+		int z = cellZ(cell);
+		int exits = world.getExits(x, y, z);
+
+		if ((exits & Navigation.exit(MOVES[move])) == 0) return -1;
+
+		z += Navigation.heightChange(exits, MOVES[move]);
+		x += DX[move];
+		y += DY[move];
+
+		if (!inBounds(x, y, z)) return -1;
+
+		return cellIndex(x, y, z);
+	}
+
+	/**
+	 * Finds every cell a single move leads from into a given cell.
+	 *
+	 * @param cell - the cell moved into.
+	 *
+	 * @param out  - filled with the cells found (must hold at least
+	 *             <code>MAX_PREDECESSORS</code>).
+	 *
+	 * @return the number of cells found.
+	 */
+	int predecessors(int cell, int[] out) {
+		int found = 0;
+
+		for (int m = 0; m < MOVES.length; m++) {
+			int x = cellX(cell) - DX[m];
+			int y = cellY(cell) - DY[m];
+
+			// Horizontal moves may have gone up or down a StairCase on the way.
+			int minZ = cellZ(cell) - 1;
+			int maxZ = cellZ(cell) + 1;
+
+			if (MOVES[m] == Direction.UP) maxZ = minZ;
+			if (MOVES[m] == Direction.DOWN) minZ = maxZ;
+
+			for (int z = minZ; z <= maxZ; z++) {
+				if (!inBounds(x, y, z)) continue;
+
+				int previous = cellIndex(x, y, z);
+				if (step(previous, m) == cell) out[found++] = previous;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Gets the move that leads from one cell to another.
+	 *
+	 * @param from - the cell moved from.
+	 *
+	 * @param to   - the cell moved into.
+	 *
+	 * @return the index of the move (in <code>MOVES</code>).
+	 */
+	int moveBetween(int from, int to) {
+		for (int m = 0; m < MOVES.length; m++) {
+			if (step(from, m) == to) return m;
+		}
+
+		throw new GameError("No move between cells " + from + " and " + to + "!");
+	}
+
+	/**
+	 * @return the index of the horizontal move opposite to a given one.
+	 */
+	static int opposite(int move) {
+		return (move + 2) % HORIZONTAL_MOVES;
+	}
+
+	boolean inBounds(int x, int y, int z) {
+		return x >= 0 && x < width && y >= 0 && y < length && z >= 0 && z < depth;
+	}
+
+	/**
+	 * @return the cell containing a <code>Position</code>, or -1 if it is
+	 *         <code>null</code> or not in the map.
+	 */
+	int cellIndex(Position position) {
+		if (position == null || !world.isLoaded() || world.outOfBounds(position)) return -1;
+
+		return cellIndex(position.getX(), position.getY(), position.getZ());
+	}
+
+	int cellIndex(int x, int y, int z) {
+		return (z * length + y) * width + x;
+	}
+
+	int cellX(int cell) {
+		return cell % width;
+	}
+
+	int cellY(int cell) {
+		return (cell / width) % length;
+	}
+
+	int cellZ(int cell) {
+		return cell / (width * length);
+	}
+}
@@ -0,0 +1,753 @@
+package com.tumble.tank5.ai;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.GameClock;
+import com.tumble.tank5.world_logic.game_n_world.GameWorld;
+
+/**
+ * Finds routes for <code>Entities</code> through a <code>GameWorld</code>
+ * (following its navigation bitmasks, so <code>Ladder</code>s and
+ * <code>StairCase</code>s are taken into account), using a hierarchical
+ * abstraction of the map so that long routes stay cheap to plan.
+ * <p>
+ * The map is split into square clusters of columns (each spanning every
+ * z-layer). The cells on a cluster's edge that a move can cross into or out of
+ * a neighbouring cluster are its entrances, and the shortest routes between the
+ * entrances of each cluster are worked out in advance. A route is then planned
+ * over the entrances first, and only filled in cell-by-cell afterwards.
+ * <p>
+ * When <code>Tile</code>s change, only the clusters around the changed cells
+ * are marked for repair, and they are rebuilt (all at once) before the next
+ * route is planned. Planned routes are cached, and a cached route is reused for
+ * as long as none of the clusters it passes through has been repaired (it is
+ * still legal, though a shorter one may since have opened up elsewhere).
+ * <p>
+ * Routes only follow legal moves - they don't account for other
+ * <code>Entities</code> in the way, or for anything falling. A
+ * <code>PathFinder</code> can be shared between <code>Brain</code>s thinking
+ * on different threads, as long as the <code>GameWorld</code> isn't changing
+ * at the same time: each thread plans in its own scratch space, and only
+ * repairs and the cache are locked (so routes are planned side by side).
+ *
+ * @author Tumbl
+ *
+ */
+public class PathFinder implements GameWorld.NavigationListener {
+	/**
+	 * The default width (and length) of each cluster, in <code>Tile</code>s.
+	 */
+	public static final int DEFAULT_CLUSTER_SIZE = 8;
+	/**
+	 * The default number of routes to keep cached.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	/**
+	 * Returned by {@link PathFinder#findPath(Position, Position, GameClock, long)}
+	 * when the deadline passes before a route is found (compare by reference).
+	 */
+	public static final Direction[] OUT_OF_TIME = new Direction[0];
+
+	// How many nodes are expanded between looks at the clock.
+	private static final int CLOCK_CHECK_INTERVAL = 64;
+
+	private static final Direction[] MOVES = NavigationGrid.MOVES;
+	private static final int[] DX = NavigationGrid.DX;
+	private static final int[] DY = NavigationGrid.DY;
+	// Only horizontal moves can cross into another cluster.
+	private static final int HORIZONTAL_MOVES = NavigationGrid.HORIZONTAL_MOVES;
+
+	private final GameWorld world;
+	private final NavigationGrid grid;
+	private final int clusterSize;
+	private final int cacheSize;
+
+	// How many clusters the map is split into.
+	private int clustersX, clustersY;
+
+	// The entrance cells of each cluster.
+	private IntArray[] entrances = new IntArray[0];
+	// The routes between entrances in the same cluster, by the entrance they start
+	// from, as (entrance, cost) pairs. Every entrance has an entry (even if it
+	// can't reach anything).
+	private IntMap<IntArray> routes = new IntMap<IntArray>();
+	// How many times each cluster has been rebuilt.
+	private int[] versions = new int[0];
+	// The clusters waiting to be rebuilt (and whether each one is).
+	private boolean[] dirty = new boolean[0];
+	private IntArray dirtyClusters = new IntArray();
+
+	// Planned routes, by their start and end cells (least recently used first).
+	// Only touched while holding its own lock.
+	private Map<Long, CachedPath> cache;
+
+	// Each thread's scratch space for searches, reused between them.
+	private static final ThreadLocal<Search> SEARCHES = ThreadLocal.withInitial(Search::new);
+
+	/**
+	 * Scratch space for one thread's searches, and the deadline of the route it
+	 * is currently planning.
+	 */
+	private static final class Search {
+		private final IntIntMap distances = new IntIntMap();
+		private final IntIntMap links = new IntIntMap();
+		private final IntIntMap startCosts = new IntIntMap();
+		private final IntIntMap goalCosts = new IntIntMap();
+		private final IntArray frontier = new IntArray();
+		private final int[] predecessors = new int[NavigationGrid.MAX_PREDECESSORS];
+		private final OpenSet open = new OpenSet();
+
+		private GameClock clock;
+		private long deadline;
+		private int untilCheck;
+
+		private void start(GameClock clock, long deadline) {
+			this.clock = clock;
+			this.deadline = deadline;
+			untilCheck = 1;
+		}
+
+		/**
+		 * @return <code>true</code> if the deadline has passed (looking at the
+		 *         clock straight away, then only every so often).
+		 */
+		private boolean outOfTime() {
+			if (clock == null || --untilCheck > 0) return false;
+
+			untilCheck = CLOCK_CHECK_INTERVAL;
+			return clock.currentTimeMillis() >= deadline;
+		}
+	}
+
+	/**
+	 * A planned route, along with the version of every cluster it passes through
+	 * when it was planned.
+	 */
+	private static final class CachedPath {
+		private final Direction[] moves;
+		private final int[] clusters, versions;
+
+		private CachedPath(Direction[] moves, int[] clusters, int[] versions) {
+			this.moves = moves;
+			this.clusters = clusters;
+			this.versions = versions;
+		}
+	}
+
+	/**
+	 * A binary min-heap of nodes by priority. The same node may be added more than
+	 * once (when a cheaper route to it is found) - the stale copies are skipped
+	 * when they come out.
+	 */
+	private static final class OpenSet {
+		private int[] nodes = new int[64];
+		private int[] priorities = new int[64];
+		private int size;
+
+		private void clear() {
+			size = 0;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private void add(int node, int priority) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, size * 2);
+				priorities = Arrays.copyOf(priorities, size * 2);
+			}
+
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (priorities[parent] <= priority) break;
+
+				nodes[i] = nodes[parent];
+				priorities[i] = priorities[parent];
+				i = parent;
+			}
+
+			nodes[i] = node;
+			priorities[i] = priority;
+		}
+
+		private int peekPriority() {
+			return priorities[0];
+		}
+
+		private int poll() {
+			int top = nodes[0];
+			int lastNode = nodes[--size];
+			int lastPriority = priorities[size];
+
+			int i = 0;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && priorities[child + 1] < priorities[child]) child++;
+				if (priorities[child] >= lastPriority) break;
+
+				nodes[i] = nodes[child];
+				priorities[i] = priorities[child];
+				i = child;
+			}
+
+			nodes[i] = lastNode;
+			priorities[i] = lastPriority;
+			return top;
+		}
+	}
+
+	/**
+	 * Creates a <code>PathFinder</code> for a <code>GameWorld</code> with the
+	 * default cluster and cache sizes.
+	 *
+	 * @param world - the <code>GameWorld</code> to find routes through.
+	 */
+	public PathFinder(GameWorld world) {
+		this(world, DEFAULT_CLUSTER_SIZE, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a <code>PathFinder</code> for a <code>GameWorld</code>, and starts
+	 * listening for changes to it (see {@link PathFinder#dispose()}).
+	 *
+	 * @param world       - the <code>GameWorld</code> to find routes through.
+	 *
+	 * @param clusterSize - the width (and length) of each cluster, in
+	 *                    <code>Tile</code>s (> 0).
+	 *
+	 * @param cacheSize   - how many planned routes to keep (>= 0).
+	 */
+	public PathFinder(GameWorld world, int clusterSize, int cacheSize) {
+		if (world == null) throw new GameError("PathFinder needs a GameWorld!");
+		if (clusterSize < 1) throw new GameError("Invalid cluster size: " + clusterSize);
+		if (cacheSize < 0) throw new GameError("Invalid cache size: " + cacheSize);
+
+		this.world = world;
+		this.grid = new NavigationGrid(world);
+		this.clusterSize = clusterSize;
+		this.cacheSize = cacheSize;
+
+		cache = new LinkedHashMap<Long, CachedPath>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+				return size() > PathFinder.this.cacheSize;
+			}
+		};
+
+		world.addNavigationListener(this);
+		if (world.isLoaded()) worldLoaded(world);
+	}
+
+	/**
+	 * Stops listening for changes to the <code>GameWorld</code> (after which this
+	 * <code>PathFinder</code> shouldn't be used).
+	 */
+	public synchronized void dispose() {
+		world.removeNavigationListener(this);
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	@Override
+	public synchronized void worldLoaded(GameWorld world) {
+		grid.resize();
+
+		clustersX = (grid.width + clusterSize - 1) / clusterSize;
+		clustersY = (grid.length + clusterSize - 1) / clusterSize;
+
+		entrances = new IntArray[clustersX * clustersY];
+		versions = new int[entrances.length];
+		dirty = new boolean[entrances.length];
+
+		routes.clear();
+		dirtyClusters.clear();
+		synchronized (cache) {
+			cache.clear();
+		}
+
+		for (int c = 0; c < entrances.length; c++) {
+			entrances[c] = new IntArray();
+			markDirty(c);
+		}
+	}
+
+	@Override
+	public synchronized void exitsChanged(int x, int y, int z) {
+		// The cluster itself, and any cluster the cell did (or now does) lead into.
+		markDirty(clusterOf(x, y));
+
+		for (int m = 0; m < HORIZONTAL_MOVES; m++) {
+			int nX = x + DX[m];
+			int nY = y + DY[m];
+
+			if (grid.inBounds(nX, nY, z)) markDirty(clusterOf(nX, nY));
+		}
+	}
+
+	/**
+	 * Plans a route from one <code>Position</code> to another.
+	 *
+	 * @param from - where to start (any point in the starting cell).
+	 *
+	 * @param to   - where to end up (any point in the goal cell).
+	 *
+	 * @return the moves to make, in order (empty if both are in the same cell),
+	 *         or <code>null</code> if there is no route (or either
+	 *         <code>Position</code> is invalid).
+	 */
+	public Direction[] findPath(Position from, Position to) {
+		return findPath(from, to, null, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Plans a route from one <code>Position</code> to another, giving up if it
+	 * is still being planned at a deadline (e.g., the one a <code>Brain</code>
+	 * is given to think by). Any pending repairs are made first, regardless of
+	 * the deadline.
+	 *
+	 * @param from     - where to start (any point in the starting cell).
+	 *
+	 * @param to       - where to end up (any point in the goal cell).
+	 *
+	 * @param clock    - the <code>GameClock</code> to check the deadline against
+	 *                 (or <code>null</code> for no deadline).
+	 *
+	 * @param deadline - the time (by the <code>GameClock</code>) to give up at.
+	 *
+	 * @return the moves to make, in order (empty if both are in the same cell),
+	 *         {@link PathFinder#OUT_OF_TIME} if the deadline passed first, or
+	 *         <code>null</code> if there is no route (or either
+	 *         <code>Position</code> is invalid).
+	 */
+	public Direction[] findPath(Position from, Position to, GameClock clock, long deadline) {
+		int start = grid.cellIndex(from);
+		int goal = grid.cellIndex(to);
+
+		if (start == -1 || goal == -1) return null;
+
+		if (start == goal) return new Direction[0];
+
+		repair();
+
+		Long key = ((long) start << 32) | goal;
+
+		synchronized (cache) {
+			CachedPath cached = cache.get(key);
+
+			if (cached != null) {
+				if (isCurrent(cached)) return cached.moves.clone();
+				cache.remove(key);
+			}
+		}
+
+		Search s = SEARCHES.get();
+		s.start(clock, deadline);
+
+		Direction[] moves = plan(s, start, goal);
+		if (moves == null || moves == OUT_OF_TIME) return moves;
+
+		if (cacheSize > 0) {
+			CachedPath planned = record(start, moves);
+
+			synchronized (cache) {
+				cache.put(key, planned);
+			}
+		}
+
+		return moves.clone();
+	}
+
+	/**
+	 * Rebuilds every cluster that has been marked for repair since the last
+	 * call. Happens automatically before each route is planned, but can be called
+	 * ahead of time (e.g., straight after a round's events have been applied, on
+	 * the game thread), so that routes are only ever planned against clusters
+	 * that are already up to date.
+	 *
+	 * @return the number of clusters rebuilt.
+	 */
+	public synchronized int repair() {
+		int repaired = dirtyClusters.size;
+
+		Search s = SEARCHES.get();
+		s.start(null, Long.MAX_VALUE);
+
+		for (int i = 0; i < dirtyClusters.size; i++) {
+			int cluster = dirtyClusters.get(i);
+
+			dirty[cluster] = false;
+			rebuildCluster(s, cluster);
+		}
+
+		dirtyClusters.clear();
+		return repaired;
+	}
+
+	/**
+	 * @return the total number of entrances across all clusters (once any pending
+	 *         repairs have been made).
+	 */
+	public synchronized int getEntranceCount() {
+		repair();
+
+		int count = 0;
+		for (IntArray clusterEntrances : entrances) count += clusterEntrances.size;
+		return count;
+	}
+
+	private void markDirty(int cluster) {
+		if (dirty[cluster]) return;
+
+		dirty[cluster] = true;
+		dirtyClusters.add(cluster);
+	}
+
+	/**
+	 * Works out a cluster's entrances again, and the routes between them.
+	 *
+	 * @param s       - the scratch space to search in.
+	 *
+	 * @param cluster - the cluster to rebuild.
+	 */
+	private void rebuildCluster(Search s, int cluster) {
+		IntArray clusterEntrances = entrances[cluster];
+
+		for (int i = 0; i < clusterEntrances.size; i++) routes.remove(clusterEntrances.get(i));
+		clusterEntrances.clear();
+
+		int minX = (cluster % clustersX) * clusterSize;
+		int minY = (cluster / clustersX) * clusterSize;
+		int maxX = Math.min(grid.width, minX + clusterSize) - 1;
+		int maxY = Math.min(grid.length, minY + clusterSize) - 1;
+
+		// Only the cells around the edge can be entrances.
+		for (int z = 0; z < grid.depth; z++) {
+			for (int y = minY; y <= maxY; y++) {
+				for (int x = minX; x <= maxX; x++) {
+					if (x != minX && x != maxX && y != minY && y != maxY) continue;
+
+					int cell = grid.cellIndex(x, y, z);
+					if (isEntrance(cell, cluster)) clusterEntrances.add(cell);
+				}
+			}
+		}
+
+		for (int i = 0; i < clusterEntrances.size; i++) {
+			int entrance = clusterEntrances.get(i);
+			IntArray entranceRoutes = new IntArray();
+
+			search(s, entrance, -1, cluster, false, s.distances, null);
+
+			for (int j = 0; j < clusterEntrances.size; j++) {
+				int other = clusterEntrances.get(j);
+				int cost = s.distances.get(other, -1);
+
+				if (other == entrance || cost == -1) continue;
+
+				entranceRoutes.add(other);
+				entranceRoutes.add(cost);
+			}
+
+			routes.put(entrance, entranceRoutes);
+		}
+
+		versions[cluster]++;
+	}
+
+	/**
+	 * Checks whether any move leads from a cell into another cluster, or from
+	 * another cluster into the cell.
+	 *
+	 * @param cell    - the cell to check.
+	 *
+	 * @param cluster - the cluster it is in.
+	 *
+	 * @return <code>true</code> if the cell is an entrance to its cluster.
+	 */
+	private boolean isEntrance(int cell, int cluster) {
+		int x = grid.cellX(cell);
+		int y = grid.cellY(cell);
+		int z = grid.cellZ(cell);
+
+		for (int m = 0; m < HORIZONTAL_MOVES; m++) {
+			int next = grid.step(cell, m);
+			if (next != -1 && clusterOf(grid.cellX(next), grid.cellY(next)) != cluster) return true;
+
+			// Anything next door (on any neighbouring layer) that leads in here?
+			int nX = x + DX[m];
+			int nY = y + DY[m];
+
+			if (!grid.inBounds(nX, nY, z) || clusterOf(nX, nY) == cluster) continue;
+
+			for (int nZ = Math.max(0, z - 1); nZ <= Math.min(grid.depth - 1, z + 1); nZ++) {
+				if (grid.step(grid.cellIndex(nX, nY, nZ), NavigationGrid.opposite(m)) == cell) return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Plans a route over the clusters' entrances, then fills it in.
+	 *
+	 * @param s     - the scratch space to search in.
+	 *
+	 * @param start - the cell to start from.
+	 *
+	 * @param goal  - the cell to end up in.
+	 *
+	 * @return the moves to make, <code>null</code> if there is no route, or
+	 *         {@link PathFinder#OUT_OF_TIME}.
+	 */
+	private Direction[] plan(Search s, int start, int goal) {
+		int startCluster = clusterOf(grid.cellX(start), grid.cellY(start));
+		int goalCluster = clusterOf(grid.cellX(goal), grid.cellY(goal));
+
+		// The costs from the start to everything in its cluster, and from
+		// everything in the goal's cluster to the goal.
+		search(s, start, -1, startCluster, false, s.startCosts, null);
+		search(s, goal, -1, goalCluster, true, s.goalCosts, null);
+
+		IntIntMap costs = s.distances;
+		IntIntMap parents = s.links;
+		OpenSet open = s.open;
+		costs.clear();
+		parents.clear();
+		open.clear();
+
+		costs.put(start, 0);
+		open.add(start, heuristic(start, goal));
+
+		while (open.size() > 0) {
+			if (s.outOfTime()) return OUT_OF_TIME;
+
+			int priority = open.peekPriority();
+			int node = open.poll();
+			int cost = costs.get(node, 0);
+
+			if (node == goal) return fillIn(s, start, goal, parents);
+			// Already expanded via a cheaper route since this was queued.
+			if (priority > cost + heuristic(node, goal)) continue;
+
+			int cluster = clusterOf(grid.cellX(node), grid.cellY(node));
+
+			// Straight to the goal, if it is in the same cluster.
+			if (cluster == goalCluster) {
+				int toGoal = s.goalCosts.get(node, -1);
+				if (toGoal != -1) relax(s, node, goal, cost + toGoal, goal);
+			}
+
+			if (node == start) {
+				IntArray clusterEntrances = entrances[startCluster];
+
+				for (int i = 0; i < clusterEntrances.size; i++) {
+					int entrance = clusterEntrances.get(i);
+					int toEntrance = s.startCosts.get(entrance, -1);
+
+					if (toEntrance > 0) relax(s, node, entrance, cost + toEntrance, goal);
+				}
+			}
+
+			IntArray entranceRoutes = routes.get(node);
+			if (entranceRoutes == null) continue;
+
+			for (int i = 0; i < entranceRoutes.size; i += 2) {
+				relax(s, node, entranceRoutes.get(i), cost + entranceRoutes.get(i + 1), goal);
+			}
+
+			// Across into the neighbouring clusters.
+			for (int m = 0; m < HORIZONTAL_MOVES; m++) {
+				int next = grid.step(node, m);
+
+				if (next != -1 && clusterOf(grid.cellX(next), grid.cellY(next)) != cluster) relax(s, node, next, cost + 1, goal);
+			}
+		}
+
+		return null;
+	}
+
+	private void relax(Search s, int from, int to, int cost, int goal) {
+		int existing = s.distances.get(to, -1);
+		if (existing != -1 && existing <= cost) return;
+
+		s.distances.put(to, cost);
+		s.links.put(to, from);
+		s.open.add(to, cost + heuristic(to, goal));
+	}
+
+	/**
+	 * Turns a route over entrances into the individual moves along it.
+	 *
+	 * @param s       - the scratch space to search in.
+	 *
+	 * @param start   - the cell the route starts from.
+	 *
+	 * @param goal    - the cell the route ends at.
+	 *
+	 * @param parents - the node each node on the route was reached from.
+	 *
+	 * @return the moves to make (or {@link PathFinder#OUT_OF_TIME}).
+	 */
+	private Direction[] fillIn(Search s, int start, int goal, IntIntMap parents) {
+		IntArray nodes = new IntArray();
+		for (int node = goal; node != start; node = parents.get(node, start)) nodes.add(node);
+		nodes.add(start);
+		nodes.reverse();
+
+		IntArray moves = new IntArray();
+
+		for (int i = 1; i < nodes.size; i++) {
+			int from = nodes.get(i - 1);
+			int to = nodes.get(i);
+			int cluster = clusterOf(grid.cellX(from), grid.cellY(from));
+
+			if (clusterOf(grid.cellX(to), grid.cellY(to)) != cluster) {
+				moves.add(grid.moveBetween(from, to));
+				continue;
+			}
+
+			if (s.outOfTime()) return OUT_OF_TIME;
+
+			// Search the cluster again, this time keeping track of the way back.
+			IntIntMap found = s.goalCosts;
+			search(s, from, to, cluster, false, s.startCosts, found);
+
+			int segmentStart = moves.size;
+			for (int cell = to; cell != from; cell = found.get(cell, from)) {
+				moves.add(grid.moveBetween(found.get(cell, from), cell));
+			}
+
+			// (Found backwards.)
+			for (int a = segmentStart, b = moves.size - 1; a < b; a++, b--) moves.swap(a, b);
+		}
+
+		Direction[] directions = new Direction[moves.size];
+		for (int i = 0; i < moves.size; i++) directions[i] = MOVES[moves.get(i)];
+		return directions;
+	}
+
+	/**
+	 * Breadth-first search from (or, in reverse, towards) a cell, without leaving
+	 * its cluster.
+	 *
+	 * @param s         - the scratch space to search in.
+	 *
+	 * @param origin    - the cell to search from.
+	 *
+	 * @param target    - a cell to stop at once it is found (or -1 to search the
+	 *                  whole cluster).
+	 *
+	 * @param cluster   - the cluster to stay within.
+	 *
+	 * @param reverse   - whether to search for the cells that can reach the
+	 *                  origin, rather than those it can reach.
+	 *
+	 * @param costs     - filled with the number of moves between the origin and
+	 *                  each cell found.
+	 *
+	 * @param linksOut  - if not <code>null</code>, filled with the cell each cell
+	 *                  was found from.
+	 */
+	private void search(Search s, int origin, int target, int cluster, boolean reverse, IntIntMap costs, IntIntMap linksOut) {
+		IntArray frontier = s.frontier;
+		int[] predecessors = s.predecessors;
+
+		costs.clear();
+		if (linksOut != null) linksOut.clear();
+		frontier.clear();
+
+		costs.put(origin, 0);
+		frontier.add(origin);
+
+		for (int head = 0; head < frontier.size; head++) {
+			int cell = frontier.get(head);
+			if (cell == target) return;
+
+			int cost = costs.get(cell, 0) + 1;
+
+			if (reverse) {
+				// Every cell that a move could have come from.
+				int found = grid.predecessors(cell, predecessors);
+
+				for (int i = 0; i < found; i++) {
+					int previous = predecessors[i];
+
+					if (clusterOf(grid.cellX(previous), grid.cellY(previous)) == cluster) visit(frontier, previous, cell, cost, costs, linksOut);
+				}
+			} else {
+				for (int m = 0; m < MOVES.length; m++) {
+					int next = grid.step(cell, m);
+
+					if (next != -1 && clusterOf(grid.cellX(next), grid.cellY(next)) == cluster) visit(frontier, next, cell, cost, costs, linksOut);
+				}
+			}
+		}
+	}
+
+	private void visit(IntArray frontier, int cell, int from, int cost, IntIntMap costs, IntIntMap linksOut) {
+		if (costs.containsKey(cell)) return;
+
+		costs.put(cell, cost);
+		if (linksOut != null) linksOut.put(cell, from);
+		frontier.add(cell);
+	}
+
+	/**
+	 * An estimate of the moves between two cells that is never too high: each
+	 * move covers at most one <code>Tile</code> horizontally and one z-layer.
+	 */
+	private int heuristic(int from, int to) {
+		int horizontal = Math.abs(grid.cellX(from) - grid.cellX(to)) + Math.abs(grid.cellY(from) - grid.cellY(to));
+		return Math.max(horizontal, Math.abs(grid.cellZ(from) - grid.cellZ(to)));
+	}
+
+	private CachedPath record(int start, Direction[] moves) {
+		IntArray clusters = new IntArray();
+		int x = grid.cellX(start);
+		int y = grid.cellY(start);
+
+		clusters.add(clusterOf(x, y));
+		for (Direction move : moves) {
+			for (int m = 0; m < MOVES.length; m++) {
+				if (MOVES[m] != move) continue;
+
+				x += DX[m];
+				y += DY[m];
+				break;
+			}
+
+			int cluster = clusterOf(x, y);
+			if (!clusters.contains(cluster)) clusters.add(cluster);
+		}
+
+		int[] clusterVersions = new int[clusters.size];
+		for (int i = 0; i < clusters.size; i++) clusterVersions[i] = versions[clusters.get(i)];
+
+		return new CachedPath(moves, clusters.toArray(), clusterVersions);
+	}
+
+	private boolean isCurrent(CachedPath path) {
+		for (int i = 0; i < path.clusters.length; i++) {
+			if (versions[path.clusters[i]] != path.versions[i]) return false;
+		}
+
+		return true;
+	}
+
+	private int clusterOf(int x, int y) {
+		return (y / clusterSize) * clustersX + x / clusterSize;
+	}
+}
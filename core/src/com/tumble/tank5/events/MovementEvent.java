@@ -60,6 +60,8 @@ public class MovementEvent extends Event {
 	@Override
 	public void apply(GameWorld gW, int currentTick, Queue<Event> eventStream) {
 		for (Entity key : moves.keySet()) {
+			gW.objectMoving(key);
+			
 			switch (eventType) {
 			case START:
 				moves.get(key).applyStart(key);
@@ -71,8 +73,13 @@ public class MovementEvent extends Event {
 				moves.get(key).applyEnd(key);
 				break;
 			}
+			
+			gW.objectMoved(key);
 		}
 		
+		// Entities that run into each other both die.
+		gW.checkCollisions(currentTick, eventStream);
+		
 		finished = true;
 	}
 
@@ -1,9 +1,7 @@
 package com.tumble.tank5.game_object.entities;
 
-import com.tumble.tank5.game_object.tiles.StairCase;
 import com.tumble.tank5.game_object.tiles.Tile;
 import com.tumble.tank5.game_object.tiles.Tile.TileType;
-import com.tumble.tank5.util.DirectionVector;
 import com.tumble.tank5.util.GameError;
 import com.tumble.tank5.util.IDManager;
 import com.tumble.tank5.util.Position;
@@ -12,6 +10,7 @@ import com.tumble.tank5.weapons.Weapon;
 import com.tumble.tank5.world_logic.game_n_world.Game;
 import com.tumble.tank5.world_logic.game_n_world.GameObject;
 import com.tumble.tank5.world_logic.game_n_world.GameWorld;
+import com.tumble.tank5.world_logic.game_n_world.RoundSnapshot;
 
 /**
  * The core class of any mobile object in the game world. An entity is not a
@@ -119,137 +118,30 @@ public abstract class Entity extends GameObject {
 		if (move == null || gW == null || !gW.hasEntity(this))
 			return false;
 
-		DirectionVector moveVector = move.direction.asVector();
-		Tile currentFootTile = gW.tileAt(getFootPosition());
-
-		Position newCentrePos = position.step(moveVector, 1);
-		Position newFootPos = getFootPosition().step(moveVector, 1);
-		
-		// Ladder movements.
-		if (move.direction == Direction.UP) {
-			Tile newTile = gW.tileAt(
-					move.direction == Direction.UP
-							? newCentrePos
-							: newFootPos);
-			return currentFootTile.getType() == TileType.LADDER && newTile != null && !newTile.isObstruction(moveVector);
-		}
-
-		if (move.direction == Direction.DOWN) {
-			Tile newTile = gW.tileAt(newFootPos);
-
-			// Invalid move!
-			if (newTile == null || newTile.isObstruction(moveVector))
-				return false;
-
-			if (currentFootTile.getType() == TileType.LADDER) {
-				// Drop off the bottom of a Ladder into empty space/climb down onto
-				// another Ladder below.
-				return true;
-			}
-
-			// Move from standing on top of a Ladder to climbing down onto it.
-			if (newTile.getType() == TileType.LADDER) {
-				return true;
-			}
-
-			// Keep moving down after having dropped off a Ladder into empty space.
-			Tile tileAbove = gW.tileAt(position.move(Direction.UP));
-			if (tileAbove != null && tileAbove.getType() == TileType.LADDER)
-				return true;
-
-			return false;
-		}
-		
-		// Do StairCase altitude adjustments.
-		Tile belowNewFootTile = gW.tileAt(
-				newFootPos.step(Direction.DOWN, 1));
-		
-		// Going up StairCases:
-		if (currentFootTile.getType() == TileType.STAIRS
-				&& ((StairCase) currentFootTile).upDirection.equals(moveVector)) {
-			newCentrePos = newCentrePos.step(Direction.UP, 1);
-		}
-		// Going down StairCases (note that this can't push Entities through the bottom of the map):
-		if (belowNewFootTile != null
-				&& belowNewFootTile.getType() == TileType.STAIRS
-				&& ((StairCase) belowNewFootTile).downDirection.equals(moveVector)) {
-			newCentrePos = newCentrePos.step(Direction.DOWN, 1);
-		}
-		
-		// Check for obstructions/not moving off the map.
-		Tile newTile = gW.tileAt(newCentrePos);
-		if (newTile == null) return false;
-		
-		// Are we trying to enter/exit a Ladder through its bars?
-		if ((newTile.getType() == TileType.LADDER && newTile.isObstruction(moveVector.reverse())
-				|| (currentFootTile.getType() == TileType.LADDER && currentFootTile.isObstruction(moveVector))))
-			return false;
-		// For normal Tiles/move cases.
-		return !newTile.isObstruction(moveVector);
+		// Every step of a Move is part of the same whole-Tile move, so it is
+		// checked against the cell the Move started from (whose exits are kept up
+		// to date as Tiles change, even part-way through the Move).
+		return gW.canExit(move.start != null ? move.start : position, move.direction);
 	}
 	
 	/**
+	 * Return whether the <code>Entity</code> could validly move one
+	 * <code>Tile</code> in a given direction from where it is now (see
+	 * {@link GameWorld#canExit(Position, Direction)}).
 	 * 
-	 * @param direction
+	 * @param direction - the direction to move in.
 	 * 
-	 * @param gW
+	 * @param gW        - the <code>GameWorld</code> the <code>Entity</code> exists
+	 *                  in.
 	 * 
-	 * @return
+	 * @return <code>true</code> if the move is legal, otherwise
+	 *         <code>false</code>.
 	 */
 	public boolean canMove(Direction direction, GameWorld gW) {
 		if (direction == null || !direction.validEntityMove() || gW == null || !gW.hasEntity(this))
 			return false;
 		
-		if (direction == Direction.NONE) return true;
-
-		DirectionVector moveVector = direction.asVector();
-		Tile currentTile = gW.tileAt(position);
-		
-		if (currentTile.isObstruction(moveVector)) return false;
-		
-		Position newPos = position.move(moveVector);
-		
-		if (direction == Direction.UP) {
-			// Can only move up an (unobstructed) Ladder.
-			Tile newTile = gW.tileAt(newPos);
-			return currentTile.getType() == TileType.LADDER && newTile != null && !newTile.isObstruction(moveVector);
-		}
-		
-		if (direction == Direction.DOWN) {
-			Tile newTile = gW.tileAt(newPos);
-
-			// Drop off the bottom of a Ladder into empty space/climb down onto
-			// another Ladder below.
-			if (currentTile.getType() == TileType.LADDER && newTile != null && !newTile.isObstruction(moveVector))
-				return true;
-
-			// Move from standing on top of a Ladder to climbing down onto it.
-			return !currentTile.isObstruction(moveVector) && newTile != null && newTile.getType() == TileType.LADDER;
-		}
-		
-		if (currentTile.getType() == TileType.LADDER) {
-			Tile newTile = gW.tileAt(newPos);
-			return !currentTile.isObstruction(moveVector) && newTile != null && !newTile
-			
-		}
-		
-		Position belowNewFootPos = getFootPosition().move(moveVector).step(Direction.DOWN, 1);
-
-		if (currentTile.getType() == TileType.STAIRS) {
-			newPos = newPos.move(((StairCase) currentTile).getHeightChange(moveVector));
-			belowNewFootPos = belowNewFootPos.move(((StairCase) currentTile).getHeightChange(moveVector));
-		}
-		
-		Tile belowNewTile = gW.tileAt(belowNewFootPos);
-		
-		if (belowNewTile != null && belowNewTile.getType() == TileType.STAIRS) {
-			return ((StairCase) belowNewTile).downDirection.equals(moveVector);
-		}
-
-		Tile newTile = gW.tileAt(newPos);
-
-		return (newTile.getType() != TileType.STAIRS && newTile.isObstruction(moveVector))
-				|| (newTile.getType() == TileType.STAIRS && ((StairCase) newTile).upDirection.equals(moveVector));
+		return gW.canExit(position, direction);
 	}
 
 	/**
@@ -267,15 +159,41 @@ public abstract class Entity extends GameObject {
 	 *         <code>false</code> if it was invalid in some way.
 	 */
 	public final boolean canAttack(Game g, Position... positions) {
-		if (g == null || !g.getWorld().hasEntity(this) || positions.length < 2 || weaponIndex == -1
+		if (g == null || !g.getWorld().hasEntity(this) || !inRange(positions)
 				|| !weapons[weaponIndex].ableToFire(g.getRoundNumber()))
 			return false;
 		
+		return !isDead();
+	}
+	
+	/**
+	 * Return whether the <code>Entity</code> could validly have made an attack
+	 * using its active <code>Weapon</code>, as it was when a
+	 * <code>RoundSnapshot</code> was taken (see
+	 * {@link Entity#canAttack(Game, Position...)}).
+	 * 
+	 * @param snapshot  - the <code>RoundSnapshot</code> to check against.
+	 * 
+	 * @param positions - the <code>Position</code>s to pass to the
+	 *                  <code>Entity</code>'s equipped weapon to make its attack
+	 *                  with.
+	 * 
+	 * @return <code>true</code> if the attack was valid, otherwise
+	 *         <code>false</code>.
+	 */
+	public final boolean canAttack(RoundSnapshot snapshot, Position... positions) {
+		return snapshot != null && inRange(positions) && snapshot.canFire(this, weapons[weaponIndex]);
+	}
+	
+	// Whether the active Weapon could reach the given Positions (from the first).
+	private boolean inRange(Position... positions) {
+		if (positions.length < 2 || weaponIndex == -1) return false;
+		
 		for (int i = 1; i < positions.length; i++) {
 			if (!weapons[weaponIndex].isInRange(positions[0], positions[i])) return false;
 		}
 		
-		return !isDead();
+		return true;
 	}
 
 	/**
@@ -288,6 +206,19 @@ public abstract class Entity extends GameObject {
 	public final boolean canSwitchWeapon() {
 		return !isDead() && weapons.length >= 2;
 	}
+	
+	/**
+	 * Return whether the <code>Entity</code> could validly have switched
+	 * <code>Weapon</code>, as it was when a <code>RoundSnapshot</code> was taken.
+	 * 
+	 * @param snapshot - the <code>RoundSnapshot</code> to check against.
+	 * 
+	 * @return <code>true</code> if the <code>Entity</code> was able to switch
+	 *         weapon, otherwise <code>false</code>.
+	 */
+	public final boolean canSwitchWeapon(RoundSnapshot snapshot) {
+		return snapshot != null && snapshot.getHealth(this) > 0 && weapons.length >= 2;
+	}
 
 	/**
 	 * Attempts to make reloading the <code>Entity</code>'s equipped weapon the
@@ -302,6 +233,19 @@ public abstract class Entity extends GameObject {
 		return weaponIndex != -1 && weapons[weaponIndex].ableToReload();
 	}
 	
+	/**
+	 * Return whether the <code>Entity</code> could validly have reloaded its
+	 * equipped weapon, as it was when a <code>RoundSnapshot</code> was taken.
+	 * 
+	 * @param snapshot - the <code>RoundSnapshot</code> to check against.
+	 * 
+	 * @return <code>true</code> if the weapon-reload was valid, otherwise
+	 *         <code>false</code>.
+	 */
+	public final boolean canReload(RoundSnapshot snapshot) {
+		return snapshot != null && weaponIndex != -1 && snapshot.canReload(this, weapons[weaponIndex]);
+	}
+	
 	/**
 	 * Find out whether this <code>Entity</code> is currently on a
 	 * <code>Ladder</code> or <code>StairCase</code> in its <code>GameWorld</code>.
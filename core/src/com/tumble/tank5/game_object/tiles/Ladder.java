@@ -11,16 +11,16 @@ public class Ladder extends Tile {
 		
 		switch (rotation) {
 		case 1:
-			obstructiveDirection = new DirectionVector(0, 1, 0);
+			obstructiveDirection = DirectionVector.of(0, 1, 0);
 			break;
 		case 2:
-			obstructiveDirection = new DirectionVector(-1, 0, 0);
+			obstructiveDirection = DirectionVector.of(-1, 0, 0);
 			break;
 		case 3:
-			obstructiveDirection = new DirectionVector(0, -1, 0);
+			obstructiveDirection = DirectionVector.of(0, -1, 0);
 			break;
 		default:
-			obstructiveDirection = new DirectionVector(1, 0, 0);
+			obstructiveDirection = DirectionVector.of(1, 0, 0);
 		}
 	}
 
@@ -1,8 +1,5 @@
 package com.tumble.tank5.game_object.tiles;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.tumble.tank5.game_object.entities.Entity;
 import com.tumble.tank5.util.DirectionVector;
 import com.tumble.tank5.util.Position;
@@ -15,7 +12,10 @@ public class Rubble extends Tile {
 	 */
 	public static final int OBSTRUCTIVE_THRESHOLD = 5;
 	
-	List<TileType> types;
+	private static final int TYPE_COUNT = TileType.values().length;
+	
+	// How many of each TileType (by ordinal) have ended up in this pile.
+	final int[] composition = new int[TYPE_COUNT];
 
 	/**
 	 * 
@@ -26,17 +26,9 @@ public class Rubble extends Tile {
 	public Rubble(GameObject from, Position pos, Entity attacker) {
 		super(TileType.RUBBLE, pos, 1, from.getWeight());
 		
-		damage(1, attacker); // Deals 1 damage to set our attacker.
+		setAttacker(attacker);
 		
-		types = new ArrayList<TileType>();
-		
-		if (from instanceof Entity) {
-			types.add(TileType.CORPSE);
-		} else if (from instanceof Rubble) {
-			types.addAll(((Rubble) from).types);
-		} else {
-			types.add(((Tile) from).getType());
-		}
+		addComposition(from);
 	}
 
 	@Override
@@ -60,25 +52,68 @@ public class Rubble extends Tile {
 	}
 
 	/**
-	 * Returns a new <code>Rubble</code> that represents this pile of rubble with a
-	 * given pile added on top (the order of types is maintained as if the given
-	 * <code>Rubble</code> had fallen on this one). The resultant
-	 * <code>Rubble</code> <code>Tile</code> has the parameterised
-	 * <code>Rubble</code>'s attacker, but this <code>Rubble</code>'s position.
+	 * Adds a given pile of rubble on top of this one, in place. This
+	 * <code>Rubble</code> keeps its position, but takes on the parameterised
+	 * <code>Rubble</code>'s attacker.
 	 * 
 	 * @param rub - the <code>Rubble</code> to add to this object. If it is
-	 *            <code>null</code>, the return value of this method will also be
-	 *            <code>null</code>.
+	 *            <code>null</code> (or this pile itself), this method has no
+	 *            effect.
 	 * 
-	 * @return the combined <code>Rubble</code> object, or <code>null</code> if the
-	 *         parameterised <code>Rubble</code> was <code>null</code>.
+	 * @return this (combined) <code>Rubble</code> object.
 	 */
 	public Rubble combine(Rubble rub) {
-		Rubble res = new Rubble(this, this.position, rub.getAttacker());
+		if (rub == null || rub == this) return this;
+		
+		addComposition(rub);
+		weight += rub.weight;
+		setAttacker(rub.getAttacker());
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a destroyed <code>Tile</code> (or corpse) to this pile, in place, as
+	 * if it had been turned into <code>Rubble</code> and combined with it.
+	 * 
+	 * @param from - the <code>GameObject</code> to add. If it is
+	 *             <code>null</code> (or this pile itself), this method has no
+	 *             effect.
+	 * 
+	 * @return this (enlarged) <code>Rubble</code> object.
+	 */
+	public Rubble absorb(GameObject from) {
+		if (from == null || from == this) return this;
 		
-		res.types.addAll(rub.types);
-		res.weight += rub.weight;
+		addComposition(from);
+		weight += from.getWeight();
 		
-		return res;
+		return this;
+	}
+	
+	/**
+	 * Gets how many <code>Tile</code>s (or corpses) of a given type have ended up
+	 * in this pile.
+	 * 
+	 * @param type - the <code>TileType</code> to count.
+	 * 
+	 * @return the number of that type in this pile (0 for <code>null</code>).
+	 */
+	public int count(TileType type) {
+		return type == null ? 0 : composition[type.ordinal()];
+	}
+	
+	private void addComposition(Rubble rub) {
+		for (int i = 0; i < composition.length; i++) composition[i] += rub.composition[i];
+	}
+	
+	private void addComposition(GameObject from) {
+		if (from instanceof Entity) {
+			composition[TileType.CORPSE.ordinal()]++;
+		} else if (from instanceof Rubble) {
+			addComposition((Rubble) from);
+		} else {
+			composition[((Tile) from).getType().ordinal()]++;
+		}
 	}
 }
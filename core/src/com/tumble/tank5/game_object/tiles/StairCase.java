@@ -16,7 +16,7 @@ public class StairCase extends Tile {
 	
 	private DirectionVector validate(DirectionVector dir) {
 		if (dir == null || dir.z != 0 || (dir.x != 0) == (dir.y != 0)) {
-			return new DirectionVector(0, 0, 0);
+			return DirectionVector.of(0, 0, 0);
 		}
 		
 		return dir;
@@ -1,10 +1,7 @@
 package com.tumble.tank5.game_object.tiles;
 
-import java.util.HashSet;
 import java.util.Queue;
-import java.util.Set;
 
-import com.tumble.tank5.events.DeathEvent;
 import com.tumble.tank5.events.Event;
 import com.tumble.tank5.game_object.entities.Entity;
 import com.tumble.tank5.util.DirectionVector;
@@ -23,8 +20,6 @@ public abstract class Tile extends GameObject {
 	
 	private boolean hasDied = false;
 	
-	private Set<Tile> supports = new HashSet<Tile>();
-	private Set<Tile> supportedBy = new HashSet<Tile>();
 
 	private TileType type;
 
@@ -64,81 +59,49 @@ public abstract class Tile extends GameObject {
 
 	public abstract boolean stopsFalling();
 
-	public boolean die(int atTick, Entity attacker, GameWorld gW, Queue<Event> eventStream) {
-		// Rubble and Air Tiles can't be killed.
-		if (type == TileType.RUBBLE || this == Air.AIR || hasDied) return false;
-		
-		damage(Math.max(1, getHealth()), attacker);
-		
-		for (Tile t : supports) {
-			if (t.removeSupport(this, gW)) {
-				eventStream.offer(
-						new DeathEvent(
-								atTick,
-								t,
-								attacker));
-			}
-		}
-
-		hasDied = true;
-		return gW.requestRubblification(this, getAttacker());
-	}
-
 	/**
-	 * Adds a supporting <code>Tile</code> to this <code>Tile</code>'s set of
-	 * supports - a set of <i>other</i> <code>Tile</code>s that hold this one up;
-	 * that, if they are all destroyed, will cause the collapse of this
-	 * <code>Tile</code> (and potentially any other <code>Tile</code>s that it
-	 * supports). If this is an <code>Air Tile</code> then this method will have no
-	 * effect.
+	 * Kills this <code>Tile</code> and asks the <code>GameWorld</code> to turn it
+	 * into <code>Rubble</code>. Any <code>Tile</code>s left without a path of
+	 * support to the ground (see the <code>GameWorld</code>'s support graph) are
+	 * collapsed by the <code>GameWorld</code> (all at once) when it next cleans
+	 * up.
 	 * 
-	 * @param t  - the <code>Tile</code> that supports this <code>Tile</code> (that
-	 *           this one is supported <i>by</i>). Will not be added if it is
-	 *           <code>null</code> or this <code>Tile</code> itself (to avoid
-	 *           infinite looping in {@link Tile#hashCode()} - as well as the
-	 *           nonsensical situation in which a lone <code>Tile</code> supports
-	 *           itself).
+	 * @param atTick      - the tick the <code>Tile</code> died at.
 	 * 
-	 * @param gW - the <code>GameWorld</code> that both <code>Tile</code>s are a
-	 *           part of (no action will be taken if either does not exist in the
-	 *           given world).
+	 * @param attacker    - the <code>Entity</code> responsible.
+	 * 
+	 * @param gW          - the <code>GameWorld</code> the <code>Tile</code> is a
+	 *                    part of.
+	 * 
+	 * @param eventStream - the stream of <code>Event</code>s being processed.
+	 * 
+	 * @return <code>true</code> if the <code>Tile</code> will be rubblified,
+	 *         otherwise <code>false</code>.
 	 */
-	public void addSupport(Tile t, GameWorld gW) {
-		if (this == Air.AIR) return;
+	public boolean die(int atTick, Entity attacker, GameWorld gW, Queue<Event> eventStream) {
+		if (!kill(attacker)) return false;
 		
-		if (t != null
-				&& t != this
-				&& gW.tileAt(getPosition()) == this
-				&& (t.type == TileType.AIR || gW.tileAt(t.getPosition()) == t)) {
-			supportedBy.add(t);
-			t.supports.add(this);
-		}
+		return gW.requestRubblification(this, getAttacker());
 	}
-
+	
 	/**
-	 * Removes a supporting <code>Tile</code> from this <code>Tile</code>'s set of
-	 * supports. If this is an <code>Air</code> or <code>Rubble Tile</code> then
-	 * this method will have no effect.
+	 * Kills this <code>Tile</code> <i>without</i> asking for it to be rubblified
+	 * (for when the <code>GameWorld</code> is already dealing with its remains,
+	 * e.g., when carving out a whole region at once).
 	 * 
-	 * @param t  - the supporting <code>Tile</code> to remove (that has been
-	 *           destroyed).
+	 * @param attacker - the <code>Entity</code> responsible.
 	 * 
-	 * 
-	 * @param gW - the <code>GameWorld</code> that both <code>Tile</code>s are a
-	 *           part of (no action will be taken if either does not exist in the
-	 *           given world).
-	 * 
-	 * @return <code>true</code> if this operation successfully removed the
-	 *         supporting <code>Tile</code>, this <code>Tile</code> no longer has
-	 *         any supports left, otherwise (including for invalid parameters)
-	 *         <code>false</code>.
+	 * @return <code>true</code> if the <code>Tile</code> was killed, or
+	 *         <code>false</code> if it can't be (or already has been).
 	 */
-	private boolean removeSupport(Tile t, GameWorld gW) {
-		return this != Air.AIR
-				&& supportedBy.remove(t)
-				&& gW.tileAt(getPosition()) == this
-				&& supportedBy.size() == 0
-				&& type != TileType.RUBBLE;
+	public boolean kill(Entity attacker) {
+		// Rubble and Air Tiles can't be killed.
+		if (type == TileType.RUBBLE || this == Air.AIR || hasDied) return false;
+		
+		damage(Math.max(1, getHealth()), attacker);
+
+		hasDied = true;
+		return true;
 	}
 
 	public TileType getType() {
@@ -160,10 +123,6 @@ public abstract class Tile extends GameObject {
 		
 		return other.type == type
 				&& other.toString().equals(toString())
-				&& other.supports.containsAll(supports)
-				&& other.supports.size() == supports.size()
-				&& other.supportedBy.containsAll(supportedBy)
-				&& other.supportedBy.size() == supportedBy.size()
 				&& (getPosition() == null || getPosition().sameTile(other.getPosition()))
 				&& other.getHealth() == getHealth();
 	}
@@ -176,13 +135,12 @@ public abstract class Tile extends GameObject {
 		hash = hash * prime + type.hashCode();
 		hash = hash * prime + toString().hashCode();
 		
-		// Possibly expensive calls? See HashSet.hashCode().
-		hash = hash * prime + supports.hashCode();
-		hash = hash * prime + supportedBy.hashCode();
-		
-		hash = hash * prime + (getPosition() == null ? 0 : getPosition().hashCode());
-		
-		hash = hash * prime + getHealth();
+		// Only hash what can't change while the Tile is in place (not its health).
+		if (getPosition() != null) {
+			hash = hash * prime + getPosition().getX();
+			hash = hash * prime + getPosition().getY();
+			hash = hash * prime + getPosition().getZ();
+		}
 		
 		return hash;
 	}
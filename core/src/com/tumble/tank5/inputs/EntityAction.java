@@ -2,8 +2,10 @@ package com.tumble.tank5.inputs;
 
 import com.tumble.tank5.game_object.entities.Action;
 import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.util.DirectionVector;
 import com.tumble.tank5.util.Pair;
 import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.RoundSnapshot;
 
 /**
  * Represents a suggested action input (either shooting, switching weapon or
@@ -46,4 +48,32 @@ public class EntityAction extends Input {
 
 		return valid ? new Pair<Entity, Object>(entity, action.copy()) : null;
 	}
+	
+	@Override
+	public Pair<Entity, Object> validate(RoundSnapshot snapshot, DirectionVector plannedMove) {
+		if (entity == null || snapshot == null || !snapshot.contains(entity))
+			return null;
+
+		boolean valid = false;
+		switch (action.getType()) {
+		case FIRE:
+			valid = entity.canAttack(snapshot, action.getPositions());
+			break;
+		case SWITCH_WEAPON:
+			valid = entity.canSwitchWeapon(snapshot);
+			break;
+		case RELOAD:
+			valid = entity.canReload(snapshot);
+			break;
+		case NONE:
+			// No effect (see apply()).
+		}
+
+		return valid ? new Pair<Entity, Object>(entity, action.copy()) : null;
+	}
+	
+	@Override
+	public Entity getSubject() {
+		return entity;
+	}
 }
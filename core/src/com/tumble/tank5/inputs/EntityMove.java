@@ -4,6 +4,7 @@ import com.tumble.tank5.game_object.entities.Entity;
 import com.tumble.tank5.util.DirectionVector;
 import com.tumble.tank5.util.Pair;
 import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.RoundSnapshot;
 
 /**
  * Represents a suggested movement input for an <code>Entity</code> to perform
@@ -27,10 +28,28 @@ public class EntityMove extends Input {
 	public Pair<Entity, Object> apply(Game g) {
 		if (entity == null || entity.isDead() || g == null || !g.getWorld().hasEntity(entity)) return null;
 
-		DirectionVector toMove = moveIn.combine(g.getMove(entity));
+		DirectionVector planned = g.getMove(entity);
+		DirectionVector toMove = moveIn.combine(planned);
 		
-		if (toMove.equals(moveIn) || !entity.canMove(toMove.asEnum(), g.getWorld())) return null;
+		// Reject Inputs that wouldn't change anything.
+		if (toMove.equals(planned) || !entity.canMove(toMove.asEnum(), g.getWorld())) return null;
 		
 		return new Pair<Entity, Object>(entity, toMove);
 	}
+	
+	@Override
+	public Pair<Entity, Object> validate(RoundSnapshot snapshot, DirectionVector plannedMove) {
+		if (entity == null || snapshot == null || !snapshot.contains(entity)) return null;
+		
+		DirectionVector toMove = moveIn.combine(plannedMove);
+		
+		if (toMove.equals(plannedMove) || !snapshot.canExit(entity, toMove.asEnum())) return null;
+		
+		return new Pair<Entity, Object>(entity, toMove);
+	}
+	
+	@Override
+	public Entity getSubject() {
+		return entity;
+	}
 }
@@ -1,9 +1,11 @@
 package com.tumble.tank5.inputs;
 
 import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.util.DirectionVector;
 import com.tumble.tank5.util.Pair;
 import com.tumble.tank5.world_logic.Round;
 import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.RoundSnapshot;
 
 /**
  * Represents a request for an event to occur in a <code>Game</code>; this could
@@ -43,4 +45,39 @@ public abstract class Input {
 	 *         successfully), or <code>false</code> if it wasn't.
 	 */
 	public abstract Pair<Entity, Object> apply(Game g);
+	
+	/**
+	 * Checks this <code>Input</code> against a <code>RoundSnapshot</code> of its
+	 * <code>Game</code> instead, with the same outcome as
+	 * {@link Input#apply(Game)} would have had while nothing else was planned
+	 * for its <code>Entity</code> beyond the given move. Never changes anything,
+	 * so it may be called from any thread (see
+	 * {@link Game#addInputs(java.util.Collection)}).
+	 * 
+	 * @param snapshot    - the <code>Game</code> as it was when it started taking
+	 *                    <code>Input</code>s for this <code>Round</code>.
+	 * 
+	 * @param plannedMove - the move planned for the subject so far this
+	 *                    <code>Round</code> (or <code>null</code>, if none).
+	 * 
+	 * @return the <code>Entity</code> and its new move or action, or
+	 *         <code>null</code> if this <code>Input</code> is invalid (as it is,
+	 *         unless overridden, for <code>Input</code>s without a subject).
+	 */
+	public Pair<Entity, Object> validate(RoundSnapshot snapshot, DirectionVector plannedMove) {
+		return null;
+	}
+	
+	/**
+	 * Gets the <code>Entity</code> this <code>Input</code> is for, if any.
+	 * <code>Input</code>s for the same <code>Entity</code> may depend on each
+	 * other (see {@link Game#addInputs(java.util.Collection)}), while those for
+	 * different <code>Entities</code> never do.
+	 * 
+	 * @return the <code>Entity</code>, or <code>null</code> if this
+	 *         <code>Input</code> isn't for one in particular.
+	 */
+	public Entity getSubject() {
+		return null;
+	}
 }
@@ -0,0 +1,444 @@
+package com.tumble.tank5.server;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.world_logic.GameClock;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Drives any number of <code>Game</code>s without polling: each
+ * <code>Game</code> is only updated when its next deadline (from
+ * {@link Game#getNextDeadline()}) comes around, via a shared
+ * <code>TimerWheel</code> and a pool of worker threads (or a
+ * <code>Dispatcher</code>). A <code>Game</code>
+ * with nothing to do (e.g., paused, or waiting out a long <code>Round</code>)
+ * costs nothing until then.
+ * <br>
+ * A <code>Game</code> is never updated by two threads at once. Anything that
+ * changes a <code>Game</code>'s deadline from outside (starting it, or an
+ * <code>Input</code> arriving while it is fast-forwarding) should be followed by
+ * a call of {@link GameScheduler#wake(Game)}.
+ * <br>
+ * Anything else that has to run on a <code>Game</code>'s thread after each of
+ * its updates, to its own deadlines (e.g., an <code>NPCController</code>), can
+ * be attached to the <code>Game</code> (see
+ * {@link GameScheduler#attach(Game, Runnable, LongSupplier)}).
+ * <br>
+ * An update that fails (throws) doesn't stop the <code>Game</code> being
+ * scheduled; it is counted by {@link GameScheduler#getFailures()} and passed to
+ * the <code>FailureHandler</code>, if there is one.
+ *
+ * @author Tumbl
+ *
+ */
+public class GameScheduler {
+	/**
+	 * Decides which thread each <code>Game</code> update is run on.
+	 */
+	public interface Dispatcher {
+		/**
+		 * Runs (or queues) an update of a given <code>Game</code> on some thread.
+		 * 
+		 * @param game   - the <code>Game</code> being updated.
+		 * 
+		 * @param update - the task that updates it.
+		 */
+		void dispatch(Game game, Runnable update);
+	}
+	
+	/**
+	 * Told about each <code>Game</code> update that fails.
+	 */
+	public interface FailureHandler {
+		/**
+		 * Called (on the <code>Game</code>'s thread) after an update of a given
+		 * <code>Game</code>, or one of its attached tasks, has thrown. Must not
+		 * throw itself.
+		 * 
+		 * @param game  - the <code>Game</code> that failed to update.
+		 * 
+		 * @param error - what was thrown.
+		 */
+		void failed(Game game, Throwable error);
+	}
+	
+	/**
+	 * The default width of each <code>TimerWheel</code> bucket (0.5ms).
+	 */
+	public static final long DEFAULT_TICK_NANOS = 500_000;
+	/**
+	 * The default number of <code>TimerWheel</code> buckets (one revolution ~=
+	 * 2s).
+	 */
+	public static final int DEFAULT_WHEEL_SIZE = 4096;
+
+	// The states a scheduled Game can be in.
+	private enum State {
+		// Not on the wheel (nothing to do until woken).
+		IDLE,
+		// On the wheel, waiting for its deadline.
+		WAITING,
+		// Handed to a worker (queued or running).
+		RUNNING,
+		// Running, and has been woken since it started.
+		RUNNING_WOKEN,
+		// Removed from the GameScheduler.
+		REMOVED
+	}
+
+	// A task run after each update of a Game, and when it next needs running.
+	private static final class Attachment {
+		private final Runnable task;
+		private final LongSupplier nextDeadline;
+
+		private Attachment(Runnable task, LongSupplier nextDeadline) {
+			this.task = task;
+			this.nextDeadline = nextDeadline;
+		}
+	}
+
+	private final class Slot implements Runnable {
+		private final Game game;
+		private final List<Attachment> attachments = new CopyOnWriteArrayList<Attachment>();
+
+		private State state = State.IDLE;
+		private TimerWheel.Timeout timeout;
+
+		private Slot(Game game) {
+			this.game = game;
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (state == State.REMOVED) return;
+				
+				// Fired by the wheel.
+				if (state == State.WAITING) state = State.RUNNING;
+				timeout = null;
+			}
+
+			try {
+				game.update(false);
+				for (Attachment attachment : attachments) attachment.task.run();
+			} catch (RuntimeException | GameError e) {
+				failures.incrementAndGet();
+				
+				FailureHandler handler = failureHandler;
+				if (handler != null) handler.failed(game, e);
+			}
+
+			reschedule(this);
+		}
+		
+		private void dispatch() {
+			dispatcher.dispatch(game, this);
+		}
+
+		// The earliest of the Game's and its attachments' deadlines.
+		private long nextDeadline() {
+			long deadline = game.getNextDeadline();
+
+			for (Attachment attachment : attachments) {
+				deadline = Math.min(deadline, attachment.nextDeadline.getAsLong());
+			}
+
+			return deadline;
+		}
+	}
+
+	// Only set if this GameScheduler owns its own worker pool.
+	private final ExecutorService workers;
+	private final Dispatcher dispatcher;
+	private final TimerWheel wheel;
+
+	private final Map<Game, Slot> slots = new ConcurrentHashMap<Game, Slot>();
+
+	private final AtomicLong failures = new AtomicLong();
+	private volatile FailureHandler failureHandler;
+
+	/**
+	 * Constructs a new (stopped) <code>GameScheduler</code> with a given number of
+	 * worker threads, and the default <code>TimerWheel</code> resolution.
+	 *
+	 * @param workerThreads - how many <code>Game</code>s may be updated at once.
+	 *                      Must be > 0.
+	 *
+	 * @throws GameError if <code>workerThreads</code> <= 0.
+	 */
+	public GameScheduler(int workerThreads) {
+		if (workerThreads <= 0) {
+			throw new GameError("A GameScheduler needs at least one worker thread (" + workerThreads + " is invalid)!");
+		}
+
+		workers = Executors.newFixedThreadPool(workerThreads, r -> {
+			Thread t = new Thread(r, "tank5-game-worker");
+			t.setDaemon(true);
+			return t;
+		});
+		dispatcher = (game, update) -> workers.execute(update);
+		// Due Slots just get passed on to their Dispatcher, which is cheap enough for the timer thread.
+		wheel = new TimerWheel(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE, Runnable::run);
+	}
+	
+	/**
+	 * Constructs a new (stopped) <code>GameScheduler</code> that runs updates
+	 * wherever a given <code>Dispatcher</code> puts them (e.g., on a particular
+	 * thread per <code>Game</code>), rather than on its own worker pool.
+	 * 
+	 * @param dispatcher - the <code>Dispatcher</code> to run updates with.
+	 * 
+	 * @throws GameError if <code>dispatcher</code> is <code>null</code>.
+	 */
+	public GameScheduler(Dispatcher dispatcher) {
+		this(dispatcher, new TimerWheel(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE, Runnable::run));
+	}
+	
+	/**
+	 * Constructs a new (stopped) <code>GameScheduler</code> that runs updates
+	 * wherever a given <code>Dispatcher</code> puts them, timed by a given
+	 * <code>TimerWheel</code> (e.g., one driven by hand against a
+	 * <code>VirtualClock</code>). The <code>TimerWheel</code> should run its
+	 * due tasks straight away (they only hand the update on to the
+	 * <code>Dispatcher</code>), and is started and stopped along with this
+	 * <code>GameScheduler</code>.
+	 * 
+	 * @param dispatcher - the <code>Dispatcher</code> to run updates with.
+	 * 
+	 * @param wheel      - the <code>TimerWheel</code> to wait for deadlines on.
+	 * 
+	 * @throws GameError if <code>dispatcher</code> or <code>wheel</code> is
+	 *                   <code>null</code>.
+	 */
+	public GameScheduler(Dispatcher dispatcher, TimerWheel wheel) {
+		if (dispatcher == null) {
+			throw new GameError("A GameScheduler can't dispatch updates with a null Dispatcher!");
+		}
+		if (wheel == null) {
+			throw new GameError("A GameScheduler can't wait for deadlines without a TimerWheel!");
+		}
+		
+		workers = null;
+		this.dispatcher = dispatcher;
+		this.wheel = wheel;
+	}
+
+	/**
+	 * Starts updating the scheduled <code>Game</code>s.
+	 */
+	public void start() {
+		wheel.start();
+	}
+
+	/**
+	 * Stops updating every <code>Game</code> and shuts the worker threads down, if
+	 * this <code>GameScheduler</code> owns them (waiting briefly for any updates
+	 * in progress to finish).
+	 */
+	public void shutdown() {
+		wheel.stop();
+		if (workers == null) return;
+		
+		workers.shutdown();
+
+		try {
+			workers.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Starts scheduling updates for a given <code>Game</code>, from its next
+	 * deadline onwards.
+	 *
+	 * @param game - the <code>Game</code> to drive.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> was added, or
+	 *         <code>false</code> if it was <code>null</code> or already being
+	 *         scheduled.
+	 */
+	public boolean add(Game game) {
+		if (game == null) return false;
+
+		Slot slot = new Slot(game);
+		if (slots.putIfAbsent(game, slot) != null) return false;
+
+		synchronized (slot) {
+			schedule(slot, slot.nextDeadline());
+		}
+		return true;
+	}
+
+	/**
+	 * Attaches a task to a scheduled <code>Game</code>, to be run straight after
+	 * each of its updates (on the same thread), e.g.
+	 * {@link com.tumble.tank5.ai.NPCController#update()}. The <code>Game</code>
+	 * is also updated by the task's own next deadline, if that comes before the
+	 * <code>Game</code>'s.
+	 *
+	 * @param game         - the <code>Game</code> to attach the task to.
+	 *
+	 * @param task         - the task to run.
+	 *
+	 * @param nextDeadline - gives the next time the task has something to do (or
+	 *                     {@link Long#MAX_VALUE} if it has nothing to do), e.g.
+	 *                     {@link com.tumble.tank5.ai.NPCController#getNextDeadline()}. Only ever
+	 *                     called on the <code>Game</code>'s thread.
+	 *
+	 * @return <code>true</code> if the task was attached, or <code>false</code>
+	 *         if any argument was <code>null</code> or the <code>Game</code>
+	 *         isn't being scheduled.
+	 */
+	public boolean attach(Game game, Runnable task, LongSupplier nextDeadline) {
+		Slot slot = game == null ? null : slots.get(game);
+		if (slot == null || task == null || nextDeadline == null) return false;
+
+		slot.attachments.add(new Attachment(task, nextDeadline));
+
+		// Its deadline may well be sooner.
+		return wake(game);
+	}
+
+	/**
+	 * Stops scheduling updates for a given <code>Game</code>. An update that is
+	 * already running will be allowed to finish.
+	 *
+	 * @param game - the <code>Game</code> to stop driving.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> was removed, or
+	 *         <code>false</code> if it wasn't being scheduled.
+	 */
+	public boolean remove(Game game) {
+		if (game == null) return false;
+
+		Slot slot = slots.remove(game);
+		if (slot == null) return false;
+
+		synchronized (slot) {
+			wheel.cancel(slot.timeout);
+			slot.timeout = null;
+			slot.state = State.REMOVED;
+		}
+		return true;
+	}
+
+	/**
+	 * Tells the <code>GameScheduler</code> that a <code>Game</code>'s next
+	 * deadline may have moved earlier (e.g., it has just been started), so that
+	 * it is re-checked straight away.
+	 *
+	 * @param game - the <code>Game</code> to wake.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> is being scheduled,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean wake(Game game) {
+		Slot slot = game == null ? null : slots.get(game);
+		if (slot == null) return false;
+
+		synchronized (slot) {
+			switch (slot.state) {
+			case WAITING:
+				// Unless it's already on its way to a worker.
+				if (wheel.cancel(slot.timeout)) runNow(slot);
+				break;
+			case IDLE:
+				runNow(slot);
+				break;
+			case RUNNING:
+				// Check the deadline again as soon as the current update is done.
+				slot.state = State.RUNNING_WOKEN;
+				break;
+			default:
+				// Already woken, or removed.
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the <code>FailureHandler</code> to tell about failed updates.
+	 * 
+	 * @param handler - the <code>FailureHandler</code>, or <code>null</code> to
+	 *                just count failures.
+	 */
+	public void setFailureHandler(FailureHandler handler) {
+		failureHandler = handler;
+	}
+	
+	/**
+	 * Gets the number of <code>Game</code> updates that have failed so far.
+	 * 
+	 * @return the number of failures.
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Gets the number of <code>Game</code>s being scheduled.
+	 *
+	 * @return the number of <code>Game</code>s.
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * Hands a <code>Game</code> that isn't on the wheel straight to a worker. Must
+	 * be called holding the <code>Slot</code>'s lock.
+	 */
+	private void runNow(Slot slot) {
+		slot.timeout = null;
+		slot.state = State.RUNNING;
+		slot.dispatch();
+	}
+
+	private void reschedule(Slot slot) {
+		synchronized (slot) {
+			if (slot.state == State.REMOVED) return;
+
+			if (slot.state == State.RUNNING_WOKEN) {
+				slot.state = State.RUNNING;
+				slot.dispatch();
+			} else {
+				// If the wheel woke us a little before the Game's (millisecond) clock
+				// ticked over, this just puts it back on the wheel for the remainder.
+				schedule(slot, slot.nextDeadline());
+			}
+		}
+	}
+
+	/**
+	 * Puts a <code>Game</code> on the wheel for a given deadline (or straight onto
+	 * a worker, if it has already passed). The wait is measured in nanoseconds
+	 * from the <code>Game</code>'s clock (see {@link GameClock#currentTimeNanos()}),
+	 * so it ends as the deadline's millisecond begins (by the wheel's clock).
+	 * Must be called holding the <code>Slot</code>'s lock.
+	 */
+	private void schedule(Slot slot, long deadline) {
+		if (deadline == Long.MAX_VALUE) {
+			slot.state = State.IDLE;
+			return;
+		}
+
+		long delayNanos = TimeUnit.MILLISECONDS.toNanos(deadline) - slot.game.getClock().currentTimeNanos();
+
+		if (delayNanos <= 0) {
+			runNow(slot);
+		} else {
+			slot.state = State.WAITING;
+			slot.timeout = wheel.schedule(slot::dispatch, wheel.nanoTime() + delayNanos);
+		}
+	}
+}
@@ -0,0 +1,334 @@
+package com.tumble.tank5.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Hosts many <code>Game</code>s in one process. Each hosted <code>Game</code>
+ * is assigned to one of a fixed set of shards (one worker thread each), and all
+ * of its updates run on that shard's thread, so a <code>Game</code>'s state is
+ * only ever touched by one thread at a time. Updates are timed by a
+ * <code>GameScheduler</code>, and shards are periodically rebalanced by moving
+ * <code>Game</code>s off the busiest shard (only ever between updates).
+ *
+ * @author Tumbl
+ *
+ */
+public class GameServer {
+	/**
+	 * How often (in milliseconds) the shards are checked for imbalance.
+	 */
+	public static final long REBALANCE_INTERVAL = 500;
+	/**
+	 * How much busier (as a ratio) the busiest shard must be than the idlest
+	 * before any <code>Game</code>s are moved.
+	 */
+	public static final double REBALANCE_THRESHOLD = 1.25;
+	/**
+	 * The most <code>Game</code>s that will be moved in one rebalance.
+	 */
+	public static final int MAX_MOVES_PER_REBALANCE = 4;
+
+	/**
+	 * One worker thread, and the <code>Game</code>s assigned to it.
+	 */
+	private static final class Shard {
+		private final int index;
+		private final ExecutorService thread;
+
+		private final AtomicLong busyNanos = new AtomicLong();
+		private long lastBusyNanos = 0;
+		private int games = 0;
+
+		private Shard(int index) {
+			this.index = index;
+
+			thread = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "tank5-shard-" + index);
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	/**
+	 * Where a hosted <code>Game</code> lives, and how much time its updates have taken.
+	 */
+	private static final class Hosted {
+		private volatile Shard shard;
+
+		private final AtomicLong busyNanos = new AtomicLong();
+		private long lastBusyNanos = 0;
+
+		private Hosted(Shard shard) {
+			this.shard = shard;
+		}
+	}
+
+	private final Shard[] shards;
+	private final Map<Game, Hosted> hosted = new ConcurrentHashMap<Game, Hosted>();
+
+	private final GameScheduler scheduler;
+	private final ScheduledExecutorService rebalancer;
+
+	/**
+	 * Constructs a new (stopped) <code>GameServer</code> with one shard per
+	 * available processor.
+	 */
+	public GameServer() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a new (stopped) <code>GameServer</code> with a given number of
+	 * shards.
+	 *
+	 * @param shardCount - how many worker threads to spread the hosted
+	 *                   <code>Game</code>s over. Must be > 0.
+	 *
+	 * @throws GameError if <code>shardCount</code> <= 0.
+	 */
+	public GameServer(int shardCount) {
+		if (shardCount <= 0) {
+			throw new GameError("A GameServer needs at least one shard (" + shardCount + " is invalid)!");
+		}
+
+		shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) shards[i] = new Shard(i);
+
+		scheduler = new GameScheduler(this::dispatch);
+
+		rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "tank5-rebalancer");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Starts updating the hosted <code>Game</code>s, and rebalancing the shards.
+	 */
+	public void start() {
+		scheduler.start();
+		rebalancer.scheduleWithFixedDelay(this::rebalance, REBALANCE_INTERVAL, REBALANCE_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops updating every hosted <code>Game</code> and shuts down all of the
+	 * shards' threads.
+	 */
+	public void shutdown() {
+		rebalancer.shutdownNow();
+		scheduler.shutdown();
+
+		for (Shard shard : shards) shard.thread.shutdown();
+	}
+
+	/**
+	 * Starts hosting a given <code>Game</code> on the shard with the fewest
+	 * <code>Game</code>s.
+	 *
+	 * @param game - the <code>Game</code> to host.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> is now hosted, or
+	 *         <code>false</code> if it was <code>null</code>, already hosted or
+	 *         closed.
+	 */
+	public boolean host(Game game) {
+		if (game == null || !IDManager.isRegistered(game)) return false;
+
+		Shard target;
+		synchronized (shards) {
+			target = shards[0];
+			for (Shard shard : shards) {
+				if (shard.games < target.games) target = shard;
+			}
+
+			if (hosted.putIfAbsent(game, new Hosted(target)) != null) return false;
+			target.games++;
+		}
+
+		scheduler.add(game);
+		return true;
+	}
+
+	/**
+	 * Stops hosting a given <code>Game</code>, and unregisters it from the
+	 * <code>IDManager</code> (so a long-running <code>GameServer</code> doesn't
+	 * keep finished <code>Game</code>s alive). A closed <code>Game</code> can't
+	 * be hosted again.
+	 *
+	 * @param game - the <code>Game</code> to stop hosting.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> was hosted, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean close(Game game) {
+		if (game == null) return false;
+
+		scheduler.remove(game);
+
+		synchronized (shards) {
+			Hosted h = hosted.remove(game);
+			if (h == null) return false;
+
+			h.shard.games--;
+		}
+
+		IDManager.unregisterGame(game);
+		return true;
+	}
+
+	/**
+	 * Tells the <code>GameServer</code> that a hosted <code>Game</code>'s next
+	 * deadline may have moved earlier (e.g., it has just been started).
+	 *
+	 * @param game - the <code>Game</code> to wake.
+	 *
+	 * @return <code>true</code> if the <code>Game</code> is hosted, otherwise
+	 *         <code>false</code>.
+	 *
+	 * @see GameScheduler#wake(Game)
+	 */
+	public boolean wake(Game game) {
+		return scheduler.wake(game);
+	}
+
+	/**
+	 * Attaches a task to a hosted <code>Game</code>, to be run on its shard's
+	 * thread straight after each of its updates (e.g., an
+	 * <code>NPCController</code>).
+	 *
+	 * @param game         - the <code>Game</code> to attach the task to.
+	 *
+	 * @param task         - the task to run.
+	 *
+	 * @param nextDeadline - gives the next time the task has something to do.
+	 *
+	 * @return <code>true</code> if the task was attached, otherwise
+	 *         <code>false</code>.
+	 *
+	 * @see GameScheduler#attach(Game, Runnable, LongSupplier)
+	 */
+	public boolean attach(Game game, Runnable task, LongSupplier nextDeadline) {
+		return scheduler.attach(game, task, nextDeadline);
+	}
+
+	/**
+	 * Gets the number of <code>Game</code>s being hosted.
+	 *
+	 * @return the number of hosted <code>Game</code>s.
+	 */
+	public int size() {
+		return hosted.size();
+	}
+
+	/**
+	 * Gets the shard a hosted <code>Game</code> is currently assigned to.
+	 *
+	 * @param game - the <code>Game</code> to look for.
+	 *
+	 * @return the index of the <code>Game</code>'s shard, or -1 if it isn't
+	 *         hosted.
+	 */
+	public int getShard(Game game) {
+		Hosted h = game == null ? null : hosted.get(game);
+		return h == null ? -1 : h.shard.index;
+	}
+
+	private void dispatch(Game game, Runnable update) {
+		Hosted h = hosted.get(game);
+		if (h == null) return;
+
+		Shard shard = h.shard;
+		shard.thread.execute(() -> {
+			long start = System.nanoTime();
+			update.run();
+			long elapsed = System.nanoTime() - start;
+
+			shard.busyNanos.addAndGet(elapsed);
+			h.busyNanos.addAndGet(elapsed);
+		});
+	}
+
+	/**
+	 * Moves the busiest <code>Game</code>s that will fit from the busiest shard to
+	 * the idlest one, if the shards' work since the last rebalance is uneven
+	 * enough. A move only changes where the <code>Game</code>'s <i>next</i> update
+	 * is dispatched, and the <code>GameScheduler</code> never dispatches an update
+	 * before the previous one has finished, so the <code>Game</code> is still only
+	 * touched by one thread at a time.
+	 * <br>
+	 * Called every {@link GameServer#REBALANCE_INTERVAL} once the
+	 * <code>GameServer</code> has been started, but may also be called directly.
+	 */
+	public void rebalance() {
+		synchronized (shards) {
+			long[] shardLoad = new long[shards.length];
+			for (Shard shard : shards) {
+				long busy = shard.busyNanos.get();
+				shardLoad[shard.index] = busy - shard.lastBusyNanos;
+				shard.lastBusyNanos = busy;
+			}
+
+			List<Game> games = new ArrayList<Game>(hosted.keySet());
+			Map<Game, Long> gameLoad = new HashMap<Game, Long>();
+			for (Game game : games) {
+				Hosted h = hosted.get(game);
+				if (h == null) continue;
+
+				long busy = h.busyNanos.get();
+				gameLoad.put(game, busy - h.lastBusyNanos);
+				h.lastBusyNanos = busy;
+			}
+
+			for (int move = 0; move < MAX_MOVES_PER_REBALANCE; move++) {
+				Shard busiest = shards[0], idlest = shards[0];
+				for (Shard shard : shards) {
+					if (shardLoad[shard.index] > shardLoad[busiest.index]) busiest = shard;
+					if (shardLoad[shard.index] < shardLoad[idlest.index]) idlest = shard;
+				}
+
+				long gap = shardLoad[busiest.index] - shardLoad[idlest.index];
+				if (busiest == idlest || shardLoad[busiest.index] <= REBALANCE_THRESHOLD * shardLoad[idlest.index])
+					return;
+
+				// Find the busiest Game that won't just make the idlest shard the new busiest.
+				Game toMove = null;
+				long toMoveLoad = 0;
+				for (Game game : games) {
+					Hosted h = hosted.get(game);
+					Long load = gameLoad.get(game);
+					if (h == null || load == null || h.shard != busiest) continue;
+
+					if (load > toMoveLoad && load <= gap / 2) {
+						toMove = game;
+						toMoveLoad = load;
+					}
+				}
+
+				if (toMove == null) return;
+
+				hosted.get(toMove).shard = idlest;
+				busiest.games--;
+				idlest.games++;
+
+				shardLoad[busiest.index] -= toMoveLoad;
+				shardLoad[idlest.index] += toMoveLoad;
+			}
+		}
+	}
+}
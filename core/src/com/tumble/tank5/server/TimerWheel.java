@@ -0,0 +1,358 @@
+package com.tumble.tank5.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import com.tumble.tank5.util.GameError;
+
+/**
+ * A hashed timer wheel: a single timer thread that hands tasks off to an
+ * <code>Executor</code> once their deadlines (in {@link System#nanoTime()}
+ * terms, unless given another clock) pass. Scheduling and cancelling are O(1),
+ * and the timer thread sleeps right up until the earliest pending deadline (or
+ * indefinitely, if nothing is pending), so it costs nothing while there is
+ * nothing to do.
+ * <br>
+ * A <code>TimerWheel</code> that is never started can instead be driven by
+ * hand, via {@link TimerWheel#expire()} (e.g., against a simulated clock).
+ *
+ * @author Tumbl
+ *
+ */
+public class TimerWheel {
+	/**
+	 * A task that has been scheduled on a <code>TimerWheel</code>, which can be
+	 * used to cancel it.
+	 */
+	public static final class Timeout {
+		private final Runnable task;
+		private final long deadline, tick;
+
+		// Intrusive doubly-linked list of the Timeouts in the same bucket.
+		private Timeout prev, next;
+		private int bucket = -1;
+
+		private Timeout(Runnable task, long deadline, long tick) {
+			this.task = task;
+			this.deadline = deadline;
+			this.tick = tick;
+		}
+
+		/**
+		 * Gets the time (by its <code>TimerWheel</code>'s clock) at which this
+		 * <code>Timeout</code> is (or was) due.
+		 *
+		 * @return the deadline of this <code>Timeout</code>.
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+	}
+
+	private final long tickNanos;
+	private final Timeout[] buckets;
+	private final int mask;
+
+	private final Executor executor;
+	private final LongSupplier nanoTime;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	// The tick up to which every bucket has been expired. Guarded by lock.
+	private long cursor;
+	// The time the timer thread will next wake at. Guarded by lock.
+	private long nextWake = Long.MAX_VALUE;
+	private int pending = 0;
+
+	private volatile boolean running = false;
+	private Thread timerThread;
+
+	/**
+	 * Constructs a new (stopped) <code>TimerWheel</code>.
+	 *
+	 * @param tickNanos - the width of each bucket in nanoseconds. Tasks still fire
+	 *                  at their exact deadlines; this only affects how tasks are
+	 *                  spread over the buckets. Must be > 0.
+	 *
+	 * @param wheelSize - the number of buckets. Rounded up to a power of 2.
+	 *
+	 * @param executor  - the <code>Executor</code> to run due tasks on (so that
+	 *                  slow tasks can't hold up the timer thread).
+	 *
+	 * @throws GameError if <code>tickNanos</code> or <code>wheelSize</code> is
+	 *                   <= 0, or <code>executor</code> is <code>null</code>.
+	 */
+	public TimerWheel(long tickNanos, int wheelSize, Executor executor) {
+		this(tickNanos, wheelSize, executor, System::nanoTime);
+	}
+
+	/**
+	 * Constructs a new (stopped) <code>TimerWheel</code> that measures deadlines
+	 * with a given clock, rather than {@link System#nanoTime()}.
+	 *
+	 * @param tickNanos - the width of each bucket in nanoseconds. Must be > 0.
+	 *
+	 * @param wheelSize - the number of buckets. Rounded up to a power of 2.
+	 *
+	 * @param executor  - the <code>Executor</code> to run due tasks on.
+	 *
+	 * @param nanoTime  - gives the current time in nanoseconds (e.g.,
+	 *                  {@link com.tumble.tank5.world_logic.GameClock#currentTimeNanos()}).
+	 *                  Must never go backwards.
+	 *
+	 * @throws GameError if <code>tickNanos</code> or <code>wheelSize</code> is
+	 *                   <= 0, or <code>executor</code> or <code>nanoTime</code>
+	 *                   is <code>null</code>.
+	 */
+	public TimerWheel(long tickNanos, int wheelSize, Executor executor, LongSupplier nanoTime) {
+		if (tickNanos <= 0 || wheelSize <= 0 || executor == null || nanoTime == null) {
+			throw new GameError("Invalid TimerWheel parameters (tick: " + tickNanos + "ns, size: " + wheelSize + ")!");
+		}
+
+		this.tickNanos = tickNanos;
+
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize) size <<= 1;
+
+		buckets = new Timeout[size];
+		mask = size - 1;
+
+		this.executor = executor;
+		this.nanoTime = nanoTime;
+
+		cursor = Math.floorDiv(nanoTime.getAsLong(), tickNanos);
+	}
+
+	/**
+	 * Gets the current time by this <code>TimerWheel</code>'s clock, which
+	 * deadlines passed to {@link TimerWheel#schedule(Runnable, long)} are
+	 * measured against.
+	 *
+	 * @return the current time, in nanoseconds.
+	 */
+	public long nanoTime() {
+		return nanoTime.getAsLong();
+	}
+
+	/**
+	 * Starts the timer thread (if it isn't already running).
+	 */
+	public synchronized void start() {
+		if (running) return;
+
+		running = true;
+		timerThread = new Thread(this::run, "tank5-timer-wheel");
+		timerThread.setDaemon(true);
+		timerThread.start();
+	}
+
+	/**
+	 * Stops the timer thread. Any pending tasks stay pending (and will run if the
+	 * <code>TimerWheel</code> is started again).
+	 */
+	public synchronized void stop() {
+		if (!running) return;
+
+		running = false;
+		LockSupport.unpark(timerThread);
+
+		try {
+			timerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Schedules a task to be handed to the <code>Executor</code> at a given
+	 * time.
+	 *
+	 * @param task     - the task to run.
+	 *
+	 * @param deadline - the time (see {@link TimerWheel#nanoTime()}) at (or soon
+	 *                 after) which to run it. Deadlines in the past are due
+	 *                 immediately.
+	 *
+	 * @return the <code>Timeout</code> that can be used to cancel the task.
+	 */
+	public Timeout schedule(Runnable task, long deadline) {
+		if (task == null) throw new GameError("Can't schedule a null task!");
+
+		lock.lock();
+		try {
+			skipIdleTicks(Math.floorDiv(nanoTime.getAsLong(), tickNanos));
+
+			// Never file a Timeout behind the cursor, or it would wait a whole revolution.
+			Timeout timeout = new Timeout(task, deadline, Math.max(cursor, Math.floorDiv(deadline, tickNanos)));
+			link(timeout);
+
+			if (deadline < nextWake) {
+				nextWake = deadline;
+				LockSupport.unpark(timerThread);
+			}
+
+			return timeout;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Cancels a scheduled task, if it hasn't already been handed to the
+	 * <code>Executor</code>.
+	 *
+	 * @param timeout - the <code>Timeout</code> returned when the task was
+	 *                scheduled.
+	 *
+	 * @return <code>true</code> if the task was cancelled, or <code>false</code>
+	 *         if it had already been run (or cancelled).
+	 */
+	public boolean cancel(Timeout timeout) {
+		if (timeout == null) return false;
+
+		lock.lock();
+		try {
+			if (timeout.bucket == -1) return false;
+
+			unlink(timeout);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of tasks waiting for their deadlines.
+	 *
+	 * @return the number of pending tasks.
+	 */
+	public int pending() {
+		lock.lock();
+		try {
+			return pending;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Hands every task whose deadline has passed to the <code>Executor</code>.
+	 * The timer thread does this whenever it wakes; it should only be called
+	 * directly on a <code>TimerWheel</code> that hasn't been started.
+	 *
+	 * @return how many nanoseconds until this should next be called, or
+	 *         {@link Long#MAX_VALUE} if nothing is pending.
+	 */
+	public long expire() {
+		List<Timeout> due = new ArrayList<Timeout>();
+		long wait;
+
+		lock.lock();
+		try {
+			long now = nanoTime.getAsLong();
+			long nowTick = Math.floorDiv(now, tickNanos);
+			skipIdleTicks(nowTick);
+
+			// Expire every bucket between the cursor and now.
+			for (; cursor <= nowTick; cursor++) {
+				Timeout t = buckets[(int) (cursor & mask)];
+				while (t != null) {
+					Timeout next = t.next;
+					if (t.deadline <= now) {
+						unlink(t);
+						due.add(t);
+					}
+					t = next;
+				}
+
+				// Don't move past the current tick, as it may still have Timeouts in it.
+				if (cursor == nowTick) break;
+			}
+
+			nextWake = findNextWake();
+			wait = nextWake == Long.MAX_VALUE ? Long.MAX_VALUE : nextWake - now;
+		} finally {
+			lock.unlock();
+		}
+
+		for (Timeout t : due) executor.execute(t.task);
+
+		return wait;
+	}
+
+	private void run() {
+		while (running) {
+			long wait = expire();
+
+			if (wait == Long.MAX_VALUE) {
+				LockSupport.park(this);
+			} else if (wait > 0) {
+				LockSupport.parkNanos(this, wait);
+			}
+		}
+	}
+
+	/**
+	 * Moves the cursor straight up to the current tick if nothing is pending,
+	 * rather than leaving it to be walked there one empty bucket at a time
+	 * (however long the wheel has been idle). Must be called holding the lock.
+	 *
+	 * @param nowTick - the current tick.
+	 */
+	private void skipIdleTicks(long nowTick) {
+		if (pending == 0 && cursor < nowTick) cursor = nowTick;
+	}
+
+	/**
+	 * Finds the earliest deadline in the nearest non-empty bucket of the current
+	 * revolution. Must be called holding the lock.
+	 *
+	 * @return the time to wake at next.
+	 */
+	private long findNextWake() {
+		if (pending == 0) return Long.MAX_VALUE;
+
+		for (long tick = cursor; tick < cursor + buckets.length; tick++) {
+			long earliest = Long.MAX_VALUE;
+
+			for (Timeout t = buckets[(int) (tick & mask)]; t != null; t = t.next) {
+				if (t.tick <= tick) earliest = Math.min(earliest, t.deadline);
+			}
+
+			if (earliest != Long.MAX_VALUE) return earliest;
+		}
+
+		// Everything is at least a revolution away, so check back in a revolution.
+		return (cursor + buckets.length) * tickNanos;
+	}
+
+	private void link(Timeout t) {
+		int index = (int) (t.tick & mask);
+
+		t.bucket = index;
+		t.prev = null;
+		t.next = buckets[index];
+		if (t.next != null) t.next.prev = t;
+		buckets[index] = t;
+
+		pending++;
+	}
+
+	private void unlink(Timeout t) {
+		if (t.prev != null) {
+			t.prev.next = t.next;
+		} else {
+			buckets[t.bucket] = t.next;
+		}
+		if (t.next != null) t.next.prev = t.prev;
+
+		t.prev = null;
+		t.next = null;
+		t.bucket = -1;
+
+		pending--;
+	}
+}
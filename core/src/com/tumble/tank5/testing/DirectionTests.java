@@ -0,0 +1,94 @@
+package com.tumble.tank5.testing;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.util.DirectionVector;
+import com.tumble.tank5.util.DirectionVector.Direction;
+
+/**
+ * Tests to ensure that the shared <code>DirectionVector</code>s are looked up,
+ * combined and reversed correctly.
+ *
+ * @author Tumbl
+ *
+ */
+public class DirectionTests {
+
+	/**
+	 * Checks that each component given to {@link DirectionVector#of(int, int, int)}
+	 * is capped to a length of 1.
+	 */
+	@Test
+	public void test_01() {
+		assert DirectionVector.of(5, -7, 0) == Direction.SE.asVector();
+		assert DirectionVector.of(-100, 0, 0) == Direction.W.asVector();
+		assert DirectionVector.of(0, Integer.MAX_VALUE, 0) == Direction.N.asVector();
+		assert DirectionVector.of(Integer.MIN_VALUE, Integer.MIN_VALUE, 0) == Direction.SW.asVector();
+		assert DirectionVector.of(0, 0, 0) == Direction.NONE.asVector();
+
+		DirectionVector v = DirectionVector.of(3, 3, 0);
+		assert v.x == 1 && v.y == 1 && v.z == 0 && v.asEnum() == Direction.NE;
+	}
+
+	/**
+	 * Checks that any change in altitude overrides the horizontal components.
+	 */
+	@Test
+	public void test_02() {
+		assert DirectionVector.of(1, 1, 1) == Direction.UP.asVector();
+		assert DirectionVector.of(-1, 0, -3) == Direction.DOWN.asVector();
+		assert DirectionVector.of(0, 0, 2) == Direction.UP.asVector();
+
+		assert Direction.N.asVector().combine(0, 0, 1) == Direction.UP.asVector();
+		assert Direction.UP.asVector().combine(1, 0, -1) == Direction.E.asVector();
+	}
+
+	/**
+	 * Checks combining and reversing <code>DirectionVector</code>s.
+	 */
+	@Test
+	public void test_03() {
+		DirectionVector n = Direction.N.asVector(), e = Direction.E.asVector();
+		DirectionVector up = Direction.UP.asVector(), none = Direction.NONE.asVector();
+
+		assert n.combine(e) == Direction.NE.asVector() && e.combine(n) == Direction.NE.asVector();
+		assert e.combine(Direction.W.asVector()) == none;
+		assert Direction.NE.asVector().combine(Direction.S.asVector()) == e;
+		assert up.combine(n) == up && n.combine(up) == up;
+		assert up.combine(Direction.DOWN.asVector()) == none;
+		assert none.combine(none) == none;
+		assert n.combine(null) == n;
+
+		assert n.reverse() == Direction.S.asVector();
+		assert Direction.NE.asVector().reverse() == Direction.SW.asVector();
+		assert up.reverse() == Direction.DOWN.asVector();
+		assert none.reverse() == none;
+
+		for (Direction dir : Direction.values()) {
+			DirectionVector v = dir.asVector();
+
+			assert v.reverse().reverse() == v;
+			assert v.combine(none) == v && none.combine(v) == v;
+			assert v.combine(v.reverse()) == none;
+		}
+	}
+
+	/**
+	 * Checks that there is exactly one <code>DirectionVector</code> per
+	 * <code>Direction</code>, which is always the one handed out.
+	 */
+	@Test
+	public void test_04() {
+		for (Direction dir : Direction.values()) {
+			DirectionVector v = dir.asVector();
+
+			assert v == dir.asVector();
+			assert v.asEnum() == dir;
+			assert DirectionVector.of(v.x, v.y, v.z) == v;
+
+			for (Direction other : Direction.values()) {
+				assert (v == other.asVector()) == (dir == other);
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.tumble.tank5.testing;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Tests to ensure that the <code>IDManager</code> hands out unique ID numbers
+ * for each <code>Game</code>, however many threads are asking.
+ *
+ * @author Tumbl
+ *
+ */
+public class IDTests {
+
+	/**
+	 * Makes sure <code>Game</code>s (and their <code>Entity</code> ID numbers)
+	 * can be created from many threads at once without any ID number being given
+	 * out twice, and that finished <code>Game</code>s can be unregistered.
+	 */
+	@Test
+	public void test_01() throws InterruptedException {
+		int threads = 8, perThread = 50;
+
+		Set<Game> games = ConcurrentHashMap.newKeySet();
+		Game shared = new Game(true, 1);
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					games.add(new Game(true, 1));
+					ids.add(IDManager.nextID(shared));
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) worker.join();
+
+		assert games.size() == threads * perThread;
+		assert ids.size() == threads * perThread;
+
+		for (Game g : games) assert IDManager.unregisterGame(g);
+
+		Game g = games.iterator().next();
+		assert !IDManager.isRegistered(g);
+		assert !IDManager.unregisterGame(g);
+
+		try {
+			IDManager.nextID(g);
+			assert false;
+		} catch (GameError e) {
+			// Expected: the Game is finished with.
+		}
+	}
+
+	/**
+	 * Makes sure an unregistered <code>Game</code> can't be registered again
+	 * (and so can't be given any more <code>Entity</code> ID numbers).
+	 */
+	@Test
+	public void test_02() {
+		Game g = new Game(true, 1);
+
+		assert IDManager.unregisterGame(g);
+
+		try {
+			IDManager.registerGame(g);
+			assert false;
+		} catch (GameError e) {
+			// Expected: unregistering is for good.
+		}
+
+		assert !IDManager.isRegistered(g);
+	}
+}
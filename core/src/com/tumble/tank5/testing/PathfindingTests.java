@@ -0,0 +1,346 @@
+package com.tumble.tank5.testing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.ai.FlowField;
+import com.tumble.tank5.ai.PathFinder;
+import com.tumble.tank5.events.Event;
+import com.tumble.tank5.events.MovementEvent;
+import com.tumble.tank5.game_object.entities.Player;
+import com.tumble.tank5.game_object.tiles.Tile;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.MapData;
+import com.tumble.tank5.world_logic.VirtualClock;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.Game.Phase;
+import com.tumble.tank5.world_logic.game_n_world.GameWorld;
+
+/**
+ * Tests to ensure that the pathfinding used by computer-controlled
+ * <code>Entities</code> finds the right routes through a
+ * <code>GameWorld</code>, and keeps up with it as it changes.
+ *
+ * @author Tumbl
+ *
+ */
+public class PathfindingTests {
+
+	/**
+	 * Makes sure {@link PathFinder} routes go up and down <code>StairCase</code>s
+	 * (across several clusters), and that nothing is routed into a
+	 * <code>Wall</code>.
+	 */
+	@Test
+	public void test_01() {
+		String mapString =
+				"WWWWW\n" +
+				"WWWWW\n" +
+				"WWWWW" +
+				"~" +
+				" <W> \n" +
+				" <W> \n" +
+				" <W> " +
+				"~" +
+				"     \n" +
+				"     \n" +
+				"     ";
+		
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData(mapString));
+		
+		PathFinder pF = new PathFinder(gW, 2, 16);
+		
+		Position west = new Position(0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		Position east = new Position(4.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		Position wall = new Position(2.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		
+		// Up the StairCase, over the Wall and down the other side.
+		assert compare("[E, E, E, E]", Arrays.toString(pF.findPath(west, east)));
+		assert compare("[W, W, W, W]", Arrays.toString(pF.findPath(east, west)));
+		
+		// Again (from the cache).
+		assert compare("[E, E, E, E]", Arrays.toString(pF.findPath(west, east)));
+		
+		// Already there.
+		assert compare("[]", Arrays.toString(pF.findPath(west, west)));
+		
+		// Nowhere to go.
+		assert pF.findPath(west, wall) == null;
+		
+		pF.dispose();
+	}
+
+	/**
+	 * Makes sure a {@link FlowField} leads to the nearest of its targets (over
+	 * <code>StairCase</code>s), and only rebuilds when something has changed.
+	 */
+	@Test
+	public void test_02() {
+		String mapString =
+				"WWWWWW" +
+				"~" +
+				" <W>  " +
+				"~" +
+				"      ";
+		
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData(mapString));
+		
+		FlowField fF = new FlowField(gW);
+		
+		Position[] cells = new Position[6];
+		for (int x = 0; x < cells.length; x++) {
+			cells[x] = new Position((x + 0.5) * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		}
+		
+		// Chase both ends of the map.
+		assert fF.setTargets(cells[0], cells[5]);
+		assert fF.update();
+		assert !fF.update();
+		
+		assert compare("W", fF.nextMove(cells[1]));
+		assert compare("E", fF.nextMove(cells[3]));
+		assert compare("NONE", fF.nextMove(cells[5]));
+		assert fF.nextMove(cells[2]) == null;
+		
+		assert fF.distanceFrom(cells[1]) == 1;
+		assert fF.distanceFrom(cells[3]) == 2;
+		assert fF.distanceFrom(cells[2]) == FlowField.UNREACHABLE;
+		
+		// Only the west end left: everything heads back over the Wall.
+		assert !fF.setTargets(cells[5], cells[0]);
+		assert fF.setTargets(cells[0]);
+		assert fF.update();
+		
+		assert compare("W", fF.nextMove(cells[3]));
+		assert fF.distanceFrom(cells[5]) == 5;
+		
+		fF.dispose();
+	}
+
+	/**
+	 * Makes sure a {@link FlowField} that is only updated where things have
+	 * changed (as paths open up and close off, and its targets move) always
+	 * agrees with one built from scratch.
+	 */
+	@Test
+	public void test_03() {
+		String mapString =
+				"WWWWWWW\n" +
+				"WWWWWWW\n" +
+				"WWWWWWW" +
+				"~" +
+				"   W   \n" +
+				" WWW W \n" +
+				"   W W " +
+				"~" +
+				"       \n" +
+				"     W \n" +
+				"     W ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 2, 1));
+		GameWorld gW = g.getWorld();
+
+		FlowField fF = new FlowField(gW);
+
+		assert fF.setTargets(cell(0, 0, 1));
+		assert fF.update();
+		assert sameDistances(gW, fF, cell(0, 0, 1));
+
+		// A way through opens up...
+		gW.tileAt(cell(5, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert compare("W", gW.tileAt(cell(5, 0, 2))); // Braced by its neighbour.
+		assert gW.canExit(cell(4, 0, 1), Direction.E);
+		assert fF.isStale() && fF.update();
+		assert sameDistances(gW, fF, cell(0, 0, 1));
+
+		assert fF.setTargets(cell(0, 0, 1), cell(6, 2, 1));
+		assert fF.update();
+		assert sameDistances(gW, fF, cell(0, 0, 1), cell(6, 2, 1));
+
+		// ... and is blocked off again.
+		gW.tileAt(cell(5, 0, 2)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert !gW.canExit(cell(4, 0, 1), Direction.E);
+		assert fF.update();
+		assert sameDistances(gW, fF, cell(0, 0, 1), cell(6, 2, 1));
+
+		// Both at once, with the targets moving too.
+		gW.tileAt(cell(3, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert fF.setTargets(cell(6, 0, 1));
+		assert fF.update();
+		assert sameDistances(gW, fF, cell(6, 0, 1));
+		assert fF.distanceFrom(cell(0, 0, 1)) == 10; // Round the pile at (5, 0).
+
+		fF.dispose();
+	}
+
+	/**
+	 * Makes sure {@link PathFinder} routes can be planned from many threads at
+	 * once (giving the same routes as on one thread), and that planning gives up
+	 * once its deadline has passed.
+	 */
+	@Test
+	public void test_04() throws InterruptedException {
+		int size = 24, threads = 8, perThread = 20;
+
+		StringBuilder floor = new StringBuilder(), open = new StringBuilder();
+		for (int y = 0; y < size; y++) {
+			if (y > 0) {
+				floor.append('\n');
+				open.append('\n');
+			}
+			for (int x = 0; x < size; x++) {
+				floor.append('W');
+				// A wall across the middle, with a gap at one end (rows are written
+				// from the top down).
+				open.append(y == size / 2 && x < size - 1 ? 'W' : ' ');
+			}
+		}
+
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData(floor + "~" + open + "~" + open));
+
+		// No cache, so that every route is planned from scratch.
+		PathFinder pF = new PathFinder(gW, 4, 0);
+
+		Position[] from = new Position[size], to = new Position[size];
+		Direction[][] expected = new Direction[size][];
+		for (int i = 0; i < size; i++) {
+			from[i] = cell(i, 0, 1);
+			to[i] = cell(size - 1 - i, size - 1, 1);
+			expected[i] = pF.findPath(from[i], to[i]);
+
+			assert expected[i] != null && expected[i].length >= size;
+		}
+
+		AtomicInteger mismatches = new AtomicInteger();
+
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int offset = t;
+			workers[t] = new Thread(() -> {
+				for (int n = 0; n < perThread; n++) {
+					int i = (offset + n) % size;
+					if (!Arrays.equals(expected[i], pF.findPath(from[i], to[i]))) mismatches.incrementAndGet();
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) worker.join();
+
+		assert mismatches.get() == 0;
+
+		// Out of time straight away, but not if there is time left.
+		VirtualClock clock = new VirtualClock(100);
+		assert pF.findPath(from[0], to[0], clock, 100) == PathFinder.OUT_OF_TIME;
+		assert Arrays.equals(expected[0], pF.findPath(from[0], to[0], clock, 101));
+
+		// Into the wall, and already there.
+		assert pF.findPath(from[0], cell(0, size - 1 - size / 2, 1), clock, 101) == null;
+		assert pF.findPath(from[0], from[0], clock, 100).length == 0;
+
+		pF.dispose();
+	}
+
+	/**
+	 * Starts a <code>Game</code> timed by a given <code>VirtualClock</code> on a
+	 * given map, with an (idle) <code>Player</code> at each given location (named
+	 * "A", "B", ...).
+	 */
+	private static Game startGame(VirtualClock clock, String mapString, Position... playersAt) {
+		Game g = new Game(true, 1, clock);
+
+		assert g.loadMap(new MapData(mapString));
+		for (int i = 0; i < playersAt.length; i++) {
+			assert g.addEntity(new Player(g, IDManager.nextID(g), String.valueOf((char) ('A' + i))), playersAt[i]);
+		}
+		assert g.start(100, 0, 0, 1, 0);
+
+		return g;
+	}
+
+	/**
+	 * Runs a given number of ticks of a started <code>Game</code> (waiting out
+	 * each <code>Round</code>'s acceptance phase in virtual time), so that the
+	 * <code>GameWorld</code> is cleaned up once per tick.
+	 */
+	private static void runTicks(Game g, VirtualClock clock, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			do {
+				clock.advanceTo(g.getNextDeadline());
+				g.update(false);
+			} while (g.getPhase() != Phase.ENACTMENT);
+		}
+	}
+
+	/**
+	 * @return the centre of the cell with the given coordinates.
+	 */
+	private static Position cell(int x, int y, int z) {
+		return new Position((x + 0.5) * Tile.TILE_SIZE, (y + 0.5) * Tile.TILE_SIZE, (z + 0.5) * Tile.TILE_SIZE);
+	}
+
+	/**
+	 * Checks the distances a <code>FlowField</code> has for every cell against
+	 * those of a new one built from scratch.
+	 */
+	private static boolean sameDistances(GameWorld gW, FlowField fF, Position... targets) {
+		FlowField fresh = new FlowField(gW);
+		fresh.setTargets(targets);
+		fresh.update();
+
+		boolean same = true;
+		for (int z = 0; z < gW.getZDimension(); z++) {
+			for (int y = 0; y < gW.getYDimension(); y++) {
+				for (int x = 0; x < gW.getXDimension(); x++) {
+					same &= fF.distanceFrom(cell(x, y, z)) == fresh.distanceFrom(cell(x, y, z));
+				}
+			}
+		}
+
+		fresh.dispose();
+		return same;
+	}
+
+	private static boolean compare(String desired, Object actual) {
+		if (desired.equals(actual != null ? actual.toString() : ""))
+			return true;
+
+		System.out.println("Test " + determineTestNumber() + " failed!");
+		System.out.println("Desired:\n" + desired);
+		System.out.println("Actual:\n" + actual);
+
+		return false;
+	}
+
+	/**
+	 * Determine the number of the test being executed based on its method name.
+	 *
+	 * @return the number of the test being executed.
+	 */
+	private static int determineTestNumber() {
+		StackTraceElement[] e = Thread.currentThread().getStackTrace();
+		String line = e[3].toString();
+		int numStart = line.indexOf('_') + 1;
+		return Integer.valueOf(line.substring(numStart, numStart + 2));
+	}
+}
@@ -0,0 +1,47 @@
+package com.tumble.tank5.testing;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.events.MovementEvent;
+import com.tumble.tank5.game_object.tiles.Tile;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.Position;
+
+/**
+ * Tests to ensure that <code>Position</code>s are held, moved and converted
+ * exactly.
+ *
+ * @author Tumbl
+ *
+ */
+public class PositionTests {
+
+	/**
+	 * Makes sure {@link Position}s move in exact (fixed-point) steps, so that a
+	 * whole movement always ends up exactly one <code>Tile</code> away.
+	 */
+	@Test
+	public void test_01() {
+		Position start = new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE);
+		Position stepped = start;
+
+		for (int i = 0; i < MovementEvent.MOVEMENT_TICKS; i++) {
+			stepped = stepped.step(Direction.E, 1);
+
+			assert stepped.getX() == (i < MovementEvent.MOVEMENT_TICKS / 2 ? 0 : 1);
+		}
+
+		Position moved = start.move(Direction.E);
+
+		assert stepped.getFixedX() == moved.getFixedX() && stepped.x == moved.x;
+		assert stepped.x == 1.5 * Tile.TILE_SIZE;
+		assert moved.tileCentre().getFixedX() == moved.getFixedX();
+
+		// Converting back and forth never loses a unit (or changes Tile).
+		Position copy = new Position(stepped.x, stepped.y, stepped.z);
+		assert copy.getFixedX() == stepped.getFixedX() && copy.getFixedZ() == stepped.getFixedZ();
+
+		assert new Position(1.99999999 * Tile.TILE_SIZE, 0, 0).getX() == 1;
+		assert new Position(-0.00000001 * Tile.TILE_SIZE, 0, 0).getX() == -1;
+	}
+}
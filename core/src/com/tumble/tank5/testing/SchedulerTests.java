@@ -0,0 +1,450 @@
+package com.tumble.tank5.testing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.game_object.entities.Player;
+import com.tumble.tank5.game_object.tiles.Tile;
+import com.tumble.tank5.server.GameScheduler;
+import com.tumble.tank5.server.GameScheduler.Dispatcher;
+import com.tumble.tank5.server.TimerWheel;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.GameClock;
+import com.tumble.tank5.world_logic.MapData;
+import com.tumble.tank5.world_logic.VirtualClock;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Tests to ensure that a <code>GameScheduler</code> (and the
+ * <code>TimerWheel</code> and <code>GameClock</code>s behind it) updates each
+ * <code>Game</code> exactly when it needs updating. Time is simulated by a
+ * <code>VirtualClock</code>, and updates are queued by a <code>Dispatcher</code>
+ * until the test runs them, so nothing depends on real time or threads.
+ *
+ * @author Tumbl
+ *
+ */
+public class SchedulerTests {
+	private static final int ROUND_LENGTH = 500;
+
+	// Queues updates until they're run by the test.
+	private static final class Queue implements Dispatcher {
+		private final ArrayDeque<Runnable> updates = new ArrayDeque<Runnable>();
+
+		@Override
+		public void dispatch(Game game, Runnable update) {
+			updates.add(update);
+		}
+
+		private int size() {
+			return updates.size();
+		}
+
+		// Runs everything queued (including anything queued by doing so).
+		private int runAll() {
+			int ran = 0;
+
+			while (!updates.isEmpty()) {
+				updates.poll().run();
+				assert ++ran < 10000;
+			}
+			return ran;
+		}
+	}
+
+	/**
+	 * Checks that a <code>Game</code> is left alone until its next deadline, is
+	 * updated as soon as that comes round, and then waits for the next one.
+	 */
+	@Test
+	public void test_01() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = startGame(clock);
+		assert s.add(g) && !s.add(g) && !s.add(null);
+		assert s.size() == 1 && wheel.pending() == 1;
+
+		clock.advance(ROUND_LENGTH - 1);
+		wheel.expire();
+		assert queue.size() == 0 && g.getRoundNumber() == 0;
+
+		clock.advance(1);
+		wheel.expire();
+		assert queue.size() == 1 && wheel.pending() == 0;
+
+		queue.runAll();
+		assert g.getRoundNumber() == 1;
+		assert wheel.pending() == 1;
+
+		// Nothing more to do until the end of the next Round.
+		wheel.expire();
+		assert queue.size() == 0;
+	}
+
+	/**
+	 * Checks that waking a <code>Game</code> with nothing to do (e.g., not yet
+	 * started) gets it updated, and that it goes back to waiting afterwards.
+	 */
+	@Test
+	public void test_02() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = newGame(clock);
+		assert s.add(g);
+
+		// Not started, so idle.
+		assert queue.size() == 0 && wheel.pending() == 0;
+
+		assert g.start(ROUND_LENGTH, 0, 0, 1, 0);
+		assert s.wake(g);
+		assert queue.size() == 1;
+
+		queue.runAll();
+		assert g.getRoundNumber() == 0;
+		assert wheel.pending() == 1;
+
+		assert !s.wake(newGame(clock)) && !s.wake(null);
+	}
+
+	/**
+	 * Checks that waking a <code>Game</code> waiting on the wheel takes it off
+	 * the wheel and updates it straight away, but only once if its deadline has
+	 * already fired.
+	 */
+	@Test
+	public void test_03() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = startGame(clock);
+		assert s.add(g) && wheel.pending() == 1;
+
+		assert s.wake(g);
+		assert wheel.pending() == 0 && queue.size() == 1;
+
+		// Too early, so it goes back on the wheel.
+		queue.runAll();
+		assert g.getRoundNumber() == 0 && wheel.pending() == 1;
+
+		clock.advance(ROUND_LENGTH);
+		wheel.expire();
+		assert queue.size() == 1;
+
+		// Already on its way to be updated.
+		assert s.wake(g);
+		assert queue.size() == 1;
+
+		queue.runAll();
+		assert g.getRoundNumber() == 1 && wheel.pending() == 1;
+	}
+
+	/**
+	 * Checks that a <code>Game</code> woken while it is being updated is updated
+	 * again straight afterwards, even though its deadline hasn't come round.
+	 */
+	@Test
+	public void test_04() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = startGame(clock);
+		assert s.add(g);
+
+		int[] runs = { 0 };
+		assert s.attach(g, () -> {
+			// Only wake it the first time.
+			if (runs[0]++ == 0) s.wake(g);
+		}, () -> Long.MAX_VALUE);
+
+		// Attaching a task wakes the Game, in case the task is due sooner.
+		assert queue.size() == 1 && wheel.pending() == 0;
+
+		queue.updates.poll().run();
+		assert runs[0] == 1;
+		assert queue.size() == 1 && wheel.pending() == 0;
+
+		queue.updates.poll().run();
+		assert runs[0] == 2;
+		assert queue.size() == 0 && wheel.pending() == 1;
+		assert g.getRoundNumber() == 0;
+	}
+
+	/**
+	 * Checks that a <code>Game</code> removed while it is being updated isn't
+	 * scheduled again, and that an update queued before it was removed does
+	 * nothing.
+	 */
+	@Test
+	public void test_05() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = startGame(clock);
+		assert s.add(g);
+
+		int[] runs = { 0 };
+		assert s.attach(g, () -> {
+			runs[0]++;
+			assert s.remove(g);
+		}, () -> Long.MAX_VALUE);
+
+		queue.runAll();
+		assert runs[0] == 1;
+		assert queue.size() == 0 && wheel.pending() == 0 && s.size() == 0;
+
+		assert !s.remove(g) && !s.wake(g) && !s.attach(g, () -> {}, () -> 0);
+
+		// Queued, then removed before it could run.
+		Game h = startGame(clock);
+		assert s.add(h) && s.wake(h) && queue.size() == 1;
+		assert s.remove(h);
+
+		clock.advance(ROUND_LENGTH);
+		queue.runAll();
+		assert h.getRoundNumber() == 0;
+		assert wheel.pending() == 0;
+	}
+
+	/**
+	 * Checks that a <code>Game</code> is also updated by the deadlines of the
+	 * tasks attached to it, whichever comes first.
+	 */
+	@Test
+	public void test_06() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		Game g = startGame(clock);
+		assert s.add(g);
+
+		int[] runs = { 0 };
+		long[] next = { 1100 };
+		assert s.attach(g, () -> {
+			runs[0]++;
+			// Nothing more to do once it's been run at its deadline.
+			if (clock.currentTimeMillis() >= next[0]) next[0] = Long.MAX_VALUE;
+		}, () -> next[0]);
+		queue.runAll();
+		assert runs[0] == 1 && wheel.pending() == 1;
+
+		clock.advanceTo(1099);
+		wheel.expire();
+		assert queue.size() == 0;
+
+		clock.advanceTo(1100);
+		wheel.expire();
+		queue.runAll();
+		assert runs[0] == 2 && g.getRoundNumber() == 0;
+
+		// Back to the Game's own deadline.
+		assert next[0] == Long.MAX_VALUE;
+		clock.advanceTo(1200);
+		wheel.expire();
+		assert queue.size() == 0;
+
+		clock.advanceTo(1000 + ROUND_LENGTH);
+		wheel.expire();
+		queue.runAll();
+		assert runs[0] > 2 && g.getRoundNumber() == 1;
+	}
+
+	/**
+	 * Checks that an update that fails is counted and handed to the
+	 * <code>FailureHandler</code>, and that the <code>Game</code> is still
+	 * scheduled afterwards.
+	 */
+	@Test
+	public void test_07() {
+		VirtualClock clock = new VirtualClock(1000);
+		Queue queue = new Queue();
+		TimerWheel wheel = newWheel(clock, 8);
+		GameScheduler s = new GameScheduler(queue, wheel);
+
+		List<Throwable> errors = new ArrayList<Throwable>();
+		s.setFailureHandler((game, error) -> errors.add(error));
+
+		Game g = startGame(clock);
+		assert s.add(g);
+		assert s.attach(g, () -> {
+			throw new GameError("Broken!");
+		}, () -> Long.MAX_VALUE);
+
+		queue.runAll();
+		assert s.getFailures() == 1;
+		assert errors.size() == 1 && errors.get(0).getMessage().equals("Broken!");
+		assert s.size() == 1 && wheel.pending() == 1;
+
+		s.setFailureHandler(null);
+		clock.advance(ROUND_LENGTH);
+		wheel.expire();
+		queue.runAll();
+
+		assert s.getFailures() > 1 && errors.size() == 1;
+		assert g.getRoundNumber() == 1;
+	}
+
+	/**
+	 * Checks that cancelled <code>Timeout</code>s never run, and that each
+	 * <code>Timeout</code> can only be cancelled before it has run.
+	 */
+	@Test
+	public void test_08() {
+		VirtualClock clock = new VirtualClock(1000);
+		TimerWheel wheel = newWheel(clock, 8);
+
+		int[] runs = { 0, 0 };
+		TimerWheel.Timeout a = wheel.schedule(() -> runs[0]++, at(clock, 5));
+		TimerWheel.Timeout b = wheel.schedule(() -> runs[1]++, at(clock, 5));
+		assert wheel.pending() == 2;
+
+		assert wheel.cancel(a) && !wheel.cancel(a) && !wheel.cancel(null);
+		assert wheel.pending() == 1;
+
+		clock.advance(5);
+		wheel.expire();
+		assert runs[0] == 0 && runs[1] == 1;
+		assert !wheel.cancel(b) && wheel.pending() == 0;
+
+		// Deadlines in the past are due straight away.
+		wheel.schedule(() -> runs[0]++, at(clock, -5));
+		assert wheel.expire() == Long.MAX_VALUE;
+		assert runs[0] == 1;
+
+		try {
+			wheel.schedule(null, 0);
+			assert false;
+		} catch (GameError e) {
+			// Expected: nothing to run.
+		}
+	}
+
+	/**
+	 * Checks that a <code>Timeout</code> more than a revolution of the wheel
+	 * away isn't run when its bucket comes round early, and that the wheel
+	 * wakes no later than a revolution to check on it.
+	 */
+	@Test
+	public void test_09() {
+		VirtualClock clock = new VirtualClock(1000);
+		// 4 buckets of 1ms each.
+		TimerWheel wheel = newWheel(clock, 3);
+
+		int[] runs = { 0 };
+		wheel.schedule(() -> runs[0]++, at(clock, 10));
+
+		// Nothing due this revolution.
+		assert wheel.expire() == 4_000_000;
+
+		// Passes through the Timeout's bucket (at 2ms and 6ms) without running it.
+		for (int ms = 1; ms < 10; ms++) {
+			clock.advance(1);
+			long wait = wheel.expire();
+			assert runs[0] == 0;
+			assert wait > 0 && wait <= 4_000_000;
+		}
+		assert wheel.expire() == 1_000_000;
+
+		clock.advance(1);
+		assert wheel.expire() == Long.MAX_VALUE;
+		assert runs[0] == 1 && wheel.pending() == 0;
+	}
+
+	/**
+	 * Checks that {@link GameClock#SYSTEM} always agrees with
+	 * {@link System#currentTimeMillis()} about which millisecond it is, and
+	 * never goes backwards.
+	 */
+	@Test
+	public void test_10() {
+		GameClock clock = GameClock.SYSTEM;
+		long last = Long.MIN_VALUE;
+
+		for (int i = 0; i < 100000; i++) {
+			long before = System.currentTimeMillis();
+			long nanos = clock.currentTimeNanos();
+			long after = System.currentTimeMillis();
+
+			assert before <= nanos / 1_000_000 && nanos / 1_000_000 <= after;
+			assert nanos >= last;
+			last = nanos;
+		}
+
+		// A VirtualClock only moves in whole milliseconds.
+		VirtualClock virtual = new VirtualClock(1234);
+		assert virtual.currentTimeNanos() == 1234 * 1_000_000l;
+	}
+
+	/**
+	 * Checks that a <code>TimerWheel</code> that has been idle for a long time
+	 * (far more ticks than could be walked one at a time) picks up where the
+	 * clock is straight away, whether it is expired or scheduled on first.
+	 */
+	@Test
+	public void test_11() {
+		VirtualClock clock = new VirtualClock(1000);
+		TimerWheel wheel = newWheel(clock, 8);
+		int[] runs = { 0 };
+
+		// Scheduled on first.
+		clock.advance(1_000_000_000_000l);
+		wheel.schedule(() -> runs[0]++, at(clock, 2));
+		assert wheel.expire() == 2_000_000;
+
+		clock.advance(2);
+		assert wheel.expire() == Long.MAX_VALUE;
+		assert runs[0] == 1;
+
+		// Expired first.
+		clock.advance(1_000_000_000_000l);
+		assert wheel.expire() == Long.MAX_VALUE;
+
+		wheel.schedule(() -> runs[0]++, at(clock, 2));
+		clock.advance(2);
+		assert wheel.expire() == Long.MAX_VALUE;
+		assert runs[0] == 2 && wheel.pending() == 0;
+	}
+
+	private static TimerWheel newWheel(VirtualClock clock, int size) {
+		return new TimerWheel(1_000_000, size, Runnable::run, clock::currentTimeNanos);
+	}
+
+	// The wheel time a given number of milliseconds from now.
+	private static long at(VirtualClock clock, long millis) {
+		return (clock.currentTimeMillis() + millis) * 1_000_000;
+	}
+
+	private static Game newGame(VirtualClock clock) {
+		Game g = new Game(true, 1, clock);
+		g.loadMap(new MapData(
+				"  \n" +
+				" W"));
+		g.addEntity(new Player(g, IDManager.nextID(g), "A"),
+				new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		return g;
+	}
+
+	private static Game startGame(VirtualClock clock) {
+		Game g = newGame(clock);
+		assert g.start(ROUND_LENGTH, 0, 0, 1, 0);
+		return g;
+	}
+}
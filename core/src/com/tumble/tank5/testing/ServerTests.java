@@ -0,0 +1,160 @@
+package com.tumble.tank5.testing;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.server.GameServer;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * Tests to ensure that a <code>GameServer</code> keeps each hosted
+ * <code>Game</code> on a single shard's thread, and moves <code>Game</code>s
+ * off a shard that is doing more than its share of the work.
+ *
+ * @author Tumbl
+ *
+ */
+public class ServerTests {
+	// Work attached to a hosted Game, run after each of its updates.
+	private static final class Job implements Runnable {
+		private final long sleepMillis;
+		private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		private volatile int runs = 0, target;
+		private volatile CountDownLatch done;
+
+		private Job(long sleepMillis, int target) {
+			this.sleepMillis = sleepMillis;
+			this.target = target;
+			done = new CountDownLatch(1);
+		}
+
+		@Override
+		public void run() {
+			threads.add(Thread.currentThread().getName());
+
+			if (sleepMillis > 0) {
+				try {
+					Thread.sleep(sleepMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			if (++runs == target) done.countDown();
+		}
+
+		// Due straight away until it has been run enough times.
+		private long nextDeadline() {
+			return runs < target ? 0 : Long.MAX_VALUE;
+		}
+
+		private void runMore(int times) {
+			done = new CountDownLatch(1);
+			target += times;
+		}
+
+		private void await() throws InterruptedException {
+			assert done.await(10, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Checks that every update of a hosted <code>Game</code> (and everything
+	 * attached to it) runs on the thread of the shard it is assigned to.
+	 */
+	@Test
+	public void test_01() throws InterruptedException {
+		GameServer server = new GameServer(2);
+
+		try {
+			new GameServer(0);
+			assert false;
+		} catch (GameError e) {
+			// Expected: nowhere to run Games.
+		}
+
+		Game[] games = new Game[4];
+		Job[] jobs = new Job[games.length];
+
+		for (int i = 0; i < games.length; i++) {
+			games[i] = new Game(true, 1);
+			assert server.host(games[i]) && !server.host(games[i]);
+		}
+		assert server.size() == games.length && !server.host(null);
+
+		for (int i = 0; i < games.length; i++) {
+			jobs[i] = new Job(0, 50);
+			assert server.attach(games[i], jobs[i], jobs[i]::nextDeadline);
+		}
+		for (Job job : jobs) job.await();
+
+		for (int i = 0; i < games.length; i++) {
+			// Spread over both shards.
+			assert server.getShard(games[i]) == i % 2;
+			assert jobs[i].threads.size() == 1;
+			assert jobs[i].threads.contains("tank5-shard-" + server.getShard(games[i]));
+		}
+
+		for (Game g : games) assert server.close(g) && !server.close(g);
+		assert server.size() == 0 && server.getShard(games[0]) == -1;
+		assert !server.host(games[0]);
+
+		server.shutdown();
+	}
+
+	/**
+	 * Checks that rebalancing moves a <code>Game</code> off the busiest shard
+	 * onto the idlest one (without just swapping which one is busiest), and that
+	 * its later updates run on its new shard.
+	 */
+	@Test
+	public void test_02() throws InterruptedException {
+		GameServer server = new GameServer(2);
+
+		Game heavy = new Game(true, 1), light = new Game(true, 1);
+		Game idleA = new Game(true, 1), idleB = new Game(true, 1);
+
+		// Alternates between the shards: heavy and light share shard 0.
+		assert server.host(heavy) && server.host(idleA) && server.host(light) && server.host(idleB);
+		assert server.getShard(heavy) == 0 && server.getShard(light) == 0;
+
+		Job heavyJob = new Job(10, 10), lightJob = new Job(2, 10);
+		Job idleAJob = new Job(0, 10), idleBJob = new Job(0, 10);
+		server.attach(heavy, heavyJob, heavyJob::nextDeadline);
+		server.attach(light, lightJob, lightJob::nextDeadline);
+		server.attach(idleA, idleAJob, idleAJob::nextDeadline);
+		server.attach(idleB, idleBJob, idleBJob::nextDeadline);
+
+		heavyJob.await();
+		lightJob.await();
+		idleAJob.await();
+		idleBJob.await();
+
+		server.rebalance();
+
+		// Moving heavy would just leave shard 1 the busiest instead.
+		assert server.getShard(heavy) == 0;
+		assert server.getShard(light) == 1;
+		assert server.getShard(idleA) == 1 && server.getShard(idleB) == 1;
+
+		lightJob.runMore(10);
+		assert server.wake(light);
+		lightJob.await();
+
+		assert lightJob.threads.contains("tank5-shard-1");
+		assert heavyJob.threads.size() == 1 && heavyJob.threads.contains("tank5-shard-0");
+
+		// Only light has run since, and moving it back would just make shard 0 the busiest.
+		server.rebalance();
+		assert server.getShard(light) == 1 && server.getShard(heavy) == 0;
+
+		for (Game g : new Game[] { heavy, light, idleA, idleB }) server.close(g);
+		server.shutdown();
+	}
+}
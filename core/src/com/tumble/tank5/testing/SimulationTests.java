@@ -0,0 +1,252 @@
+package com.tumble.tank5.testing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.tumble.tank5.ai.Brain;
+import com.tumble.tank5.ai.NPCController;
+
+import com.tumble.tank5.events.MovementEvent;
+import com.tumble.tank5.game_object.entities.Action;
+import com.tumble.tank5.game_object.entities.Action.ActionType;
+import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.game_object.entities.Player;
+import com.tumble.tank5.game_object.tiles.Tile;
+import com.tumble.tank5.inputs.EntityAction;
+import com.tumble.tank5.inputs.EntityMove;
+import com.tumble.tank5.inputs.Input;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.GameError;
+import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.weapons.DevWeapon;
+import com.tumble.tank5.world_logic.GameClock;
+import com.tumble.tank5.world_logic.MapData;
+import com.tumble.tank5.world_logic.VirtualClock;
+import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.Game.Phase;
+
+/**
+ * Tests to ensure that a <code>Game</code> timed by a
+ * <code>VirtualClock</code> can be simulated headlessly (without waiting in
+ * real time).
+ *
+ * @author Tumbl
+ *
+ */
+public class SimulationTests {
+
+	/**
+	 * Checks that fast-forwarding can only be turned on for <code>Game</code>s
+	 * timed by a <code>VirtualClock</code>.
+	 */
+	@Test
+	public void test_01() {
+		assert !new Game(true, 1).setFastForward(true);
+		assert !new Game(true, 1, GameClock.SYSTEM).setFastForward(true);
+		assert new Game(true, 1, new VirtualClock()).setFastForward(true);
+	}
+
+	/**
+	 * Checks that a fast-forwarding <code>Game</code> gets through a whole
+	 * <code>Round</code> (acceptance, patience and enactment) in a single call of
+	 * {@link Game#update(boolean)} once every <code>Entity</code> has submitted an
+	 * <code>Input</code>, and that no real time is waited for.
+	 */
+	@Test
+	public void test_02() {
+		VirtualClock clock = new VirtualClock(1000);
+		Game g = newGame(clock);
+		Player p = new Player(g, IDManager.nextID(g), "A", newWeapon(), newWeapon());
+
+		g.addEntity(p, new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		assert g.setFastForward(true);
+		assert g.start(60000, 0, 0, 1, 30000); // A whole minute per Round.
+
+		long realStart = System.currentTimeMillis();
+
+		for (int i = 0; i < 1000; i++) {
+			assert g.getRoundNumber() == i;
+			assert g.getPhase() == Phase.ACCEPTANCE;
+
+			assert g.addInput(
+					new EntityAction(
+							clock.currentTimeMillis(),
+							p,
+							new Action(ActionType.SWITCH_WEAPON)));
+			g.update(false);
+		}
+
+		assert g.getRoundNumber() == 1000;
+		// Every Round and patience wait should have passed in virtual time...
+		assert clock.currentTimeMillis() == 1000 + 1000 * (60000l + 30000l);
+		// ... but (nowhere near) in real time.
+		assert System.currentTimeMillis() - realStart < 60000;
+	}
+
+	/**
+	 * Checks that a fast-forwarding <code>Game</code> still waits (in virtual
+	 * time) for <code>Input</code>s that haven't arrived yet.
+	 */
+	@Test
+	public void test_03() {
+		VirtualClock clock = new VirtualClock();
+		Game g = newGame(clock);
+		Player p = new Player(g, IDManager.nextID(g), "A");
+
+		g.addEntity(p, new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		g.setFastForward(true);
+		g.start(500, 0, 0, 1, 0);
+
+		// No Input from 'A' yet.
+		for (int i = 0; i < 10; i++) g.update(false);
+
+		assert g.getRoundNumber() == 0;
+		assert g.getPhase() == Phase.ACCEPTANCE;
+
+		// Let the Round run out instead.
+		clock.advance(500);
+		g.update(false);
+
+		assert g.getRoundNumber() == 1;
+		assert g.getPhase() == Phase.ACCEPTANCE;
+	}
+
+	/**
+	 * Checks that an <code>NPCController</code> falls back for a
+	 * <code>Brain</code> that fails while thinking (once the budget has run out),
+	 * and counts it as having failed rather than having run out of time.
+	 */
+	@Test
+	public void test_04() throws InterruptedException {
+		VirtualClock clock = new VirtualClock();
+		Game g = newGame(clock);
+		Player slow = new Player(g, IDManager.nextID(g), "A");
+		Player broken = new Player(g, IDManager.nextID(g), "B");
+
+		g.addEntity(slow, new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		g.addEntity(broken, new Position(0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		g.start(500, 0, 0, 1, 0);
+
+		CountDownLatch slowThinking = new CountDownLatch(1);
+
+		// A single worker, so the broken Brain has thrown by the time the slow one
+		// starts thinking.
+		NPCController controller = new NPCController(g, 1);
+		controller.attach(broken, new Brain() {
+			@Override
+			public List<Input> think(Entity body, Game game, long deadline) {
+				throw new GameError("Broken!");
+			}
+
+			@Override
+			public List<Input> fallback(Entity body, Game game, long time) {
+				return Arrays.asList(new EntityMove(time, body, Direction.E.asVector()));
+			}
+		});
+		controller.attach(slow, new Brain() {
+			@Override
+			public List<Input> think(Entity body, Game game, long deadline) {
+				slowThinking.countDown();
+				return null;
+			}
+
+			@Override
+			public List<Input> fallback(Entity body, Game game, long time) {
+				return Collections.emptyList();
+			}
+		});
+
+		assert controller.update() == 2;
+		slowThinking.await();
+
+		// Nothing is given up on before the budget has run out.
+		assert controller.update() == 0;
+
+		clock.advanceTo(controller.getNextDeadline());
+		assert controller.update() == 2;
+		assert controller.getFailures() == 1 && controller.getFallbacks() == 1;
+		assert controller.getNextDeadline() == Long.MAX_VALUE;
+
+		g.update(false);
+		assert Direction.E.asVector().equals(g.getMove(broken));
+
+		controller.shutdown();
+	}
+
+	/**
+	 * Checks that an <code>NPCController</code> given the whole
+	 * <code>Round</code> still stops thinking a slice before its deadline, and
+	 * that falling back waits for a slice already in progress (whose decision is
+	 * kept).
+	 */
+	@Test
+	public void test_05() throws InterruptedException {
+		VirtualClock clock = new VirtualClock();
+		Game g = newGame(clock);
+		Player p = new Player(g, IDManager.nextID(g), "A");
+
+		g.addEntity(p, new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE));
+		g.start(500, 0, 0, 1, 0);
+
+		CountDownLatch thinking = new CountDownLatch(1);
+		AtomicBoolean finished = new AtomicBoolean();
+
+		NPCController controller = new NPCController(g, 1, 1.0, 10);
+		controller.attach(p, new Brain() {
+			@Override
+			public List<Input> think(Entity body, Game game, long deadline) {
+				thinking.countDown();
+
+				// Overruns its slice (in real time).
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				finished.set(true);
+				return Arrays.asList(new EntityMove(deadline, body, Direction.N.asVector()));
+			}
+
+			@Override
+			public List<Input> fallback(Entity body, Game game, long time) {
+				return Collections.emptyList();
+			}
+		});
+
+		assert controller.update() == 1;
+		assert controller.getNextDeadline() == g.getNextDeadline() - 10;
+
+		thinking.await();
+		clock.advanceTo(controller.getNextDeadline());
+
+		// Waits for the slice, so there is nothing left to fall back for.
+		assert controller.update() == 0;
+		assert finished.get();
+		assert controller.getFallbacks() == 0 && controller.getFailures() == 0;
+		assert g.getPhase() == Phase.ACCEPTANCE;
+
+		g.update(false);
+		assert Direction.N.asVector().equals(g.getMove(p));
+
+		controller.shutdown();
+	}
+
+	private static Game newGame(VirtualClock clock) {
+		Game g = new Game(true, 1, clock);
+		g.loadMap(new MapData(
+				"  \n" +
+				" W"));
+		return g;
+	}
+
+	private static DevWeapon newWeapon() {
+		return new DevWeapon(0, MovementEvent.MOVEMENT_TICKS, 0, 0, 1, 1, 0, Tile.TILE_SIZE);
+	}
+}
@@ -9,6 +9,7 @@ import com.tumble.tank5.game_object.entities.Entity;
 import com.tumble.tank5.game_object.entities.Player;
 import com.tumble.tank5.game_object.tiles.Tile;
 import com.tumble.tank5.game_object.tiles.Wall;
+import com.tumble.tank5.util.GameUtils;
 import com.tumble.tank5.util.IDManager;
 import com.tumble.tank5.util.Position;
 import com.tumble.tank5.weapons.Damage;
@@ -313,6 +314,58 @@ public class WeaponTests {
 						null));
 	}
 	
+	// **** SWEPT COLLISION DETECTION ****
+	
+	/**
+	 * Checks that a bullet is tested against the whole volume an
+	 * <code>Entity</code> swept out while moving (not just where it started or
+	 * ended up), including the heights it covered, and that hits can be put in
+	 * order along the bullet.
+	 */
+	@Test
+	public void test_30() {
+		double radius = 0.25 * Tile.TILE_SIZE;
+		
+		// Moving east by a whole Tile.
+		Position start = new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE);
+		Position end = new Position(1.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE);
+		
+		// Crossing its path half way along.
+		Position from = new Position(1.0 * Tile.TILE_SIZE, -1.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE);
+		Position to = new Position(1.0 * Tile.TILE_SIZE, 2.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE);
+		
+		assert GameUtils.collideSweptCylinderBullet(start, end, radius, Tile.TILE_SIZE, from, to);
+		assert !GameUtils.collideSweptCylinderBullet(start, start, radius, Tile.TILE_SIZE, from, to);
+		assert !GameUtils.collideSweptCylinderBullet(end, end, radius, Tile.TILE_SIZE, from, to);
+		
+		// The same, but a layer higher up.
+		Position fromAbove = new Position(from.x, from.y, 1.5 * Tile.TILE_SIZE);
+		Position toAbove = new Position(to.x, to.y, 1.5 * Tile.TILE_SIZE);
+		
+		assert !GameUtils.collideSweptCylinderBullet(start, end, radius, Tile.TILE_SIZE, fromAbove, toAbove);
+		
+		// Coming down through the path (or stopping just short of it).
+		Position overhead = new Position(1.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 3.0 * Tile.TILE_SIZE);
+		Position below = new Position(1.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, -1.0 * Tile.TILE_SIZE);
+		Position justAbove = new Position(1.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.2 * Tile.TILE_SIZE);
+		
+		assert GameUtils.collideSweptCylinderBullet(start, end, radius, Tile.TILE_SIZE, overhead, below);
+		assert !GameUtils.collideSweptCylinderBullet(start, end, radius, Tile.TILE_SIZE, overhead, justAbove);
+		
+		// Falling by two Tiles, through a bullet fired across the layer in between.
+		Position top = new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 2.5 * Tile.TILE_SIZE);
+		Position across = new Position(-1.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		Position beyond = new Position(2.0 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE);
+		
+		assert GameUtils.collideSweptCylinderBullet(top, start, radius, Tile.TILE_SIZE, across, beyond);
+		assert !GameUtils.collideSweptCylinderBullet(start, start, radius, Tile.TILE_SIZE, across, beyond);
+		
+		// How far along the bullet each end of the move is passed (for putting hits in order).
+		assert GameUtils.bulletParameter(start, across, beyond) < GameUtils.bulletParameter(end, across, beyond);
+		assert GameUtils.bulletParameter(end, beyond, across) < GameUtils.bulletParameter(start, beyond, across);
+		assert GameUtils.bulletParameter(across, across, beyond) == 0 && GameUtils.bulletParameter(across, beyond, across) == 1;
+	}
+
 	private static <T> T[] toArray(Queue<T> queue) {
 		@SuppressWarnings("unchecked")
 		T[] array = (T[]) new Object[queue.size];
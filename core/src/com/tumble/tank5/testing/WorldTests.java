@@ -1,14 +1,43 @@
 package com.tumble.tank5.testing;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
+import com.badlogic.gdx.utils.Queue;
+import com.tumble.tank5.events.Event;
+import com.tumble.tank5.events.MovementEvent;
+import com.tumble.tank5.game_object.entities.Action;
+import com.tumble.tank5.game_object.entities.Action.ActionType;
+import com.tumble.tank5.game_object.entities.Entity;
 import com.tumble.tank5.game_object.entities.Player;
+import com.tumble.tank5.game_object.tiles.Ladder;
+import com.tumble.tank5.game_object.tiles.Rubble;
 import com.tumble.tank5.game_object.tiles.Tile;
+import com.tumble.tank5.game_object.tiles.Tile.TileType;
+import com.tumble.tank5.game_object.tiles.Wall;
+import com.tumble.tank5.inputs.EntityAction;
+import com.tumble.tank5.inputs.EntityMove;
+import com.tumble.tank5.inputs.Input;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.GameError;
 import com.tumble.tank5.util.IDManager;
+import com.tumble.tank5.util.Pair;
 import com.tumble.tank5.util.Position;
+import com.tumble.tank5.weapons.DevWeapon;
+import com.tumble.tank5.weapons.Weapon;
 import com.tumble.tank5.world_logic.MapData;
+import com.tumble.tank5.world_logic.VirtualClock;
+import com.tumble.tank5.world_logic.game_n_world.EntityHandles;
 import com.tumble.tank5.world_logic.game_n_world.Game;
+import com.tumble.tank5.world_logic.game_n_world.Game.Phase;
+import com.tumble.tank5.world_logic.game_n_world.GameObject;
 import com.tumble.tank5.world_logic.game_n_world.GameWorld;
 
 
@@ -259,6 +288,1079 @@ public class WorldTests {
 		assert compare("A", gW.entityAt(spawnLocations[1]));
 	}
 
+	/**
+	 * Makes sure <code>Entity</code> handles are dense, and that handles to
+	 * <code>Entities</code> that have left the <code>GameWorld</code> go stale,
+	 * even once their slots have been reused.
+	 */
+	@Test
+	public void test_06() {
+		String mapString =
+				"WWW" +
+				"~" +
+				"   ";
+
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData(mapString));
+
+		Player a = new Player(g, IDManager.nextID(g), "A");
+		Player b = new Player(g, IDManager.nextID(g), "B");
+
+		assert gW.getHandle(a) == EntityHandles.NONE;
+
+		assert g.addEntity(a, new Position(0.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE));
+		assert g.addEntity(b, new Position(2.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE));
+
+		int handleA = gW.getHandle(a);
+		int handleB = gW.getHandle(b);
+
+		assert EntityHandles.index(handleA) == 0 && EntityHandles.index(handleB) == 1;
+		assert gW.resolve(handleA) == a && gW.resolve(handleB) == b;
+		assert gW.getHandleCapacity() == 2;
+
+		// Reloading removes every Entity, so both handles go stale.
+		assert g.loadMap(new MapData(mapString));
+
+		assert gW.resolve(handleA) == null && gW.resolve(handleB) == null;
+		assert gW.getHandle(a) == EntityHandles.NONE;
+
+		// The new Entity reuses a slot, but not a handle.
+		Player c = new Player(g, IDManager.nextID(g), "C");
+		assert g.addEntity(c, new Position(1.5 * Tile.TILE_SIZE, 0.5 * Tile.TILE_SIZE, 1.5 * Tile.TILE_SIZE));
+
+		int handleC = gW.getHandle(c);
+
+		assert EntityHandles.index(handleC) < 2 && handleC != handleA && handleC != handleB;
+		assert gW.resolve(handleC) == c;
+		assert gW.resolve(handleA) == null && gW.resolve(handleB) == null;
+		assert gW.getHandleCapacity() == 2;
+		assert gW.resolve(EntityHandles.NONE) == null;
+
+		// Plans are kept by slot, and only for the Entity in it now.
+		assert g.getAction(c).getType() == ActionType.NONE && g.getMove(c) == null;
+		assert g.getAction(a) == null && g.getAction(b) == null;
+	}
+
+	/**
+	 * Makes sure the navigation exits next to a settled <code>Rubble</code> pile
+	 * are brought up to date when more <code>Rubble</code> lands on it (in place)
+	 * and makes it heavy enough to be an obstruction.
+	 */
+	@Test
+	public void test_07() {
+		String mapString =
+				"WWW" +
+				"~" +
+				" WW" +
+				"~" +
+				"  W" +
+				"~" +
+				" WW";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 1));
+		GameWorld gW = g.getWorld();
+
+		assert !gW.canExit(cell(0, 0, 1), Direction.E);
+
+		// A single Wall's worth of Rubble can be walked over...
+		gW.tileAt(cell(1, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 1);
+
+		assert compare("R", gW.tileAt(cell(1, 0, 1)));
+		assert compare("W", gW.tileAt(cell(1, 0, 3))); // Braced by its neighbour.
+		assert gW.canExit(cell(0, 0, 1), Direction.E);
+
+		// ... but not once another has fallen onto it.
+		gW.tileAt(cell(1, 0, 3)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert compare(" ", gW.tileAt(cell(1, 0, 3)));
+		assert compare(" ", gW.tileAt(cell(1, 0, 2)));
+		assert gW.tileAt(cell(1, 0, 1)).getWeight() >= Rubble.OBSTRUCTIVE_THRESHOLD;
+		assert !gW.canExit(cell(0, 0, 1), Direction.E);
+	}
+
+	/**
+	 * Makes sure an <code>Entity</code> that has dropped off the bottom of a
+	 * <code>Ladder</code> into empty space can keep moving down.
+	 */
+	@Test
+	public void test_08() {
+		String mapString =
+				"  " +
+				"~" +
+				"  " +
+				"~" +
+				"# ";
+
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData(mapString));
+
+		assert gW.canExit(cell(0, 0, 2), Direction.DOWN);
+		assert gW.canExit(cell(0, 0, 1), Direction.DOWN);
+		assert !gW.canExit(cell(0, 0, 0), Direction.DOWN);
+
+		// Nothing to drop off here.
+		assert !gW.canExit(cell(1, 0, 1), Direction.DOWN);
+	}
+
+	/**
+	 * Makes sure falling <code>Rubble</code> lands on top of the highest
+	 * <code>Tile</code> beneath it, as of the latest changes to its column.
+	 */
+	@Test
+	public void test_09() {
+		String mapString =
+				"WWW" +
+				"~" +
+				"WW " +
+				"~" +
+				" WW" +
+				"~" +
+				"WW " +
+				"~" +
+				"   ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(1, 0, 4));
+		GameWorld gW = g.getWorld();
+
+		// Lands on the Wall beneath it, without replacing it.
+		gW.tileAt(cell(2, 0, 2)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		assert compare(" ", gW.tileAt(cell(2, 0, 2)));
+		assert compare("R", gW.tileAt(cell(2, 0, 1)));
+		assert compare("W", gW.tileAt(cell(2, 0, 0)));
+
+		// Lands on the remains of the bottom of its column once that has been
+		// carved out.
+		assert gW.carveBox(cell(0, 0, 0), cell(0, 0, 1), (Position centre, double distance) -> 1000, null, 0, new ArrayDeque<Event>()) == 2;
+		gW.tileAt(cell(0, 0, 3)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		for (int z = 1; z <= 3; z++) assert compare(" ", gW.tileAt(cell(0, 0, z)));
+		assert compare("R", gW.tileAt(cell(0, 0, 0)));
+		assert ((Rubble) gW.tileAt(cell(0, 0, 0))).count(TileType.WALL) == 3;
+	}
+
+	/**
+	 * Makes sure that only the <code>Entities</code> resting on a changed cell
+	 * are checked for support (and fall), while everything else stays put.
+	 */
+	@Test
+	public void test_10() {
+		String mapString =
+				"W W" +
+				"~" +
+				"W W" +
+				"~" +
+				"W W" +
+				"~" +
+				"   ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 3), cell(2, 0, 3));
+		GameWorld gW = g.getWorld();
+
+		Entity a = gW.entityAt(cell(0, 0, 3));
+		Entity b = gW.entityAt(cell(2, 0, 3));
+
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		// Nothing has changed, so nobody falls.
+		assert a.getPosition().getZ() == 3 && b.getPosition().getZ() == 3;
+
+		// The Wall 'A' is standing on collapses along with the one beneath it.
+		gW.tileAt(cell(0, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert compare(" ", gW.tileAt(cell(0, 0, 2)));
+		assert compare("R", gW.tileAt(cell(0, 0, 1)));
+		assert a.getPosition().getZ() == 2 && !a.isFalling();
+		assert b.getPosition().getZ() == 3 && !b.isFalling();
+	}
+
+	/**
+	 * Makes sure an <code>Entity</code> holding on to a <code>Ladder</code> is
+	 * notified (and falls) when the <code>Ladder</code> is destroyed.
+	 */
+	@Test
+	public void test_11() {
+		String mapString =
+				"WW" +
+				"~" +
+				" W" +
+				"~" +
+				"#W";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 2));
+		GameWorld gW = g.getWorld();
+
+		Entity a = gW.entityAt(cell(0, 0, 2));
+
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		assert a.getPosition().getZ() == 2;
+
+		gW.tileAt(cell(0, 0, 2)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert compare(" ", gW.tileAt(cell(0, 0, 2)));
+		assert compare("R", gW.tileAt(cell(0, 0, 1)));
+		assert a.getPosition().getZ() == 1 && !a.isFalling();
+	}
+
+	/**
+	 * Makes sure a structure left without any path of support to the ground
+	 * collapses (all of it) in a single clean-up, while anything still grounded
+	 * survives.
+	 */
+	@Test
+	public void test_12() {
+		String mapString =
+				"WW  W" +
+				"~" +
+				"WW  W" +
+				"~" +
+				"WWWW " +
+				"~" +
+				"   W " +
+				"~" +
+				"     ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(4, 0, 2));
+		GameWorld gW = g.getWorld();
+
+		// Still held up by the other leg of the bridge.
+		gW.tileAt(cell(0, 0, 0)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 1);
+
+		assert compare("R", gW.tileAt(cell(0, 0, 0)));
+		assert compare("W", gW.tileAt(cell(0, 0, 1)));
+		assert compare("W", gW.tileAt(cell(3, 0, 3)));
+
+		// Nothing left holding the bridge (or the tower on it) up.
+		gW.tileAt(cell(1, 0, 0)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 1);
+
+		int[][] bridge = { { 0, 1 }, { 1, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 }, { 3, 2 }, { 3, 3 } };
+		for (int[] xz : bridge) assert gW.tileAt(cell(xz[0], 0, xz[1])).getType() != TileType.WALL;
+
+		// The separate (grounded) pillar is untouched.
+		assert compare("W", gW.tileAt(cell(4, 0, 0)));
+		assert compare("W", gW.tileAt(cell(4, 0, 1)));
+
+		// Every destroyed Wall ends up in the Rubble on the ground.
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		int walls = 0;
+		for (int x = 0; x < 4; x++) {
+			for (int z = 0; z < 4; z++) {
+				Tile tile = gW.tileAt(cell(x, 0, z));
+
+				if (tile.getType() == TileType.RUBBLE) walls += ((Rubble) tile).count(TileType.WALL);
+				else assert compare(" ", tile);
+			}
+		}
+		assert walls == 9;
+	}
+
+	/**
+	 * Makes sure the support graph built when a map is loaded follows the rules
+	 * for each <code>TileType</code>: <code>Ladder</code>s hang off
+	 * <code>Wall</code>s beside them, <code>Wall</code>s are braced by
+	 * <code>Wall</code>s beside them (in either axis), but nothing else holds up
+	 * a <code>StairCase</code>, or a <code>Wall</code> from the side.
+	 */
+	@Test
+	public void test_13() {
+		String mapString =
+				"WWWW\n" +
+				"WWWW" +
+				"~" +
+				"WWWW\n" +
+				"WWWW" +
+				"~" +
+				"W  W\n" +
+				"#W>W";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(1, 1, 2));
+		GameWorld gW = g.getWorld();
+
+		// Knock out the Tile beneath each of them in turn.
+		gW.tileAt(cell(0, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		gW.tileAt(cell(2, 0, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		gW.tileAt(cell(3, 1, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		gW.tileAt(cell(0, 1, 1)).die(0, null, gW, new ArrayDeque<Event>());
+		runTicks(g, clock, 1);
+
+		// Hung off the Wall beside it.
+		assert compare("#", gW.tileAt(cell(0, 0, 2)));
+		// Braced by the Wall to the south.
+		assert compare("W", gW.tileAt(cell(3, 1, 2)));
+		// Neither can be held up from the side.
+		assert gW.tileAt(cell(2, 0, 2)).getType() != TileType.STAIRS;
+		assert gW.tileAt(cell(0, 1, 2)).getType() != TileType.WALL;
+	}
+
+	/**
+	 * Makes sure destroyed <code>Tile</code>s are queued to be rubblified by
+	 * their cell: identical <code>Tile</code>s in different cells are each
+	 * rubblified, and a <code>Tile</code> is still only queued once however its
+	 * health changes in the meantime.
+	 */
+	@Test
+	public void test_14() {
+		String mapString =
+				"WWW" +
+				"~" +
+				"WW " +
+				"~" +
+				"   ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(2, 0, 1));
+		GameWorld gW = g.getWorld();
+
+		Tile first = gW.tileAt(cell(0, 0, 1));
+		Tile second = gW.tileAt(cell(1, 0, 1));
+
+		// Not dead yet.
+		assert !gW.requestRubblification(first, null);
+
+		assert first.die(0, null, gW, new ArrayDeque<Event>());
+		assert second.die(0, null, gW, new ArrayDeque<Event>());
+
+		first.damage(10, null);
+		assert !gW.requestRubblification(first, null);
+		assert !gW.requestRubblification(second, null);
+
+		runTicks(g, clock, 1);
+
+		for (int x = 0; x < 2; x++) {
+			assert compare("R", gW.tileAt(cell(x, 0, 1)));
+			assert ((Rubble) gW.tileAt(cell(x, 0, 1))).count(TileType.WALL) == 1;
+		}
+
+		// Rubble can't be rubblified.
+		assert !gW.requestRubblification(gW.tileAt(cell(0, 0, 1)), null);
+	}
+
+	/**
+	 * Makes sure <code>Rubble</code> piles keep count of what they are made of,
+	 * and grow in place when combined with (or absorb) anything else.
+	 */
+	@Test
+	public void test_15() {
+		Position pos = cell(0, 0, 0);
+
+		Rubble pile = new Rubble(new Wall(pos), pos, null);
+		Rubble other = new Rubble(new Ladder(pos, 0), pos, null);
+		other.absorb(new Wall(pos));
+
+		assert pile.count(TileType.WALL) == 1 && pile.getWeight() == 4;
+		assert other.count(TileType.LADDER) == 1 && other.count(TileType.WALL) == 1;
+
+		// Combined in place.
+		assert pile.combine(other) == pile;
+		assert pile.count(TileType.WALL) == 2;
+		assert pile.count(TileType.LADDER) == 1;
+		assert pile.count(TileType.CEILING) == 0;
+		assert pile.getWeight() == 9;
+
+		// The other pile is left as it was.
+		assert other.count(TileType.WALL) == 1 && other.getWeight() == 5;
+
+		// Nothing to add.
+		assert pile.combine(pile) == pile && pile.combine(null) == pile;
+		assert pile.absorb(null) == pile;
+		assert pile.getWeight() == 9 && pile.count(null) == 0;
+	}
+
+	/**
+	 * Makes sure a falling <code>Entity</code> stops being tracked as falling as
+	 * soon as it lands (so it can fall again later).
+	 */
+	@Test
+	public void test_16() {
+		String mapString =
+				"W" +
+				"~" +
+				"W" +
+				"~" +
+				"W" +
+				"~" +
+				" ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 3));
+		GameWorld gW = g.getWorld();
+		GameWorld.DamageField field = (Position centre, double distance) -> 1000;
+
+		Entity a = gW.entityAt(cell(0, 0, 3));
+
+		for (int z = 2; z > 0; z--) {
+			// Knock out the top of the tower from under it.
+			assert gW.carveBox(cell(0, 0, z - 1), cell(0, 0, z), field, null, 0, new ArrayDeque<Event>()) > 0;
+			runTicks(g, clock, 1);
+
+			assert a.isFalling();
+
+			runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+			assert !a.isFalling() && !a.isDead();
+			assert a.getPosition().getZ() == z;
+		}
+	}
+
+	/**
+	 * Makes sure carving out a box or a sphere is clipped to the map, leaves one
+	 * <code>Rubble</code> pile per unbroken run of carved cells in each column
+	 * (at the bottom of the run, so never past a <code>Tile</code> that survived)
+	 * and brings down anything it leaves without support.
+	 */
+	@Test
+	public void test_17() {
+		String mapString =
+				"WWWW" +
+				"~" +
+				"WWWW" +
+				"~" +
+				"W  W";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(2, 0, 2));
+		GameWorld gW = g.getWorld();
+		GameWorld.DamageField field = (Position centre, double distance) -> 1000;
+
+		// Reaches off the west, south and bottom edges of the map.
+		Position offMap = new Position(-5 * Tile.TILE_SIZE, -5 * Tile.TILE_SIZE, -5 * Tile.TILE_SIZE);
+		assert gW.carveBox(offMap, cell(1, 0, 1), field, null, 0, new ArrayDeque<Event>()) == 4;
+
+		for (int x = 0; x < 2; x++) {
+			assert compare(" ", gW.tileAt(cell(x, 0, 1)));
+			assert ((Rubble) gW.tileAt(cell(x, 0, 0))).count(TileType.WALL) == 2;
+		}
+
+		// Reaches off the east, north, south and top edges of the map.
+		assert gW.carveSphere(cell(3, 0, 2), 1.2 * Tile.TILE_SIZE, field, null, 0, new ArrayDeque<Event>()) == 2;
+
+		assert compare(" ", gW.tileAt(cell(3, 0, 2)));
+		assert ((Rubble) gW.tileAt(cell(3, 0, 1))).count(TileType.WALL) == 2;
+		assert compare("W", gW.tileAt(cell(2, 0, 1)));
+
+		// The Wall left hanging over the first hole falls onto the pile in it.
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		for (int z = 1; z < 3; z++) assert compare(" ", gW.tileAt(cell(0, 0, z)));
+		assert ((Rubble) gW.tileAt(cell(0, 0, 0))).count(TileType.WALL) == 3;
+		assert ((Rubble) gW.tileAt(cell(3, 0, 1))).count(TileType.WALL) == 2;
+
+		// Rubble isn't carved again.
+		assert gW.carveBox(offMap, cell(0, 0, 2), field, null, 0, new ArrayDeque<Event>()) == 0;
+		
+		// A Ladder over a Wall (braced by the one beside it) over a StairCase: only
+		// the Wall survives the blast, and stays between the two piles.
+		mapString =
+				"vW" +
+				"~" +
+				"WW" +
+				"~" +
+				"#W" +
+				"~" +
+				"  ";
+		
+		g = startGame(clock, mapString, cell(1, 0, 3));
+		gW = g.getWorld();
+		
+		assert gW.carveBox(cell(0, 0, 0), cell(0, 0, 2), (Position centre, double distance) -> 30, null, 0, new ArrayDeque<Event>()) == 2;
+		
+		assert ((Rubble) gW.tileAt(cell(0, 0, 0))).count(TileType.STAIRS) == 1;
+		assert ((Rubble) gW.tileAt(cell(0, 0, 0))).count(TileType.LADDER) == 0;
+		assert compare("W", gW.tileAt(cell(0, 0, 1)));
+		assert ((Rubble) gW.tileAt(cell(0, 0, 2))).count(TileType.LADDER) == 1;
+		
+		// The upper pile stays on the Wall.
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+		
+		assert compare("W", gW.tileAt(cell(0, 0, 1)));
+		assert ((Rubble) gW.tileAt(cell(0, 0, 2))).count(TileType.LADDER) == 1;
+	}
+
+	/**
+	 * Makes sure <code>Entities</code> that run into each other all die: two
+	 * arriving in the same cell, two swapping cells head-on, three arriving in
+	 * the same cell and one walking into another that is standing still. Nobody
+	 * else is harmed.
+	 */
+	@Test
+	public void test_18() {
+		String mapString =
+				"WWWWWWWW\n" +
+				"WWWWWWWW\n" +
+				"WWWWWWWW" +
+				"~" +
+				"        \n" +
+				"        \n" +
+				"        ";
+
+		Position[] spawns = {
+				// Arriving in the same cell.
+				cell(0, 0, 1), cell(2, 0, 1),
+				// Swapping cells.
+				cell(0, 2, 1), cell(1, 2, 1),
+				// Three arriving in the same cell.
+				cell(5, 0, 1), cell(7, 0, 1), cell(6, 1, 1),
+				// Walking into a stationary Entity.
+				cell(4, 2, 1), cell(5, 2, 1),
+				// Minding their own business.
+				cell(7, 2, 1) };
+		Direction[] moves = {
+				Direction.E, Direction.W,
+				Direction.E, Direction.W,
+				Direction.E, Direction.W, Direction.S,
+				Direction.E, null,
+				null };
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, spawns);
+		GameWorld gW = g.getWorld();
+
+		Entity[] entities = new Entity[spawns.length];
+		for (int i = 0; i < spawns.length; i++) {
+			entities[i] = gW.entityAt(spawns[i]);
+
+			if (moves[i] != null) {
+				assert g.addInput(new EntityMove(clock.currentTimeMillis(), entities[i], moves[i].asVector()));
+			}
+		}
+
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		for (int i = 0; i < spawns.length - 1; i++) {
+			assert entities[i].isDead() && !gW.hasEntity(entities[i]);
+		}
+
+		Entity bystander = entities[spawns.length - 1];
+		assert !bystander.isDead() && gW.entityAt(spawns[spawns.length - 1]) == bystander;
+	}
+
+	/**
+	 * Makes sure dead <code>Entities</code> and destroyed <code>Tile</code>s are
+	 * only dealt with once (and then forgotten about), even while the
+	 * <code>GameWorld</code> is compacting its bookkeeping every tick.
+	 */
+	@Test
+	@Timeout(10)
+	public void test_19() {
+		String mapString =
+				"WWW" +
+				"~" +
+				"  W" +
+				"~" +
+				"   ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 1), cell(1, 0, 1));
+		GameWorld gW = g.getWorld();
+
+		try {
+			gW.setCompaction(0, 0);
+			assert false;
+		} catch (GameError e) {
+			// Expected: it has to compact at some point.
+		}
+		try {
+			gW.setCompaction(1, -1);
+			assert false;
+		} catch (GameError e) {
+			// Expected: no such thing as a negative capacity.
+		}
+
+		gW.setCompaction(1, 0);
+
+		Entity dead = gW.entityAt(cell(0, 0, 1));
+		Entity alive = gW.entityAt(cell(1, 0, 1));
+		Tile wall = gW.tileAt(cell(2, 0, 1));
+
+		assert dead.damage(dead.getHealth(), null);
+		assert gW.requestCorpsification(dead, null) && !gW.requestCorpsification(dead, null);
+		assert wall.die(0, null, gW, new ArrayDeque<Event>());
+		// Already queued by dying.
+		assert !gW.requestRubblification(wall, null);
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		// The corpse has been left in a pile where it died, and forgotten about.
+		assert !gW.hasEntity(dead) && gW.entityAt(cell(0, 0, 1)) == null;
+		assert ((Rubble) gW.tileAt(cell(0, 0, 1))).count(TileType.CORPSE) == 1;
+		assert !gW.requestCorpsification(dead, null);
+
+		// As has the Wall.
+		assert ((Rubble) gW.tileAt(cell(2, 0, 1))).count(TileType.WALL) == 1;
+		assert !gW.requestRubblification(wall, null);
+
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		assert ((Rubble) gW.tileAt(cell(0, 0, 1))).count(TileType.CORPSE) == 1;
+		assert ((Rubble) gW.tileAt(cell(2, 0, 1))).count(TileType.WALL) == 1;
+		assert gW.hasEntity(alive) && !alive.isDead() && !alive.isFalling();
+
+		// Later deaths are still picked up once the requests have been compacted away.
+		assert alive.damage(alive.getHealth(), null);
+		assert gW.requestCorpsification(alive, null);
+		runTicks(g, clock, 1);
+
+		assert !gW.hasEntity(alive);
+		assert ((Rubble) gW.tileAt(cell(1, 0, 1))).count(TileType.CORPSE) == 1;
+	}
+
+	/**
+	 * Checks that <code>Input</code>s submitted from other threads (via
+	 * {@link Game#submitInput(Input)}) are only applied by the next update, and
+	 * then exactly as if they had been added directly.
+	 */
+	@Test
+	public void test_20() throws InterruptedException {
+		String mapString =
+				" W \n" +
+				"   ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 0), cell(2, 0, 0));
+		GameWorld gW = g.getWorld();
+
+		Entity[] players = {gW.entityAt(cell(0, 0, 0)), gW.entityAt(cell(2, 0, 0))};
+
+		// One 'network' thread per Player.
+		Thread[] threads = new Thread[players.length];
+		for (int i = 0; i < players.length; i++) {
+			Entity player = players[i];
+
+			threads[i] = new Thread(() -> g.submitInput(
+					new EntityMove(
+							clock.currentTimeMillis(),
+							player,
+							Direction.N.asVector())));
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) thread.join();
+
+		// Nothing is applied until the Game next updates.
+		for (Entity player : players) assert g.getMove(player) == null;
+
+		g.update(false);
+
+		for (Entity player : players) assert Direction.N.asVector().equals(g.getMove(player));
+	}
+
+	/**
+	 * Makes sure a batch of <code>Input</code>s big enough to be validated in
+	 * parallel (against the <code>Round</code>'s snapshot) has the same outcome
+	 * as adding them one at a time.
+	 */
+	@Test
+	public void test_21() {
+		int width = Game.PARALLEL_BATCH;
+
+		// A Wall over every third cell.
+		StringBuilder north = new StringBuilder(), south = new StringBuilder();
+		for (int x = 0; x < width; x++) {
+			north.append(x % 3 == 0 ? 'W' : ' ');
+			south.append(' ');
+		}
+
+		Position[] cells = new Position[width];
+		for (int x = 0; x < width; x++) cells[x] = cell(x, 0, 0);
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, north + "\n" + south, cells);
+		GameWorld gW = g.getWorld();
+
+		List<Input> batch = new ArrayList<Input>();
+		for (int x = 0; x < width; x++) {
+			batch.add(new EntityMove(clock.currentTimeMillis(), gW.entityAt(cells[x]), Direction.N.asVector()));
+		}
+		// Two for the same Entity (validated one at a time): the second cancels
+		// out the first.
+		batch.add(new EntityMove(clock.currentTimeMillis(), gW.entityAt(cells[1]), Direction.S.asVector()));
+
+		int expected = 0;
+		for (int x = 0; x < width; x++) {
+			if (x % 3 != 0) expected++;
+		}
+
+		assert g.addInputs(batch) == expected + 1;
+
+		for (int x = 0; x < width; x++) {
+			Entity e = gW.entityAt(cells[x]);
+
+			if (x == 1) {
+				assert compare("NONE", g.getMove(e).asEnum());
+			} else if (x % 3 == 0) {
+				assert g.getMove(e) == null;
+			} else {
+				assert Direction.N.asVector().equals(g.getMove(e));
+			}
+		}
+
+		// Later batches are checked against the plans they left behind.
+		assert g.addInputs(batch.subList(0, width)) == 1;
+	}
+
+	/**
+	 * Makes sure <code>Tile</code>s are looked up by the fixed-point
+	 * coordinates of a <code>Position</code>, right up to the edges of each
+	 * <code>Tile</code> (and of the map).
+	 */
+	@Test
+	public void test_22() {
+		Game g = new Game(true, 1);
+		GameWorld gW = g.getWorld();
+
+		assert g.loadMap(new MapData("W "));
+
+		int edge = Position.UNITS_PER_TILE;
+
+		assert compare("W", gW.tileAt(Position.ofFixed(edge - 1, 0, 0)));
+		assert compare(" ", gW.tileAt(Position.ofFixed(edge, 0, 0)));
+		assert compare(" ", gW.tileAt(Position.ofFixed(2 * edge - 1, edge - 1, edge - 1)));
+
+		assert gW.tileAt(Position.ofFixed(-1, 0, 0)) == null && gW.outOfBounds(Position.ofFixed(-1, 0, 0));
+		assert gW.tileAt(Position.ofFixed(2 * edge, 0, 0)) == null && gW.outOfBounds(Position.ofFixed(2 * edge, 0, 0));
+		assert gW.tileAt(Position.ofFixed(0, 0, edge)) == null && gW.outOfBounds(Position.ofFixed(0, 0, edge));
+		assert !gW.outOfBounds(Position.ofFixed(0, edge - 1, 0));
+	}
+
+	/**
+	 * Checks that a body that dies on a <code>Ladder</code> ends up in the
+	 * nearest cell of its column that can hold <code>Rubble</code>, rather than
+	 * vanishing.
+	 */
+	@Test
+	public void test_23() {
+		String mapString =
+				"WW" +
+				"~" +
+				"##" +
+				"~" +
+				" W" +
+				"~" +
+				"  ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(0, 0, 1), cell(1, 0, 1));
+		GameWorld gW = g.getWorld();
+
+		Entity a = gW.entityAt(cell(0, 0, 1));
+		Entity b = gW.entityAt(cell(1, 0, 1));
+
+		assert a.damage(a.getHealth(), null) && gW.requestCorpsification(a, null);
+		assert b.damage(b.getHealth(), null) && gW.requestCorpsification(b, null);
+		runTicks(g, clock, MovementEvent.MOVEMENT_TICKS);
+
+		assert !gW.hasEntity(a) && !gW.hasEntity(b);
+
+		// The Ladders are left as they were.
+		assert gW.tileAt(cell(0, 0, 1)) instanceof Ladder && gW.tileAt(cell(1, 0, 1)) instanceof Ladder;
+
+		// A's body goes straight up; B's has to go past the Wall above it.
+		assert ((Rubble) gW.tileAt(cell(0, 0, 2))).count(TileType.CORPSE) == 1;
+		assert gW.tileAt(cell(1, 0, 2)) instanceof Wall;
+		assert ((Rubble) gW.tileAt(cell(1, 0, 3))).count(TileType.CORPSE) == 1;
+	}
+
+	/**
+	 * Makes sure carving out many <code>Tile</code>s at once leaves every cell
+	 * with the same exits as destroying them one by one, while only telling
+	 * <code>NavigationListener</code>s about each changed cell once.
+	 */
+	@Test
+	public void test_24() {
+		String layer =
+				"WWWWW\n" +
+				"WWWWW\n" +
+				"WWWWW\n" +
+				"WWWWW\n" +
+				"WWWWW";
+		String mapString = layer + "~" + layer + "~" + layer.replace('W', ' ');
+
+		GameWorld.DamageField field = (Position centre, double distance) -> 1000;
+
+		GameWorld batched = startGame(new VirtualClock(), mapString, cell(0, 0, 2)).getWorld();
+		GameWorld oneByOne = startGame(new VirtualClock(), mapString, cell(0, 0, 2)).getWorld();
+
+		List<Integer> changed = new ArrayList<Integer>();
+		batched.addNavigationListener(new GameWorld.NavigationListener() {
+			@Override
+			public void worldLoaded(GameWorld world) {
+			}
+
+			@Override
+			public void exitsChanged(int x, int y, int z) {
+				changed.add((z * 5 + y) * 5 + x);
+			}
+		});
+
+		assert batched.carveBox(cell(1, 1, 1), cell(3, 3, 1), field, null, 0, new ArrayDeque<Event>()) == 9;
+		for (int y = 1; y <= 3; y++) {
+			for (int x = 1; x <= 3; x++) {
+				assert oneByOne.carveBox(cell(x, y, 1), cell(x, y, 1), field, null, 0, new ArrayDeque<Event>()) == 1;
+			}
+		}
+
+		assert !changed.isEmpty();
+		assert changed.size() == new HashSet<Integer>(changed).size();
+
+		for (int z = 0; z < 3; z++) {
+			for (int y = 0; y < 5; y++) {
+				for (int x = 0; x < 5; x++) {
+					assert batched.getExits(x, y, z) == oneByOne.getExits(x, y, z);
+					assert batched.tileAt(cell(x, y, z)).getType() == oneByOne.tileAt(cell(x, y, z)).getType();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes sure bullets find <code>Entities</code> that have finished moving in
+	 * the cells they ended up in (not the ones they left), in order along the
+	 * bullet's path.
+	 */
+	@Test
+	public void test_25() {
+		String mapString =
+				"WWWWW" +
+				"~" +
+				"     " +
+				"~" +
+				"     " +
+				"~" +
+				"     ";
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, cell(1, 0, 3), cell(3, 0, 1));
+		GameWorld gW = g.getWorld();
+
+		Entity a = gW.entityAt(cell(1, 0, 3));
+		Entity b = gW.entityAt(cell(3, 0, 1));
+
+		// 'A' drops to the floor.
+		runTicks(g, clock, 2 * MovementEvent.MOVEMENT_TICKS);
+
+		assert !a.isDead() && !a.isFalling() && a.getPosition().sameTile(cell(1, 0, 1));
+
+		// Straight down through where it fell.
+		Pair<Queue<GameObject>, Queue<Position>> hits = gW.getLineObstructions(cell(1, 0, 3), cell(1, 0, 0));
+
+		assert hits.first().indexOf(a, true) != -1;
+		assert hits.second().get(hits.first().indexOf(a, true)).sameTile(cell(1, 0, 1));
+
+		// Along the floor, past both of them.
+		hits = gW.getLineObstructions(cell(0, 0, 1), cell(4, 0, 1));
+
+		assert hits.first().size == 2;
+		assert hits.first().get(0) == a && hits.second().get(0).sameTile(cell(1, 0, 1));
+		assert hits.first().get(1) == b && hits.second().get(1).sameTile(cell(3, 0, 1));
+	}
+
+	/**
+	 * Makes sure a reload is validated against the ammunition the
+	 * <code>Entity</code> had when the <code>Round</code>'s snapshot was taken,
+	 * not against its <code>Weapon</code> as it is now.
+	 */
+	@Test
+	public void test_26() {
+		// Half empty, and slow to reload.
+		Weapon weapon = new DevWeapon(0, 0, 0, 5, 1, 2, 2, Tile.TILE_SIZE) {
+			{
+				magBullets = 1;
+			}
+		};
+
+		VirtualClock clock = new VirtualClock();
+		Game g = new Game(true, 1, clock);
+
+		assert g.loadMap(new MapData("  \n W"));
+
+		Player p = new Player(g, IDManager.nextID(g), "A", weapon);
+		assert g.addEntity(p, cell(0, 0, 0));
+		assert g.start(100, 0, 0, 1, 0);
+
+		List<Input> reload = new ArrayList<Input>();
+		reload.add(new EntityAction(clock.currentTimeMillis(), p, new Action(ActionType.RELOAD)));
+
+		assert g.addInputs(reload) == 1;
+
+		// Already reloading (behind the snapshot's back).
+		assert weapon.manualReload(g.getRoundNumber());
+		assert !p.canReload();
+
+		assert g.addInputs(reload) == 1;
+
+		// The next Round's snapshot sees it.
+		int round = g.getRoundNumber();
+		do {
+			clock.advanceTo(g.getNextDeadline());
+			g.update(false);
+		} while (g.getRoundNumber() == round || g.getPhase() != Phase.ACCEPTANCE);
+
+		reload.set(0, new EntityAction(clock.currentTimeMillis(), p, new Action(ActionType.RELOAD)));
+		assert g.addInputs(reload) == 0;
+	}
+
+	/**
+	 * Makes sure a collision part-way through a move doesn't make anyone else's
+	 * move go any faster: a bystander moving at the same time follows exactly the
+	 * same path, tick by tick, as it does when moving alone.
+	 */
+	@Test
+	public void test_27() {
+		int[] alone = bystanderPath(false);
+		int[] alongside = bystanderPath(true);
+
+		assert compare(Arrays.toString(alone), Arrays.toString(alongside));
+		assert alone[alone.length - 1] == cell(5, 2, 1).getFixedX();
+	}
+
+	/**
+	 * Makes sure an attack is validated against the state the
+	 * <code>Entity</code>'s <code>Weapon</code> was in when the
+	 * <code>Round</code>'s snapshot was taken, not against its
+	 * <code>Weapon</code> as it is now.
+	 */
+	@Test
+	public void test_28() {
+		// Half empty, and slow to reload.
+		Weapon weapon = new DevWeapon(0, 0, 0, 5, 1, 2, 2, Tile.TILE_SIZE) {
+			{
+				magBullets = 1;
+			}
+		};
+
+		VirtualClock clock = new VirtualClock();
+		Game g = new Game(true, 1, clock);
+
+		assert g.loadMap(new MapData("  \n W"));
+
+		Player p = new Player(g, IDManager.nextID(g), "A", weapon);
+		assert g.addEntity(p, cell(0, 0, 0));
+		assert g.start(100, 0, 0, 1, 0);
+
+		List<Input> fire = new ArrayList<Input>();
+		fire.add(new EntityAction(clock.currentTimeMillis(), p,
+				new Action(ActionType.FIRE, cell(0, 0, 0), cell(0, 1, 0))));
+
+		assert g.addInputs(fire) == 1;
+
+		// Emptied into a reload (behind the snapshot's back).
+		assert weapon.manualReload(g.getRoundNumber());
+		assert !p.canAttack(g, cell(0, 0, 0), cell(0, 1, 0));
+
+		assert g.addInputs(fire) == 1;
+
+		// The next Round's snapshot sees it.
+		int round = g.getRoundNumber();
+		do {
+			clock.advanceTo(g.getNextDeadline());
+			g.update(false);
+		} while (g.getRoundNumber() == round || g.getPhase() != Phase.ACCEPTANCE);
+
+		fire.set(0, new EntityAction(clock.currentTimeMillis(), p,
+				new Action(ActionType.FIRE, cell(0, 0, 0), cell(0, 1, 0))));
+		assert g.addInputs(fire) == 0;
+	}
+
+	/**
+	 * Starts a <code>Game</code> timed by a given <code>VirtualClock</code> on a
+	 * given map, with an (idle) <code>Player</code> at each given location (named
+	 * "A", "B", ...).
+	 */
+	private static Game startGame(VirtualClock clock, String mapString, Position... playersAt) {
+		Game g = new Game(true, 1, clock);
+
+		assert g.loadMap(new MapData(mapString));
+		for (int i = 0; i < playersAt.length; i++) {
+			assert g.addEntity(new Player(g, IDManager.nextID(g), String.valueOf((char) ('A' + i))), playersAt[i]);
+		}
+		assert g.start(100, 0, 0, 1, 0);
+
+		return g;
+	}
+
+	/**
+	 * Runs a given number of ticks of a started <code>Game</code> (waiting out
+	 * each <code>Round</code>'s acceptance phase in virtual time), so that the
+	 * <code>GameWorld</code> is cleaned up once per tick.
+	 */
+	private static void runTicks(Game g, VirtualClock clock, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			do {
+				clock.advanceTo(g.getNextDeadline());
+				g.update(false);
+			} while (g.getPhase() != Phase.ENACTMENT);
+		}
+	}
+
+	/**
+	 * @return the centre of the cell with the given coordinates.
+	 */
+	private static Position cell(int x, int y, int z) {
+		return new Position((x + 0.5) * Tile.TILE_SIZE, (y + 0.5) * Tile.TILE_SIZE, (z + 0.5) * Tile.TILE_SIZE);
+	}
+
+	/**
+	 * Moves a <code>Player</code> one cell east (optionally while two others run
+	 * into each other), recording its fixed-point x-coordinate after every tick
+	 * of the move.
+	 */
+	private static int[] bystanderPath(boolean withCollision) {
+		String mapString =
+				"WWWWWW\n" +
+				"WWWWWW\n" +
+				"WWWWWW" +
+				"~" +
+				"      \n" +
+				"      \n" +
+				"      ";
+
+		Position[] spawns = withCollision
+				? new Position[] { cell(4, 2, 1), cell(0, 0, 1), cell(2, 0, 1) }
+				: new Position[] { cell(4, 2, 1) };
+		Direction[] moves = { Direction.E, Direction.E, Direction.W };
+
+		VirtualClock clock = new VirtualClock();
+		Game g = startGame(clock, mapString, spawns);
+		GameWorld gW = g.getWorld();
+
+		Entity[] entities = new Entity[spawns.length];
+		for (int i = 0; i < spawns.length; i++) {
+			entities[i] = gW.entityAt(spawns[i]);
+			assert g.addInput(new EntityMove(clock.currentTimeMillis(), entities[i], moves[i].asVector()));
+		}
+
+		Entity bystander = entities[0];
+
+		int[] path = new int[MovementEvent.MOVEMENT_TICKS];
+		for (int t = 0; t < path.length; t++) {
+			runTicks(g, clock, 1);
+			path[t] = bystander.getPosition().getFixedX();
+		}
+
+		for (int i = 1; i < entities.length; i++) assert entities[i].isDead();
+
+		return path;
+	}
+
 	private static boolean compare(String desired, Object actual) {
 		if (desired.equals(actual != null ? actual.toString() : ""))
 			return true;
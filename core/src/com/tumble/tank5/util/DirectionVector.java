@@ -13,6 +13,10 @@ import com.tumble.tank5.game_object.tiles.Tile;
  * 
  * Note that  the <code>x</code> <code>y</code> and
  * <code>z</code> fields are limited to values of only -1, 0 or 1.
+ * <p>
+ * There is exactly one (immutable) <code>DirectionVector</code> per
+ * {@link Direction}, so getting, combining and reversing them only looks them
+ * up in tables, and never creates new ones.
  * 
  * @author Tumbl
  *
@@ -24,6 +28,9 @@ public class DirectionVector {
 	 */
 	public final int x, y, z;
 	
+	// The Direction this DirectionVector points in.
+	private final Direction direction;
+	
 	public enum Direction {
 		N,		// North
 		NE,		// North-east
@@ -38,7 +45,7 @@ public class DirectionVector {
 		NONE;	// Stationary
 		
 		public DirectionVector asVector() {
-			return new DirectionVector(this);
+			return VECTORS[ordinal()];
 		}
 
 		public boolean validEntityMove() {
@@ -46,29 +53,66 @@ public class DirectionVector {
 		}
 	}
 
+	// The DirectionVector of each Direction (by ordinal).
+	private static final DirectionVector[] VECTORS;
+	// The DirectionVector with each set of (capped) components, by
+	// componentIndex().
+	private static final DirectionVector[] BY_COMPONENTS;
+	// The reverse of each DirectionVector, and the combination of each pair (by
+	// the ordinals of their Directions).
+	private static final DirectionVector[] REVERSES;
+	private static final DirectionVector[][] COMBINATIONS;
+	
+	static {
+		Direction[] directions = Direction.values();
+		
+		VECTORS = new DirectionVector[directions.length];
+		for (Direction dir : directions) VECTORS[dir.ordinal()] = new DirectionVector(dir);
+		
+		BY_COMPONENTS = new DirectionVector[27];
+		for (int x = -1; x <= 1; x++) {
+			for (int y = -1; y <= 1; y++) {
+				for (int z = -1; z <= 1; z++) {
+					// A vertical component overrides any horizontal ones.
+					BY_COMPONENTS[componentIndex(x, y, z)] = z == 0
+							? VECTORS[toEnum(x, y, 0).ordinal()]
+							: VECTORS[toEnum(0, 0, z).ordinal()];
+				}
+			}
+		}
+		
+		REVERSES = new DirectionVector[directions.length];
+		COMBINATIONS = new DirectionVector[directions.length][directions.length];
+		for (DirectionVector a : VECTORS) {
+			REVERSES[a.direction.ordinal()] = of(-a.x, -a.y, -a.z);
+			
+			for (DirectionVector b : VECTORS) {
+				COMBINATIONS[a.direction.ordinal()][b.direction.ordinal()] = of(a.x + b.x, a.y + b.y, a.z + b.z);
+			}
+		}
+	}
+
 	/**
-	 * Construct a new <code>DirectionVector</code> from the given vector components
+	 * Gets the <code>DirectionVector</code> with the given vector components
 	 * (measured in the number of <code>Tile</code>s to move in each direction).
+	 * Each component is capped to a length of 1, and any change in altitude
+	 * overrides the other two components.
 	 * 
 	 * @param x how many <code>Tile</code>s to move in the east/west direction.
 	 * 
 	 * @param y how many <code>Tile</code>s to move in the north/south direction.
 	 * 
 	 * @param z how many <code>Tile</code>s (i.e., z-layers) to change the altitude.
+	 * 
+	 * @return the (shared) <code>DirectionVector</code>.
 	 */
-	public DirectionVector(int x, int y, int z) {
-		if (Math.abs(z) == 0) {
-			this.x = ensureLength(x);
-			this.y = ensureLength(y);
-			this.z = 0;
-		} else {
-			this.x = 0;
-			this.y = 0;
-			this.z = ensureLength(z);
-		}
+	public static DirectionVector of(int x, int y, int z) {
+		return BY_COMPONENTS[componentIndex(ensureLength(x), ensureLength(y), ensureLength(z))];
 	}
 	
 	private DirectionVector(Direction dir) {
+		direction = dir;
+		
 		switch (dir) {
 		case N:
 			x = 0;
@@ -156,25 +200,26 @@ public class DirectionVector {
 	}
 	
 	/**
-	 * Create a new <code>DirectionVector</code> that is a combination of this
-	 * <code>DirectionVector</code> and another (via
+	 * Gets the <code>DirectionVector</code> that is a combination of this
+	 * <code>DirectionVector</code> and another (as in
 	 * {@link DirectionVector#combine(int, int, int)}).
 	 * 
 	 * @param other - the <code>DirectionVector</code> to combine with this one.
 	 * 
-	 * @return the combined <code>DirectionVector</code>, or a new copy of this
+	 * @return the combined <code>DirectionVector</code>, or this
 	 *         <code>DirectionVector</code> if <code>other</code> was
 	 *         <code>null</code>.
 	 */
 	public DirectionVector combine(DirectionVector other) {
-		if (other == null) return new DirectionVector(x, y, z);
+		if (other == null) return this;
 		
-		return combine(other.x, other.y, other.z);
+		return COMBINATIONS[direction.ordinal()][other.direction.ordinal()];
 	}
 	
 	/**
-	 * Create a new <code>DirectionVector</code> that is a combination of this
-	 * <code>DirectionVector</code> and some given x-, y- and z-components.
+	 * Gets the <code>DirectionVector</code> that is a combination of this
+	 * <code>DirectionVector</code> and some given x-, y- and z-components (as in
+	 * {@link DirectionVector#of(int, int, int)}).
 	 * 
 	 * @param x - the x-component to add (number of <code>Tile</code>s).
 	 * 
@@ -185,20 +230,24 @@ public class DirectionVector {
 	 * @return the combined <code>DirectionVector</code>.
 	 */
 	public DirectionVector combine(int x, int y, int z) {
-		return new DirectionVector(this.x + x, this.y + y, this.z + z);
+		return of(this.x + x, this.y + y, this.z + z);
 	}
 	
 	/**
-	 * Create a new <code>DirectionVector</code> that represents the opposite
+	 * Gets the <code>DirectionVector</code> that represents the opposite
 	 * direction to this one.
 	 * 
 	 * @return the reverse of this <code>DirectionVector</code>.
 	 */
 	public DirectionVector reverse() {
-		return new DirectionVector(-x, -y, -z);
+		return REVERSES[direction.ordinal()];
 	}
 	
 	public Direction asEnum() {
+		return direction;
+	}
+	
+	private static Direction toEnum(int x, int y, int z) {
 		if (z > 0) {
 			return Direction.UP;
 		} else if (z < 0) {
@@ -263,6 +312,14 @@ public class DirectionVector {
 	 * @return a valid version of the component.
 	 */
 	private static int ensureLength(int delta) {
-		return (int) Math.min(Math.abs(delta), 1) * (int) Math.signum(delta);
+		return Integer.signum(delta);
+	}
+	
+	/**
+	 * @return where the <code>DirectionVector</code> with the given (capped)
+	 *         components is in <code>BY_COMPONENTS</code>.
+	 */
+	private static int componentIndex(int x, int y, int z) {
+		return (x + 1) + 3 * (y + 1) + 9 * (z + 1);
 	}
 }
@@ -1,8 +1,7 @@
 package com.tumble.tank5.util;
 
-import com.badlogic.gdx.math.Intersector;
-import com.badlogic.gdx.math.Vector2;
 import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.game_object.tiles.Tile;
 
 public class GameUtils {
 	
@@ -25,10 +24,19 @@ public class GameUtils {
 		return (Math.random() - 0.5)  * magnitude;
 	}
 
-	private static Vector2 v0 = new Vector2();
-	private static Vector2 v1 = new Vector2();
-	private static Vector2 centre = new Vector2();
-	
+	/**
+	 * Checks whether a bullet hits an <code>Entity</code> where it stands (see
+	 * {@link GameUtils#collideSweptCylinderBullet(Position, Position, double, double, Position, Position)}).
+	 * 
+	 * @param entity - the <code>Entity</code> to test.
+	 * 
+	 * @param from   - the start of the bullet's path.
+	 * 
+	 * @param to     - the end of the bullet's path.
+	 * 
+	 * @return <code>true</code> if the bullet hits the <code>Entity</code>'s
+	 *         hit-box, otherwise <code>false</code>.
+	 */
 	public static boolean collideEntityBullet(
 			Entity entity,
 			Position from,
@@ -36,10 +44,147 @@ public class GameUtils {
 		if (entity == null) {
 			return false;
 		}
-		v0.set((float) from.x, (float) from.y);
-		v1.set((float) to.x, (float) to.y);
-		centre.set((float) entity.getPosition().x, (float) entity.getPosition().y);
 		
-		return Intersector.intersectSegmentCircle(v0, v1, centre, entity.getRadius() * entity.getRadius());
+		return collideSweptCylinderBullet(
+				entity.getPosition(),
+				entity.getPosition(),
+				entity.getRadius(),
+				Tile.TILE_SIZE,
+				from,
+				to);
+	}
+	
+	/**
+	 * Checks whether a (straight, instantaneous) bullet passes through the volume
+	 * swept out by an upright cylinder moving in a straight line. The volume is
+	 * treated as the cylinder's horizontal footprint swept along the line (a 2D
+	 * capsule), over the whole height range covered, which is exact for purely
+	 * horizontal or vertical motion (the only kinds there are).
+	 * <br>
+	 * Everything is measured in fixed-point units (see
+	 * {@link Position#getFixedX()}), so the endpoints are exact and only
+	 * clipping the bullet to the cylinder's heights (and the radius) can bring
+	 * in any rounding.
+	 * 
+	 * @param start  - where the centre of the cylinder started.
+	 * 
+	 * @param end    - where the centre of the cylinder ended up.
+	 * 
+	 * @param radius - the radius of the cylinder.
+	 * 
+	 * @param height - the height of the cylinder.
+	 * 
+	 * @param from   - the start of the bullet's path.
+	 * 
+	 * @param to     - the end of the bullet's path.
+	 * 
+	 * @return <code>true</code> if the bullet passes through the swept volume,
+	 *         otherwise <code>false</code>.
+	 */
+	public static boolean collideSweptCylinderBullet(
+			Position start,
+			Position end,
+			double radius,
+			double height,
+			Position from,
+			Position to) {
+		if (start == null || end == null || from == null || to == null) {
+			return false;
+		}
+		
+		double unitsPerWorld = Position.UNITS_PER_TILE / Tile.TILE_SIZE;
+		radius *= unitsPerWorld;
+		height *= unitsPerWorld;
+		
+		// Clip the bullet to the heights the cylinder covered.
+		double bottom = Math.min(start.getFixedZ(), end.getFixedZ()) - height / 2;
+		double top = Math.max(start.getFixedZ(), end.getFixedZ()) + height / 2;
+		int dz = to.getFixedZ() - from.getFixedZ();
+		double t0 = 0, t1 = 1;
+		
+		if (dz == 0) {
+			if (from.getFixedZ() < bottom || from.getFixedZ() > top) return false;
+		} else {
+			double tBottom = (bottom - from.getFixedZ()) / dz;
+			double tTop = (top - from.getFixedZ()) / dz;
+			
+			t0 = Math.max(0, Math.min(tBottom, tTop));
+			t1 = Math.min(1, Math.max(tBottom, tTop));
+			if (t0 > t1) return false;
+		}
+		
+		// Then check how close the clipped bullet gets to the cylinder's path, from above.
+		int dx = to.getFixedX() - from.getFixedX(), dy = to.getFixedY() - from.getFixedY();
+		double ax = from.getFixedX() + t0 * dx, ay = from.getFixedY() + t0 * dy;
+		double bx = from.getFixedX() + t1 * dx, by = from.getFixedY() + t1 * dy;
+		
+		return segmentDistanceSquared(
+				ax, ay, bx, by,
+				start.getFixedX(), start.getFixedY(), end.getFixedX(), end.getFixedY()) <= radius * radius;
+	}
+	
+	/**
+	 * Finds how far along a bullet's path it comes closest to a given point.
+	 * 
+	 * @param point - the point to measure to.
+	 * 
+	 * @param from  - the start of the bullet's path.
+	 * 
+	 * @param to    - the end of the bullet's path.
+	 * 
+	 * @return the fraction of the way from <code>from</code> to <code>to</code>
+	 *         (between 0 and 1) of the closest point of the path.
+	 */
+	public static double bulletParameter(Position point, Position from, Position to) {
+		double dx = to.getFixedX() - from.getFixedX();
+		double dy = to.getFixedY() - from.getFixedY();
+		double dz = to.getFixedZ() - from.getFixedZ();
+		double lengthSquared = dx * dx + dy * dy + dz * dz;
+		if (lengthSquared == 0) return 0;
+		
+		double t = ((point.getFixedX() - from.getFixedX()) * dx
+				+ (point.getFixedY() - from.getFixedY()) * dy
+				+ (point.getFixedZ() - from.getFixedZ()) * dz) / lengthSquared;
+		
+		return Math.max(0, Math.min(1, t));
+	}
+	
+	// The squared distance between the 2D segments a-b and c-d.
+	private static double segmentDistanceSquared(
+			double ax, double ay, double bx, double by,
+			double cx, double cy, double dx, double dy) {
+		double abc = cross(ax, ay, bx, by, cx, cy);
+		double abd = cross(ax, ay, bx, by, dx, dy);
+		double cda = cross(cx, cy, dx, dy, ax, ay);
+		double cdb = cross(cx, cy, dx, dy, bx, by);
+		
+		// Properly crossing.
+		if (((abc > 0 && abd < 0) || (abc < 0 && abd > 0)) && ((cda > 0 && cdb < 0) || (cda < 0 && cdb > 0))) {
+			return 0;
+		}
+		
+		return Math.min(
+				Math.min(
+						pointDistanceSquared(cx, cy, ax, ay, bx, by),
+						pointDistanceSquared(dx, dy, ax, ay, bx, by)),
+				Math.min(
+						pointDistanceSquared(ax, ay, cx, cy, dx, dy),
+						pointDistanceSquared(bx, by, cx, cy, dx, dy)));
+	}
+	
+	// The squared distance from the point p to the 2D segment a-b.
+	private static double pointDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+		double abx = bx - ax, aby = by - ay;
+		double lengthSquared = abx * abx + aby * aby;
+		double t = lengthSquared == 0 ? 0 : ((px - ax) * abx + (py - ay) * aby) / lengthSquared;
+		t = Math.max(0, Math.min(1, t));
+		
+		double ex = ax + t * abx - px, ey = ay + t * aby - py;
+		return ex * ex + ey * ey;
+	}
+	
+	// Which side of the line a-b the point p lies on.
+	private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+		return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
 	}
 }
@@ -1,9 +1,6 @@
 package com.tumble.tank5.util;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.tumble.tank5.world_logic.game_n_world.Game;
 
@@ -17,21 +14,46 @@ import com.tumble.tank5.world_logic.game_n_world.Game;
  * <code>Entity</code>'s server-side ID number, and know for certain that it
  * will either refer to the correct <code>Entity</code>, or instantly and
  * predictably throw an error so that the bad game-state cannot propagate).
+ * <p>
+ * Every <code>Game</code> holds its own <code>IDAllocator</code> (see
+ * {@link Game#getIDAllocator()}), so <code>Game</code>s on different threads
+ * never wait on each other for ID numbers, <code>Game</code>s can be created
+ * (and unregistered once they're finished with) from any thread, and the
+ * <code>IDManager</code> itself never holds on to a <code>Game</code>.
  * 
  * @author Tumbl
  *
  */
 public class IDManager {
-	// The ID number to give to the next Game that gets registered with the
-	// IDManager. Realistically, should never be > 2 (one client-side and
-	// one server-side simultaneously per run of this application).
-	private static int nextGameId = 0;
-	// Keep a record of the Games that have already been registered to avoid
-	// double-ups.
-	private static Set<Game> alreadyRegistered = new HashSet<Game>();
-	// Map from each registered Game to the next ID number to give to the next
-	// Entity that gets registered under the Game.
-	private static Map<Game, Integer> games = new HashMap<Game, Integer>();
+	/**
+	 * The <code>Entity</code> ID numbers of a single <code>Game</code>. For a
+	 * server-side <code>Game</code>, holds the next ID number to give out; for a
+	 * client-side one, the latest external ID number registered. Also records
+	 * whether its <code>Game</code> is registered (or has been unregistered, for
+	 * good). Only the <code>IDManager</code> can use one.
+	 */
+	public static final class IDAllocator {
+		private static final int NEW = 0, REGISTERED = 1, UNREGISTERED = 2;
+
+		private final AtomicInteger latest = new AtomicInteger(0);
+		private final AtomicInteger state = new AtomicInteger(NEW);
+
+		private int next() {
+			return latest.getAndIncrement();
+		}
+
+		private boolean claim(int id) {
+			for (int current = latest.get(); current < id; current = latest.get()) {
+				if (latest.compareAndSet(current, id)) return true;
+			}
+
+			return false;
+		}
+	}
+
+	// The ID number given to the last Game that was registered with the
+	// IDManager (a server may host any number of Games at once).
+	private static final AtomicInteger lastGameId = new AtomicInteger(0);
 
 	/**
 	 * Hidden constructor to prevent instantiation - only the static functionality
@@ -56,16 +78,43 @@ public class IDManager {
 	 * 
 	 * @throws GameError if the given <code>Game</code> is
 	 * <code>null</code> or has already been registered with the
-	 * <code>IDManager</code>.
+	 * <code>IDManager</code> (even if it has since been unregistered).
 	 */
 	public static void registerGame(Game game) {
-		if (game == null || alreadyRegistered.contains(game)) {
+		if (game == null || !game.getIDAllocator().state.compareAndSet(IDAllocator.NEW, IDAllocator.REGISTERED)) {
 			throw new GameError("Cannot register a null or already-registered Game (" + game + ")!");
 		}
 		
-		game.setGameID(++nextGameId);
-		alreadyRegistered.add(game);
-		games.put(game, 0);
+		game.setGameID(lastGameId.incrementAndGet());
+	}
+
+	/**
+	 * Unregisters a finished <code>Game</code>, so that the <code>IDManager</code>
+	 * no longer holds on to it. No more <code>Entity</code> ID numbers can be
+	 * generated or registered under the <code>Game</code> afterwards (and it can't
+	 * be registered again).
+	 * 
+	 * @param game - the <code>Game</code> to unregister.
+	 * 
+	 * @return <code>true</code> if the <code>Game</code> was registered, or
+	 *         <code>false</code> if it was <code>null</code> or not registered.
+	 */
+	public static boolean unregisterGame(Game game) {
+		return game != null
+				&& game.getIDAllocator().state.compareAndSet(IDAllocator.REGISTERED, IDAllocator.UNREGISTERED);
+	}
+
+	/**
+	 * Checks whether a <code>Game</code> is currently registered with the
+	 * <code>IDManager</code>.
+	 * 
+	 * @param game - the <code>Game</code> to check.
+	 * 
+	 * @return <code>true</code> if it is registered, otherwise
+	 *         <code>false</code>.
+	 */
+	public static boolean isRegistered(Game game) {
+		return game != null && game.getIDAllocator().state.get() == IDAllocator.REGISTERED;
 	}
 
 	/**
@@ -87,18 +136,13 @@ public class IDManager {
 	 * client-side or unregistered.
 	 */
 	public static int nextID(Game game) {
-		if (game == null || !games.containsKey(game)) {
-			throw new GameError("Null/unregistered Game (" + game + ") given to IDManager.nextID()!");
-		}
+		IDAllocator ids = allocatorOf(game, "nextID");
+		
 		if (!game.isServer) {
 			throw new GameError("Client-side Games are not permitted to generate their own Entity ID numbers!");
 		}
 
-		int latestID = games.get(game);
-		
-		games.put(game, latestID + 1);
-		
-		return latestID;
+		return ids.next();
 	}
 
 	/**
@@ -119,16 +163,14 @@ public class IDManager {
 	 * <li>the ID number has already been used for the <code>Game</code></li>
 	 */
 	public static void addExternalID(Game game, Integer id) {
-		if (game == null || !games.containsKey(game)) {
-			throw new GameError("Null/unregistered Game (" + game + ") given to IDManager.addExternalID()!");
-		}
+		IDAllocator ids = allocatorOf(game, "addExternalID");
+		
 		if (game.isServer) {
 			throw new GameError("Server-side Games are not permitted to use externally-determined Entity ID numbers!");
 		}
-		if (games.get(game) >= id) {
+		if (!ids.claim(id)) {
 			throw new GameError("External ID (" + id + ") is already in use by " + game + "!");
 		}
-		games.put(game, id);
 	}
 
 	/**
@@ -147,10 +189,18 @@ public class IDManager {
 	 * <code>null</code> or unregistered.
 	 */
 	public static boolean alreadyUsedID(Game game, int id) {
-		if (game == null || !games.containsKey(game)) {
-			throw new GameError("Null/unregistered Game (" + game + ") given to IDManager.alreadyUsedID()!");
-		}
+		IDAllocator ids = allocatorOf(game, "alreadyUsedID");
 
-		return id + (game.isServer ? 1 : 0) < games.get(game);
+		return id + (game.isServer ? 1 : 0) < ids.latest.get();
+	}
+
+	private static IDAllocator allocatorOf(Game game, String method) {
+		IDAllocator ids = game == null ? null : game.getIDAllocator();
+		
+		if (ids == null || ids.state.get() != IDAllocator.REGISTERED) {
+			throw new GameError("Null/unregistered Game (" + game + ") given to IDManager." + method + "()!");
+		}
+		
+		return ids;
 	}
 }
@@ -9,18 +9,47 @@ import com.tumble.tank5.game_object.tiles.Tile;
  * '<code>Tile</code>-coordinates' in that <code>Tile</code>-coordinates are a
  * special subset of world-coordinates (ones that have only integral components,
  * corresponding to the centre of a <code>Tile</code>).
+ * <p>
+ * Each coordinate is held in fixed point, as a whole number of
+ * {@link Position#UNITS_PER_TILE}ths of a <code>Tile</code>, fine enough that
+ * every step of a movement (see {@link Position#step(DirectionVector, int)})
+ * and every <code>Tile</code> centre lands exactly on a unit. Movement, falling
+ * and finding which <code>Tile</code> a <code>Position</code> is in are all done
+ * in integers, so they never build up rounding errors, and give the same
+ * results on every machine. The world-coordinates are worked out from these.
  * 
  * @author Tumble
  *
  */
 public class Position {
+	/**
+	 * The number of fixed-point units in the width of a <code>Tile</code> (two
+	 * per step of a movement, so that <code>Tile</code> centres are whole units
+	 * too).
+	 */
+	public static final int UNITS_PER_TILE = 2 * MovementEvent.MOVEMENT_TICKS;
+	/**
+	 * The number of fixed-point units moved in each step of a movement.
+	 */
+	public static final int UNITS_PER_STEP = UNITS_PER_TILE / MovementEvent.MOVEMENT_TICKS;
+	
+	// How close (in units) a world-coordinate must be to a whole unit to be
+	// treated as exactly on it (so converting a Position's own world-coordinates
+	// back never loses a unit).
+	private static final double UNIT_TOLERANCE = 1e-9;
+	
 	/**
 	 * The world-coordinates of the <code>Position</code>.
 	 */
 	public final double x, y, z;
 	
+	// The fixed-point coordinates of the Position (in units).
+	private final int fixedX, fixedY, fixedZ;
+	
 	/**
-	 * Constructs a new <code>Position</code> from some given world-coordinates.
+	 * Constructs a new <code>Position</code> from some given world-coordinates
+	 * (rounded down to the nearest fixed-point unit, so that it is always in the
+	 * same <code>Tile</code> as the world-coordinates).
 	 * 
 	 * @param x - the x-coordinate (east/west location) of the
 	 *          <code>Position</code>.
@@ -32,9 +61,56 @@ public class Position {
 	 *          <code>Position</code>.
 	 */
 	public Position(double x, double y, double z) {
-		this.x = x;
-		this.y = y;
-		this.z = z;
+		this(toUnits(x), toUnits(y), toUnits(z));
+	}
+	
+	private Position(int fixedX, int fixedY, int fixedZ) {
+		this.fixedX = fixedX;
+		this.fixedY = fixedY;
+		this.fixedZ = fixedZ;
+		
+		x = toWorld(fixedX);
+		y = toWorld(fixedY);
+		z = toWorld(fixedZ);
+	}
+	
+	/**
+	 * Gets the <code>Position</code> at some given fixed-point coordinates.
+	 * 
+	 * @param fixedX - the x-coordinate (in units).
+	 * 
+	 * @param fixedY - the y-coordinate (in units).
+	 * 
+	 * @param fixedZ - the z-coordinate (in units).
+	 * 
+	 * @return the new <code>Position</code>.
+	 */
+	public static Position ofFixed(int fixedX, int fixedY, int fixedZ) {
+		return new Position(fixedX, fixedY, fixedZ);
+	}
+	
+	/**
+	 * @return the fixed-point x-coordinate of this <code>Position</code> (in
+	 *         units).
+	 */
+	public int getFixedX() {
+		return fixedX;
+	}
+	
+	/**
+	 * @return the fixed-point y-coordinate of this <code>Position</code> (in
+	 *         units).
+	 */
+	public int getFixedY() {
+		return fixedY;
+	}
+	
+	/**
+	 * @return the fixed-point z-coordinate of this <code>Position</code> (in
+	 *         units).
+	 */
+	public int getFixedZ() {
+		return fixedZ;
 	}
 	
 	/**
@@ -47,7 +123,7 @@ public class Position {
 	 *         <code>Tile</code>-sized units).
 	 */
 	public int getX() {
-		return (int) Math.floor(x / Tile.TILE_SIZE);
+		return Math.floorDiv(fixedX, UNITS_PER_TILE);
 	}
 	
 	/**
@@ -60,7 +136,7 @@ public class Position {
 	 *         <code>Tile</code>-sized units).
 	 */
 	public int getY() {
-		return (int) Math.floor(y / Tile.TILE_SIZE);
+		return Math.floorDiv(fixedY, UNITS_PER_TILE);
 	}
 	
 	/**
@@ -73,18 +149,29 @@ public class Position {
 	 *         <code>Tile</code>-sized units).
 	 */
 	public int getZ() {
-		return (int) Math.floor(z / Tile.TILE_SIZE);
+		return Math.floorDiv(fixedZ, UNITS_PER_TILE);
 	}
 	
 	public Position step(DirectionVector.Direction dir, int numTimes) {
 		return step(dir.asVector(), numTimes);
 	}
 	
+	/**
+	 * Returns a new <code>Position</code> that has been moved from the location of
+	 * this <code>Position</code> by a number of steps (each
+	 * 1/{@link MovementEvent#MOVEMENT_TICKS} of a <code>Tile</code>) in a given
+	 * direction.
+	 * 
+	 * @param dir      - the <code>DirectionVector</code> to step in.
+	 * 
+	 * @param numTimes - the number of steps to take.
+	 * 
+	 * @return the moved <code>Position</code>.
+	 */
 	public Position step(DirectionVector dir, int numTimes) {
-		return new Position(
-				x + dir.getX() * numTimes / MovementEvent.MOVEMENT_TICKS,
-				y + dir.getY() * numTimes / MovementEvent.MOVEMENT_TICKS,
-				z + dir.getZ() * numTimes / MovementEvent.MOVEMENT_TICKS);
+		int units = numTimes * UNITS_PER_STEP;
+		
+		return new Position(fixedX + dir.x * units, fixedY + dir.y * units, fixedZ + dir.z * units);
 	}
 	
 	public Position move(DirectionVector.Direction dir) {
@@ -102,20 +189,34 @@ public class Position {
 	 * @return the moved <code>Position</code>.
 	 */
 	public Position move(DirectionVector dir) {
-		return new Position(x + dir.getX(), y + dir.getY(), z + dir.getZ());
+		return new Position(
+				fixedX + dir.x * UNITS_PER_TILE,
+				fixedY + dir.y * UNITS_PER_TILE,
+				fixedZ + dir.z * UNITS_PER_TILE);
 	}
 	
 	public Position tileCentre() {
 		return new Position(
-				(getX() + 0.5) * Tile.TILE_SIZE,
-				(getY() + 0.5) * Tile.TILE_SIZE,
-				(getZ() + 0.5) * Tile.TILE_SIZE);
+				getX() * UNITS_PER_TILE + UNITS_PER_TILE / 2,
+				getY() * UNITS_PER_TILE + UNITS_PER_TILE / 2,
+				getZ() * UNITS_PER_TILE + UNITS_PER_TILE / 2);
 	}
 	
 	public boolean sameTile(Position other) {
 		return other != null && getX() == other.getX() && getY() == other.getY() && getZ() == other.getZ();
 	}
 	
+	private static int toUnits(double world) {
+		double units = world * UNITS_PER_TILE / Tile.TILE_SIZE;
+		double nearest = Math.rint(units);
+		
+		return (int) (Math.abs(units - nearest) < UNIT_TOLERANCE ? nearest : Math.floor(units));
+	}
+	
+	private static double toWorld(int units) {
+		return (double) units * Tile.TILE_SIZE / UNITS_PER_TILE;
+	}
+	
 	@Override
 	public String toString() {
 		return "(" + getX() + ", " + getY() + ", " + getZ() + ")";
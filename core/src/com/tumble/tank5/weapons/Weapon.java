@@ -116,11 +116,66 @@ public abstract class Weapon {
 	}
 
 	public final boolean ableToFire(int currentRound) {
-		return !isReloading && magBullets > 0 && currentRound - lastFire >= cooldown;
+		return ableToFire(currentRound, isReloading, magBullets, lastFire);
+	}
+
+	/**
+	 * Checks whether this <code>Weapon</code> could have been fired in a
+	 * <code>Round</code>, given its state at some earlier point (e.g., when a
+	 * <code>RoundSnapshot</code> was taken).
+	 * 
+	 * @param currentRound - the number of the <code>Round</code> to fire in.
+	 * 
+	 * @param reloading    - whether it was reloading.
+	 * 
+	 * @param magBullets   - the shots that were left in its magazine.
+	 * 
+	 * @param lastFire     - the number of the <code>Round</code> it was last
+	 *                     fired in.
+	 * 
+	 * @return <code>true</code> if it could have been fired, otherwise
+	 *         <code>false</code>.
+	 */
+	public final boolean ableToFire(int currentRound, boolean reloading, int magBullets, int lastFire) {
+		return !reloading && magBullets > 0 && currentRound - lastFire >= cooldown;
 	}
 
 	public final boolean ableToReload() {
-		return !isReloading && magBullets < magSize && reserveBullets > 0;
+		return ableToReload(isReloading, magBullets, reserveBullets);
+	}
+
+	/**
+	 * Checks whether this <code>Weapon</code> could have been reloaded, given
+	 * its ammunition at some earlier point (e.g., when a
+	 * <code>RoundSnapshot</code> was taken).
+	 * 
+	 * @param reloading      - whether it was already reloading.
+	 * 
+	 * @param magBullets     - the shots that were left in its magazine.
+	 * 
+	 * @param reserveBullets - the shots that were left in reserve.
+	 * 
+	 * @return <code>true</code> if it could have been reloaded, otherwise
+	 *         <code>false</code>.
+	 */
+	public final boolean ableToReload(boolean reloading, int magBullets, int reserveBullets) {
+		return !reloading && magBullets < magSize && reserveBullets > 0;
+	}
+
+	public final boolean isReloading() {
+		return isReloading;
+	}
+
+	public final int getMagBullets() {
+		return magBullets;
+	}
+
+	public final int getReserveBullets() {
+		return reserveBullets;
+	}
+
+	public final int getLastFire() {
+		return lastFire;
 	}
 	
 	public boolean isInRange(Position from, Position to) {
@@ -0,0 +1,43 @@
+package com.tumble.tank5.world_logic;
+
+import com.tumble.tank5.world_logic.game_n_world.Game;
+
+/**
+ * The source of the current time for a <code>Game</code> and its
+ * <code>Round</code>s. Real matches use {@link GameClock#SYSTEM}, whereas
+ * headless simulations can pass a {@link VirtualClock} to
+ * {@link Game#Game(boolean, int, GameClock)} so that time only passes when the
+ * simulation says so.
+ *
+ * @author Tumbl
+ *
+ */
+public interface GameClock {
+	/**
+	 * The wall-clock time (via {@link System#currentTimeMillis()}, with
+	 * {@link System#nanoTime()} filling in the time since the last millisecond).
+	 */
+	GameClock SYSTEM = new SystemClock();
+
+	/**
+	 * Gets the current time according to this <code>GameClock</code>.
+	 *
+	 * @return the current time, in milliseconds.
+	 */
+	long currentTimeMillis();
+
+	/**
+	 * Gets the current time according to this <code>GameClock</code> to the
+	 * nanosecond, so that a wait for a (millisecond) deadline can end as soon as
+	 * {@link GameClock#currentTimeMillis()} reaches it, rather than up to a
+	 * millisecond later. Always in the same millisecond as
+	 * {@link GameClock#currentTimeMillis()}.
+	 *
+	 * @return the current time, in nanoseconds (by default, the start of the
+	 *         current millisecond - exact for clocks that only ever move in whole
+	 *         milliseconds, like <code>VirtualClock</code>).
+	 */
+	default long currentTimeNanos() {
+		return currentTimeMillis() * 1_000_000;
+	}
+}
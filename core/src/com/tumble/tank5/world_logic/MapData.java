@@ -69,7 +69,7 @@ public final class MapData {
 			if (rows.length != dimensions[1]) return false;
 
 			for (int y = rows.length - 1; y >= 0; y--) {
-				if (rows[y].length() != dimensions[2] || rows[y].length() == 0)
+				if (rows[y].length() != dimensions[0] || rows[y].length() == 0)
 					return false;
 
 			}			
@@ -33,6 +33,8 @@ public class Round {
 	
 	private long startTime;
 	private boolean started;
+	// The clock of the Game this Round was started under.
+	private GameClock clock;
 
 	/**
 	 * Constructs a new <code>Round</code> (the first in a series) from the given
@@ -118,7 +120,8 @@ public class Round {
 		if (started || game == null || !game.isServer || !game.isCurrentRound(this))
 			return -1;
 		
-		startTime = System.currentTimeMillis();
+		clock = game.getClock();
+		startTime = clock.currentTimeMillis();
 		started = true;
 		
 		return startTime;
@@ -145,6 +148,7 @@ public class Round {
 			return false;
 
 		this.startTime = startTime;
+		clock = game.getClock();
 		started = true;
 		return true;
 	}
@@ -169,11 +173,23 @@ public class Round {
 	 *         <code>false</code>).
 	 */
 	public boolean isFinished() {
-		return started && System.currentTimeMillis() - startTime >= duration;
+		return started && clock.currentTimeMillis() - startTime >= duration;
 	}
 	
 	public long getFinishTime() {
-		return isFinished() ? startTime + duration * 1000l: -1;
+		return isFinished() ? startTime + duration : -1;
+	}
+	
+	/**
+	 * Gets the time at which this <code>Round</code> will stop (or stopped)
+	 * accepting <code>Input</code>s, according to the clock of the
+	 * <code>Game</code> it was started under.
+	 * 
+	 * @return the start time + duration of this <code>Round</code>, or -1 if it
+	 *         hasn't been started yet.
+	 */
+	public long getDeadline() {
+		return started ? startTime + duration : -1;
 	}
 	
 	/**
@@ -0,0 +1,54 @@
+package com.tumble.tank5.world_logic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The wall clock (see {@link GameClock#SYSTEM}). The time within the current
+ * millisecond is worked out from {@link System#nanoTime()}, and is pulled back
+ * into line whenever the two clocks are seen to disagree (so it never disagrees
+ * with {@link System#currentTimeMillis()} about which millisecond it is). It
+ * starts out lined up with the beginning of the millisecond it was constructed
+ * in, and is corrected by however late that was the first time the millisecond
+ * clock is seen to tick over.
+ *
+ * @author Tumbl
+ *
+ */
+final class SystemClock implements GameClock {
+	private static final long NANOS_PER_MILLI = 1_000_000;
+
+	// What to add to System.nanoTime() to get the wall-clock time in nanoseconds.
+	private final AtomicLong offset;
+
+	SystemClock() {
+		offset = new AtomicLong(System.currentTimeMillis() * NANOS_PER_MILLI - System.nanoTime());
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public long currentTimeNanos() {
+		long millis = System.currentTimeMillis();
+		long seen = offset.get();
+		long nanos = System.nanoTime() + seen;
+
+		long start = millis * NANOS_PER_MILLI, end = start + NANOS_PER_MILLI - 1;
+
+		// Only correct the offset this one was worked out from: if another thread
+		// has already corrected it, that was from a reading at least as recent.
+		if (nanos < start) {
+			// Behind: the millisecond has only just ticked over.
+			offset.compareAndSet(seen, seen + (start - nanos));
+			nanos = start;
+		} else if (nanos > end) {
+			// Ahead: the millisecond is about to tick over.
+			offset.compareAndSet(seen, seen - (nanos - end));
+			nanos = end;
+		}
+
+		return nanos;
+	}
+}
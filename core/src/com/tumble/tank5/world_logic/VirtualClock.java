@@ -0,0 +1,55 @@
+package com.tumble.tank5.world_logic;
+
+/**
+ * A <code>GameClock</code> whose time only moves forward when it is told to
+ * (via {@link VirtualClock#advance(long)} or
+ * {@link VirtualClock#advanceTo(long)}). Lets a <code>Game</code> be simulated
+ * as fast as the CPU allows, rather than in real time.
+ *
+ * @author Tumbl
+ *
+ */
+public class VirtualClock implements GameClock {
+	private long now;
+
+	/**
+	 * Constructs a new <code>VirtualClock</code> starting at time 0.
+	 */
+	public VirtualClock() {
+		this(0);
+	}
+
+	/**
+	 * Constructs a new <code>VirtualClock</code> starting at a given time.
+	 *
+	 * @param startTime - the time (in milliseconds) the clock should start at.
+	 */
+	public VirtualClock(long startTime) {
+		now = startTime;
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return now;
+	}
+
+	/**
+	 * Moves this clock forward by a given amount of time.
+	 *
+	 * @param millis - how many milliseconds to advance by. Values <= 0 have no
+	 *               effect (time can't go backwards!).
+	 */
+	public void advance(long millis) {
+		if (millis > 0) now += millis;
+	}
+
+	/**
+	 * Moves this clock forward to a given time, if that time hasn't already
+	 * passed.
+	 *
+	 * @param time - the time (in milliseconds) to advance to.
+	 */
+	public void advanceTo(long time) {
+		if (time > now) now = time;
+	}
+}
@@ -0,0 +1,187 @@
+package com.tumble.tank5.world_logic.game_n_world;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.util.GameError;
+
+/**
+ * The handles a <code>GameWorld</code> gives its <code>Entities</code> (see
+ * {@link GameWorld#getHandle(Entity)}). A handle packs a slot index (which is
+ * dense - every slot below {@link GameWorld#getHandleCapacity()} is either in
+ * use or waiting to be reused) together with the slot's generation, which goes
+ * up every time the slot is freed. The slot of a dead <code>Entity</code> is
+ * reused for the next one spawned, but any handle still held for the dead
+ * <code>Entity</code> is then stale, and resolves to <code>null</code> rather
+ * than to whoever has its slot now.
+ * <p>
+ * Per-<code>Entity</code> tables can therefore be plain arrays indexed by
+ * {@link EntityHandles#index(int)}, which stay as small as the most
+ * <code>Entities</code> there have been at once (rather than growing with
+ * every <code>Entity</code> ID ever given out). The handle of each
+ * <code>Entity</code> is found by its ID, so nothing about any
+ * <code>GameWorld</code> has to be kept on the <code>Entity</code> itself.
+ *
+ * @author Tumbl
+ *
+ */
+public final class EntityHandles {
+	/**
+	 * A handle that never refers to any <code>Entity</code>.
+	 */
+	public static final int NONE = 0;
+	/**
+	 * The number of low bits of a handle holding its slot index.
+	 */
+	public static final int INDEX_BITS = 20;
+	/**
+	 * The most <code>Entities</code> a <code>GameWorld</code> can hold at once.
+	 */
+	public static final int MAX_ENTITIES = 1 << INDEX_BITS;
+
+	private static final int INDEX_MASK = MAX_ENTITIES - 1;
+	// Generations run from 1 up to this (then wrap back to 1), so no handle is
+	// ever NONE (or negative).
+	private static final int MAX_GENERATION = (1 << (Integer.SIZE - 1 - INDEX_BITS)) - 1;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Entity[] slots = new Entity[INITIAL_CAPACITY];
+	// The current generation of each slot.
+	private int[] generations = new int[INITIAL_CAPACITY];
+	// The slots below the high-water mark that are free (reused last-freed first).
+	private final IntArray free = new IntArray();
+	private int highWater = 0;
+	// The handle of each Entity in a slot, by its ID.
+	private final IntIntMap byID = new IntIntMap();
+
+	EntityHandles() {
+		Arrays.fill(generations, 1);
+	}
+
+	/**
+	 * @return the slot index a handle refers to (only meaningful if the handle
+	 *         isn't {@link EntityHandles#NONE}).
+	 */
+	public static int index(int handle) {
+		return handle & INDEX_MASK;
+	}
+
+	/**
+	 * @return the generation of the slot a handle was given out in.
+	 */
+	public static int generation(int handle) {
+		return handle >>> INDEX_BITS;
+	}
+
+	private static int pack(int index, int generation) {
+		return (generation << INDEX_BITS) | index;
+	}
+
+	/**
+	 * Gives an <code>Entity</code> a free slot.
+	 *
+	 * @param e - the <code>Entity</code>.
+	 *
+	 * @return its handle.
+	 *
+	 * @throws GameError if every slot is in use.
+	 */
+	int acquire(Entity e) {
+		int index;
+
+		if (free.size > 0) {
+			index = free.pop();
+		} else {
+			if (highWater == MAX_ENTITIES) {
+				throw new GameError("A GameWorld can't hold more than " + MAX_ENTITIES + " Entities!");
+			}
+
+			if (highWater == slots.length) {
+				int capacity = Math.min(slots.length * 2, MAX_ENTITIES);
+
+				slots = Arrays.copyOf(slots, capacity);
+				generations = Arrays.copyOf(generations, capacity);
+				Arrays.fill(generations, highWater, capacity, 1);
+			}
+
+			index = highWater++;
+		}
+
+		slots[index] = e;
+
+		int handle = pack(index, generations[index]);
+		byID.put(e.getID(), handle);
+		return handle;
+	}
+
+	/**
+	 * Frees the slot a handle refers to, making every copy of the handle stale.
+	 *
+	 * @param handle - the handle to free.
+	 *
+	 * @return <code>true</code> if the slot was freed, or <code>false</code> if
+	 *         the handle was already stale.
+	 */
+	boolean release(int handle) {
+		if (resolve(handle) == null) return false;
+
+		int index = index(handle);
+
+		byID.remove(slots[index].getID(), NONE);
+		slots[index] = null;
+		generations[index] = generations[index] == MAX_GENERATION ? 1 : generations[index] + 1;
+		free.add(index);
+
+		return true;
+	}
+
+	/**
+	 * Frees every slot in use (keeping the slots themselves for reuse).
+	 */
+	void clear() {
+		for (int index = 0; index < highWater; index++) {
+			if (slots[index] != null) release(pack(index, generations[index]));
+		}
+	}
+
+	/**
+	 * @return the handle of an <code>Entity</code>, or
+	 *         {@link EntityHandles#NONE} if it isn't in a slot.
+	 */
+	int handleOf(Entity e) {
+		int handle = byID.get(e.getID(), NONE);
+
+		return resolve(handle) == e ? handle : NONE;
+	}
+
+	/**
+	 * @return the <code>Entity</code> a handle refers to, or <code>null</code> if
+	 *         the handle is stale (or {@link EntityHandles#NONE}).
+	 */
+	Entity resolve(int handle) {
+		int index = index(handle);
+
+		if (handle <= NONE || index >= highWater || generations[index] != generation(handle)) return null;
+
+		return slots[index];
+	}
+
+	/**
+	 * @return the <code>Entity</code> in a slot, or <code>null</code> if the
+	 *         slot is free.
+	 */
+	Entity inSlot(int index) {
+		return slots[index];
+	}
+
+	/**
+	 * @return the number of slots that have ever been used (every slot index is
+	 *         below this).
+	 */
+	int capacity() {
+		return highWater;
+	}
+}
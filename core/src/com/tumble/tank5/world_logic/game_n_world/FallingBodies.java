@@ -0,0 +1,132 @@
+package com.tumble.tank5.world_logic.game_n_world;
+
+import java.util.Arrays;
+
+import com.tumble.tank5.game_object.entities.Entity;
+
+/**
+ * The <code>GameObject</code>s currently falling in a <code>GameWorld</code>,
+ * stored as parallel arrays (one slot per falling body) so that gravity can be
+ * applied by iterating densely over just the bodies in the air. A body is
+ * removed (by swapping the last body into its slot) as soon as it lands, and
+ * each <code>GameObject</code> remembers its own slot, so adding, finding and
+ * removing a body are all O(1).
+ *
+ * @author Tumbl
+ *
+ */
+final class FallingBodies {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private GameObject[] bodies = new GameObject[INITIAL_CAPACITY];
+	// The altitude (foot z-coordinate) each body started falling from.
+	private int[] startAltitudes = new int[INITIAL_CAPACITY];
+	// The last Entity each body crushed in its current layer (so it isn't crushed
+	// twice on the way through).
+	private Entity[] lastCrushed = new Entity[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	/**
+	 * Starts a <code>GameObject</code> falling (if it isn't already).
+	 *
+	 * @param gO            - the <code>GameObject</code> to drop.
+	 *
+	 * @param startAltitude - the altitude it is falling from (as a fixed-point
+	 *                      z-coordinate, see {@link com.tumble.tank5.util.Position#getFixedZ()}).
+	 *
+	 * @return <code>true</code> if the <code>GameObject</code> was added, or
+	 *         <code>false</code> if it was already falling.
+	 */
+	boolean add(GameObject gO, int startAltitude) {
+		if (contains(gO)) return false;
+
+		if (size == bodies.length) {
+			int capacity = size * 2;
+
+			bodies = Arrays.copyOf(bodies, capacity);
+			startAltitudes = Arrays.copyOf(startAltitudes, capacity);
+			lastCrushed = Arrays.copyOf(lastCrushed, capacity);
+		}
+
+		bodies[size] = gO;
+		startAltitudes[size] = startAltitude;
+		lastCrushed[size] = null;
+
+		gO.fallingIndex = size++;
+		return true;
+	}
+
+	/**
+	 * Stops the body in a given slot falling, and moves the last body into its
+	 * slot.
+	 *
+	 * @param index - the slot of the body that has landed.
+	 */
+	void remove(int index) {
+		GameObject gO = bodies[index];
+		gO.fallingIndex = -1;
+
+		size--;
+		if (index != size) {
+			bodies[index] = bodies[size];
+			startAltitudes[index] = startAltitudes[size];
+			lastCrushed[index] = lastCrushed[size];
+
+			bodies[index].fallingIndex = index;
+		}
+
+		bodies[size] = null;
+		lastCrushed[size] = null;
+	}
+
+	boolean contains(GameObject gO) {
+		return gO != null && gO.fallingIndex != -1 && gO.fallingIndex < size && bodies[gO.fallingIndex] == gO;
+	}
+
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			bodies[i].fallingIndex = -1;
+
+			bodies[i] = null;
+			lastCrushed[i] = null;
+		}
+
+		size = 0;
+	}
+
+	/**
+	 * Cuts the arrays back down to a given capacity (or the number of bodies
+	 * falling, if that is more), if they have grown past it.
+	 *
+	 * @param capacity - the capacity to keep.
+	 */
+	void compact(int capacity) {
+		capacity = Math.max(Math.max(capacity, size), INITIAL_CAPACITY);
+		if (bodies.length <= capacity) return;
+
+		bodies = Arrays.copyOf(bodies, capacity);
+		startAltitudes = Arrays.copyOf(startAltitudes, capacity);
+		lastCrushed = Arrays.copyOf(lastCrushed, capacity);
+	}
+
+	int size() {
+		return size;
+	}
+
+	GameObject body(int index) {
+		return bodies[index];
+	}
+
+	int startAltitude(int index) {
+		return startAltitudes[index];
+	}
+
+	Entity lastCrushed(int index) {
+		return lastCrushed[index];
+	}
+
+	void setLastCrushed(int index, Entity crushed) {
+		lastCrushed[index] = crushed;
+	}
+}
@@ -1,10 +1,16 @@
 package com.tumble.tank5.world_logic.game_n_world;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.tumble.tank5.events.DeathEvent;
 import com.tumble.tank5.events.Event;
@@ -21,9 +27,11 @@ import com.tumble.tank5.util.GameError;
 import com.tumble.tank5.util.IDManager;
 import com.tumble.tank5.util.Pair;
 import com.tumble.tank5.util.Position;
+import com.tumble.tank5.world_logic.GameClock;
 import com.tumble.tank5.world_logic.GodEntity;
 import com.tumble.tank5.world_logic.MapData;
 import com.tumble.tank5.world_logic.Round;
+import com.tumble.tank5.world_logic.VirtualClock;
 import com.tumble.tank5.util.DirectionVector;
 
 /**
@@ -43,6 +51,8 @@ public class Game {
 	// already been registered under a gameID of 0 with the IDManager before it has
 	// been registered.
 	private boolean isRegistered = false;
+	// The ID numbers of this Game's Entities (see IDManager).
+	private final IDManager.IDAllocator entityIDs = new IDManager.IDAllocator();
 	
 	private GodEntity god;
 
@@ -59,6 +69,11 @@ public class Game {
 	
 	private Phase phase;
 	private long patienceStart;
+	
+	private final GameClock clock;
+	// Whether to skip ahead in (virtual) time whenever there is nothing left to
+	// wait for. Only possible with a VirtualClock.
+	private boolean fastForward = false;
 
 	private long startTime;
 	private boolean started = false;
@@ -66,8 +81,24 @@ public class Game {
 	private Round round;
 	private int patienceWait, tickNumber;
 	
-	private Map<Entity, DirectionVector> moves;
-	private Map<Entity, Action> actions;
+	// Each Entity's planned move and action, and whether it has had an Input
+	// accepted during the current Round, by the slot index of its handle in the
+	// GameWorld (see EntityHandles.index()).
+	private DirectionVector[] moves = new DirectionVector[0];
+	private Action[] actions = new Action[0];
+	private boolean[] submitted = new boolean[0];
+	// The living Entities as they were when this Round started taking Inputs
+	// (taken by the first batch to need it, and dropped at the end of the Round).
+	private RoundSnapshot snapshot;
+	/**
+	 * The smallest batch of <code>Input</code>s worth validating in parallel (see
+	 * {@link Game#addInputs(Collection)}).
+	 */
+	public static final int PARALLEL_BATCH = 32;
+	
+	// Inputs submitted from any thread, waiting for the next update() to apply
+	// them (lock-free, so network threads never wait on the game thread).
+	private final Queue<Input> pendingInputs = new ConcurrentLinkedQueue<Input>();
 
 	private PriorityQueue<Event> events;
 
@@ -88,7 +119,34 @@ public class Game {
 	 * @throws GameError if <code>minPlayers</code> <= 0.
 	 */
 	public Game(boolean isServer, int minPlayers) {
+		this(isServer, minPlayers, GameClock.SYSTEM);
+	}
+	
+	/**
+	 * Constructs a new <code>Game</code> (as in {@link Game#Game(boolean, int)})
+	 * that reads the time from a given <code>GameClock</code>, rather than the
+	 * system clock.
+	 * 
+	 * @param isServer   - whether this is a server-side <code>Game</code> or not.
+	 * 
+	 * @param minPlayers - the minimum number of <code>Player</code>s the
+	 *                   <code>Game</code> should wait for to join before allowing
+	 *                   it to be started. Must be > 0.
+	 * 
+	 * @param clock      - the <code>GameClock</code> to time every
+	 *                   <code>Round</code> (and patience wait) with.
+	 * 
+	 * @throws GameError if <code>minPlayers</code> <= 0 or <code>clock</code> is
+	 *                   <code>null</code>.
+	 */
+	public Game(boolean isServer, int minPlayers, GameClock clock) {
 		this.isServer = isServer;
+		
+		if (clock == null) {
+			throw new GameError("A Game can't be timed by a null GameClock!");
+		}
+		
+		this.clock = clock;
 
 		if (minPlayers <= 0) {
 			throw new GameError("A Game must require at least one Player to start (" + minPlayers + " is invalid)!");
@@ -105,9 +163,6 @@ public class Game {
 		
 		phase = Phase.PLAY_PAUSED;
 		
-		moves = new HashMap<Entity, DirectionVector>();
-		actions = new HashMap<Entity, Action>();
-		
 		events = new PriorityQueue<Event>();
 	}
 	
@@ -132,6 +187,15 @@ public class Game {
 		isRegistered = true;
 	}
 
+	/**
+	 * @return the <code>IDManager.IDAllocator</code> that keeps track of this
+	 *         <code>Game</code>'s <code>Entity</code> ID numbers (only usable by
+	 *         the <code>IDManager</code>).
+	 */
+	public IDManager.IDAllocator getIDAllocator() {
+		return entityIDs;
+	}
+
 	/**
 	 * Attempts to start the <code>Game</code>, using the parameters to define the
 	 * sine wave of <code>Round</code> durations by constructing the first
@@ -180,15 +244,15 @@ public class Game {
 			round.start(this);
 			
 			phase = Phase.ACCEPTANCE;
+			this.patienceWait = patienceWait;
 			
-			moves.clear();
-			actions.clear();
+			resetPlans();
 			
 			events.clear();
 			
 			tickNumber = 0;
 
-			startTime = System.currentTimeMillis();
+			startTime = clock.currentTimeMillis();
 			started = true;
 			return true;
 		} catch (GameError e) {
@@ -205,6 +269,73 @@ public class Game {
 		return started ? startTime : -1;
 	}
 	
+	/**
+	 * Gets the <code>GameClock</code> this <code>Game</code> (and its
+	 * <code>Round</code>s) is timed by. <code>Input</code>s for this
+	 * <code>Game</code> should be timestamped with it.
+	 * 
+	 * @return the <code>Game</code>'s <code>GameClock</code>.
+	 */
+	public GameClock getClock() {
+		return clock;
+	}
+	
+	/**
+	 * Turns fast-forwarding on or off. While fast-forwarding, each call of
+	 * {@link Game#update(boolean)} jumps the <code>Game</code>'s
+	 * <code>VirtualClock</code> to the end of the current <code>Round</code> as
+	 * soon as every living <code>Entity</code> has had an <code>Input</code>
+	 * accepted, skips the patience wait, and runs all of the
+	 * {@link Phase#ENACTMENT} ticks back to back.
+	 * 
+	 * @param fastForward - whether to fast-forward.
+	 * 
+	 * @return <code>true</code> if the mode was set, or <code>false</code> if
+	 *         fast-forwarding was requested but this <code>Game</code> isn't
+	 *         timed by a <code>VirtualClock</code>.
+	 */
+	public boolean setFastForward(boolean fastForward) {
+		if (fastForward && !(clock instanceof VirtualClock)) return false;
+		
+		this.fastForward = fastForward;
+		return true;
+	}
+	
+	public boolean isFastForward() {
+		return fastForward;
+	}
+	
+	/**
+	 * Gets the time (according to this <code>Game</code>'s
+	 * <code>GameClock</code>) at which the next call of
+	 * {@link Game#update(boolean)} will have something to do: the end of the
+	 * current <code>Round</code> during {@link Phase#ACCEPTANCE}, the end of the
+	 * patience wait during {@link Phase#PATIENCE}, or right away during
+	 * {@link Phase#ENACTMENT} (ticks are run back to back). Calling
+	 * <code>update()</code> any earlier than this is a waste of time.
+	 * 
+	 * @return the time the <code>Game</code> next needs updating, or
+	 *         {@link Long#MAX_VALUE} if it won't need updating until something
+	 *         else changes (e.g., it hasn't been started yet).
+	 */
+	public long getNextDeadline() {
+		if (!started) return Long.MAX_VALUE;
+		
+		switch (phase) {
+		case ACCEPTANCE:
+			// Submitted Inputs might be all that's left to wait for.
+			if (fastForward && !pendingInputs.isEmpty()) return clock.currentTimeMillis();
+			if (fastForward && allInputsIn()) return clock.currentTimeMillis();
+			return round.getDeadline();
+		case PATIENCE:
+			return patienceStart + patienceWait;
+		case ENACTMENT:
+			return clock.currentTimeMillis();
+		default:
+			return Long.MAX_VALUE;
+		}
+	}
+	
 	public boolean loadMap(MapData mD) {
 		if (phase != Phase.PLAY_PAUSED) return false;
 		return world.loadWorld(mD);
@@ -214,7 +345,14 @@ public class Game {
 		if (phase != Phase.PLAY_PAUSED) return false;
 		
 		if (world.spawnEntity(entity, spawnAt)) {
-			actions.put(entity, new Action(ActionType.NONE));
+			// Its slot may have been someone else's.
+			int slot = slotOf(entity);
+			
+			growPlans();
+			moves[slot] = null;
+			actions[slot] = new Action(ActionType.NONE);
+			submitted[slot] = false;
+			snapshot = null;
 			
 			if (entity instanceof Player) playerCount += 1;
 			
@@ -237,31 +375,196 @@ public class Game {
 		return true;
 	}
 
+	/**
+	 * Queues an <code>Input</code> to be applied (and validated) by the next call
+	 * of {@link Game#update(boolean)} during {@link Phase#ACCEPTANCE} or
+	 * {@link Phase#PATIENCE}. Unlike {@link Game#addInput(Input)}, this may be
+	 * called from any thread at any time, and never blocks. If this
+	 * <code>Game</code> is driven by a <code>GameScheduler</code>, it should be
+	 * woken afterwards (in case it is fast-forwarding).
+	 * 
+	 * @param i - the <code>Input</code> to queue.
+	 * 
+	 * @return <code>true</code> if the <code>Input</code> was queued, or
+	 *         <code>false</code> if it was <code>null</code>.
+	 */
+	public boolean submitInput(Input i) {
+		if (i == null) return false;
+		
+		return pendingInputs.offer(i);
+	}
+	
+	/**
+	 * Applies every queued <code>Input</code> (see
+	 * {@link Game#submitInput(Input)}), in the order they were submitted.
+	 * 
+	 * @return the number of <code>Input</code>s accepted.
+	 */
+	private int drainInputs() {
+		List<Input> batch = new ArrayList<Input>();
+		
+		for (Input i = pendingInputs.poll(); i != null; i = pendingInputs.poll()) batch.add(i);
+		
+		return addInputs(batch);
+	}
+	
+	/**
+	 * Applies a batch of <code>Input</code>s (each only if it is valid), in
+	 * order, validating them in parallel where possible. Must only be called from
+	 * the thread that updates this <code>Game</code>.
+	 * <br>
+	 * The <code>GameWorld</code> doesn't change while <code>Input</code>s are
+	 * being accepted, so every <code>Input</code> for an <code>Entity</code> with
+	 * nothing else in the batch is validated (in parallel, for large enough
+	 * batches) against a <code>RoundSnapshot</code> taken once per
+	 * <code>Round</code>, and the plans as they were when the batch started -
+	 * never against the <code>GameWorld</code> itself. Those are then accepted
+	 * in batch order, while <code>Entities</code> with several
+	 * <code>Input</code>s in the batch (which may depend on each other) have
+	 * theirs validated one at a time as they come up (via
+	 * {@link Game#addInput(Input)}, against the <code>GameWorld</code>).
+	 * <br>
+	 * So an independent <code>Input</code> is judged by the state its
+	 * <code>Entity</code> (and its active <code>Weapon</code>) was in when the
+	 * <code>RoundSnapshot</code> was taken: if that has been changed since
+	 * (other than by adding an <code>Entity</code>, which takes a new one), the
+	 * outcome may differ from adding the same <code>Input</code> via
+	 * {@link Game#addInput(Input)}.
+	 * 
+	 * @param batch - the <code>Input</code>s to apply, in order.
+	 * 
+	 * @return the number of <code>Input</code>s accepted.
+	 */
+	public int addInputs(Collection<? extends Input> batch) {
+		if (batch == null || batch.isEmpty() || !started) return 0;
+		
+		Input[] inputs = batch.toArray(new Input[0]);
+		
+		// How many Inputs each Entity (by slot) has in the batch.
+		int[] slots = new int[inputs.length];
+		int[] counts = new int[world.getHandleCapacity()];
+		for (int k = 0; k < inputs.length; k++) {
+			slots[k] = inputs[k] == null ? -1 : slotOf(inputs[k].getSubject());
+			if (slots[k] != -1) counts[slots[k]]++;
+		}
+		
+		if (snapshot == null) snapshot = new RoundSnapshot(world, round.roundNumber);
+		RoundSnapshot frozen = snapshot;
+		
+		// Validate the independent Inputs up front (gathering what they need from
+		// the plans first, on this thread).
+		boolean[] independent = new boolean[inputs.length];
+		DirectionVector[] plannedMoves = new DirectionVector[inputs.length];
+		
+		for (int k = 0; k < inputs.length; k++) {
+			independent[k] = slots[k] != -1 && counts[slots[k]] == 1
+					&& frozen.contains(inputs[k].getSubject()) && round.shouldAccept(inputs[k]);
+			if (independent[k]) plannedMoves[k] = moves[slots[k]];
+		}
+		
+		IntStream indices = IntStream.range(0, inputs.length);
+		if (inputs.length >= PARALLEL_BATCH) indices = indices.parallel();
+		
+		List<Pair<Entity, Object>> results = indices
+				.mapToObj(k -> independent[k] ? validate(inputs[k], frozen, plannedMoves[k]) : null)
+				.collect(Collectors.toList());
+		
+		int accepted = 0;
+		
+		for (int k = 0; k < inputs.length; k++) {
+			if (independent[k] ? accept(results.get(k)) : addInput(inputs[k])) accepted++;
+		}
+		
+		return accepted;
+	}
+	
+	// Checks an Input against a RoundSnapshot without changing anything (safe to
+	// run on any thread). One that can't be checked is rejected, just like an
+	// invalid one.
+	private static Pair<Entity, Object> validate(Input i, RoundSnapshot snapshot, DirectionVector plannedMove) {
+		try {
+			return i.validate(snapshot, plannedMove);
+		} catch (RuntimeException | GameError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Applies an <code>Input</code> straight away (if it is valid). Must only be
+	 * called from the thread that updates this <code>Game</code> - other threads
+	 * should use {@link Game#submitInput(Input)}.
+	 * 
+	 * @param i - the <code>Input</code> to apply.
+	 * 
+	 * @return <code>true</code> if the <code>Input</code> was accepted, otherwise
+	 *         <code>false</code>.
+	 */
 	public boolean addInput(Input i) {
 		if (i == null)
 			return false;
 
-		if (!started || round.shouldAccept(i)) {
+		if (!started || !round.shouldAccept(i)) {
 			// accept special inputs (add player, player-quit, NPC-spawn, etc.).
 			return false;
 		}
 
-		Pair<Entity, Object> pair = i.apply(this);
-		
-		if (pair == null) return false;
+		return accept(i.apply(this));
+	}
+	
+	/**
+	 * Records the outcome of a valid <code>Input</code> as its
+	 * <code>Entity</code>'s plan for this <code>Round</code>.
+	 * 
+	 * @param pair - the <code>Entity</code> and its new move or action (or
+	 *             <code>null</code> if the <code>Input</code> was invalid).
+	 * 
+	 * @return <code>true</code> if the plan was recorded, otherwise
+	 *         <code>false</code>.
+	 */
+	private boolean accept(Pair<Entity, Object> pair) {
+		int slot = pair == null ? -1 : slotOf(pair.first());
+		if (slot == -1) return false;
 		
 		if (pair.second() instanceof DirectionVector) {
-			moves.put(pair.first(), (DirectionVector) pair.second());
+			moves[slot] = (DirectionVector) pair.second();
+			submitted[slot] = true;
 			return true;
 		}
 		
 		if (pair.second() instanceof Action) {
-			actions.put(pair.first(), (Action) pair.second());
+			actions[slot] = (Action) pair.second();
+			submitted[slot] = true;
 			return true;
 		}
 		
 		return false;
 	}
+	
+	/**
+	 * Gets the slot an <code>Entity</code>'s plans are kept in.
+	 * 
+	 * @param e - the <code>Entity</code>.
+	 * 
+	 * @return the slot index of its handle (see
+	 *         {@link EntityHandles#index(int)}), or -1 if it isn't in the
+	 *         <code>GameWorld</code>.
+	 */
+	private int slotOf(Entity e) {
+		int handle = world.getHandle(e);
+		
+		return handle == EntityHandles.NONE ? -1 : EntityHandles.index(handle);
+	}
+	
+	// Makes room in the plan tables for every handle slot in the GameWorld.
+	private void growPlans() {
+		int capacity = world.getHandleCapacity();
+		if (moves.length >= capacity) return;
+		
+		capacity = Math.max(capacity, moves.length * 2);
+		moves = Arrays.copyOf(moves, capacity);
+		actions = Arrays.copyOf(actions, capacity);
+		submitted = Arrays.copyOf(submitted, capacity);
+	}
 
 	/**
 	 * 
@@ -275,30 +578,51 @@ public class Game {
 	public String[] update(boolean logEvents) {
 		List<String> eventsLog = new ArrayList<String>();
 		
+		if (!started) return eventsLog.toArray(new String[0]);
+		
+		// Inputs are only taken in while they can still make a difference.
+		if (phase == Phase.ACCEPTANCE || phase == Phase.PATIENCE) drainInputs();
+		
+		if (fastForward && phase == Phase.ACCEPTANCE && !round.isFinished() && allInputsIn()) {
+			// Nothing left to wait for, so skip to the end of the Round.
+			((VirtualClock) clock).advanceTo(round.getDeadline());
+		}
+		
 		if (round.isFinished()) {
 			if (phase == Phase.ACCEPTANCE) {
 				phase = Phase.PATIENCE; // Wait for extra Inputs and Events to come in.
 				
 				patienceStart = round.getFinishTime();
 				
-				return eventsLog.toArray(new String[0]);
+				if (!fastForward) return eventsLog.toArray(new String[0]);
 			}
 			
 			if (phase == Phase.PATIENCE) {
-				if (System.currentTimeMillis() - patienceStart < patienceWait)
+				if (fastForward) ((VirtualClock) clock).advanceTo(patienceStart + patienceWait);
+				
+				if (clock.currentTimeMillis() - patienceStart < patienceWait)
 					return eventsLog.toArray(new String[0]);
 
 				// Process first tick in this very call (won't wait for next update() call).
 				phase = Phase.ENACTMENT;
 				
-				for (MovementEvent mE : MovementEvent.createMovementSeries(moves)) events.offer(mE);
+				// The planned moves, in slot order.
+				Map<Entity, DirectionVector> planned = new LinkedHashMap<Entity, DirectionVector>();
+				for (int slot = 0; slot < moves.length; slot++) {
+					Entity entity = world.entityInSlot(slot);
+					if (entity != null && moves[slot] != null) planned.put(entity, moves[slot]);
+				}
+				
+				for (MovementEvent mE : MovementEvent.createMovementSeries(planned)) events.offer(mE);
 				
 				for (Entity entity : world.getEntities()) {
+					Action action = actions[slotOf(entity)];
+					
 					// Rely on invariant that all dead Entities will be cleared up by next call of
 					// update().
-					switch (actions.get(entity).getType()) {
+					switch (action.getType()) {
 					case FIRE:
-						events.offer(new TriggerPullEvent(entity, actions.get(entity).getPositions()));
+						events.offer(new TriggerPullEvent(entity, action.getPositions()));
 						break;
 					case SWITCH_WEAPON:
 						events.offer(new SwitchWeaponEvent(entity));
@@ -313,25 +637,66 @@ public class Game {
 			}
 			
 			if (phase == Phase.ENACTMENT) {
-				if (!events.isEmpty()) {
+				// Only one tick per call, unless fast-forwarding.
+				do {
+					if (events.isEmpty()) {
+						round = round.next();
+						round.start(this);
+						// Note: events has already been emptied!
+						tickNumber = 0;
+						
+						phase = Phase.ACCEPTANCE;
+						resetPlans();
+						break;
+					}
+					
 					while (!events.isEmpty() && events.peek().tickNumber <= tickNumber) {
-						events.peek().apply(world, tickNumber, events);
+						// Taken off the queue first, as applying it may queue Events that
+						// come before it (e.g., deaths from collisions).
+						Event event = events.poll();
+						event.apply(world, tickNumber, events);
 						
-						if (events.peek().isFinished()) events.poll();
+						if (!event.isFinished()) events.offer(event);
 						world.cleanUp(tickNumber, events);
 					}
 					tickNumber++;
-				} else {
-					round = round.next();
-					round.start(this);
-					// Note: events has already been emptied!
-					tickNumber = 0;
-				}
+					world.nextTick();
+				} while (fastForward);
 			}
 		}
 		
 		return eventsLog.toArray(new String[0]);
 	}
+	
+	/**
+	 * Forgets every <code>Entity</code>'s planned move and action (i.e., sets
+	 * them all back to doing nothing), ready for a new <code>Round</code>.
+	 */
+	private void resetPlans() {
+		growPlans();
+		Arrays.fill(moves, null);
+		Arrays.fill(actions, null);
+		Arrays.fill(submitted, false);
+		snapshot = null;
+		
+		for (Entity entity : world.getEntities()) actions[slotOf(entity)] = new Action(ActionType.NONE);
+	}
+	
+	/**
+	 * Finds out whether every living <code>Entity</code> in the
+	 * <code>GameWorld</code> has had an <code>Input</code> accepted this
+	 * <code>Round</code> (i.e., whether there is any point waiting for more).
+	 * 
+	 * @return <code>true</code> if no living <code>Entity</code> is still to
+	 *         submit an <code>Input</code>, otherwise <code>false</code>.
+	 */
+	private boolean allInputsIn() {
+		for (Entity entity : world.getEntities()) {
+			if (!entity.isDead() && !submitted[slotOf(entity)]) return false;
+		}
+		
+		return true;
+	}
 
 	/**
 	 * Gets the <code>GameWorld</code> owned by this <code>Game</code>.
@@ -344,11 +709,15 @@ public class Game {
 	}
 
 	public DirectionVector getMove(Entity e) {
-		return moves.get(e);
+		int slot = slotOf(e);
+		
+		return slot == -1 ? null : moves[slot];
 	}
 	
 	public Action getAction(Entity e) {
-		return actions.get(e);
+		int slot = slotOf(e);
+		
+		return slot == -1 ? null : actions[slot];
 	}
 	
 	public Phase getPhase() {
@@ -361,6 +730,16 @@ public class Game {
 		return round.roundNumber;
 	}
 	
+	/**
+	 * Gets the <code>Round</code> currently being played.
+	 * 
+	 * @return the current <code>Round</code>, or <code>null</code> if the
+	 *         <code>Game</code> hasn't been started yet.
+	 */
+	public Round getRound() {
+		return started ? round : null;
+	}
+	
 	public boolean isCurrentRound(Round r) {
 		if (round == null) return r == null;
 		
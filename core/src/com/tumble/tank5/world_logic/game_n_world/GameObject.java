@@ -1,14 +1,14 @@
 package com.tumble.tank5.world_logic.game_n_world;
 
 import com.tumble.tank5.game_object.entities.Entity;
-import com.tumble.tank5.game_object.tiles.Tile;
 import com.tumble.tank5.util.Position;
 
 public abstract class GameObject {
 	protected Position position;
 	protected int weight = 1;
 	
-	boolean falling;
+	// This GameObject's slot in its GameWorld's FallingBodies (-1 if it isn't falling).
+	int fallingIndex = -1;
 	
 	private int health = 0;
 	private Entity attacker;
@@ -44,7 +44,7 @@ public abstract class GameObject {
 	 *         less, otherwise <code>false</code>.
 	 */
 	public final boolean damage(int damage, Entity attacker) {
-		if (damage <= 0) {
+		if (damage > 0) {
 			health -= damage;
 			this.attacker = attacker;
 		}
@@ -52,8 +52,18 @@ public abstract class GameObject {
 		return health <= 0;
 	}
 	
+	/**
+	 * Sets the <code>Entity</code> held responsible for whatever happens to this
+	 * <code>GameObject</code> next, without damaging it.
+	 * 
+	 * @param attacker - the responsible <code>Entity</code>.
+	 */
+	protected final void setAttacker(Entity attacker) {
+		this.attacker = attacker;
+	}
+	
 	public boolean isFalling() {
-		return falling;
+		return fallingIndex != -1;
 	}
 	
 	public final Position getPosition() {
@@ -63,7 +73,10 @@ public abstract class GameObject {
 	public final Position getFootPosition() {
 		if (position == null) return null;
 		
-		return new Position(position.x, position.y, position.z - 0.5 * Tile.TILE_SIZE);
+		return Position.ofFixed(
+				position.getFixedX(),
+				position.getFixedY(),
+				position.getFixedZ() - Position.UNITS_PER_TILE / 2);
 	}
 	
 	public final int getWeight() {
@@ -1,11 +1,20 @@
 package com.tumble.tank5.world_logic.game_n_world;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
 import com.badlogic.gdx.utils.Queue;
 import com.tumble.tank5.events.DamageEvent;
 import com.tumble.tank5.events.DeathEvent;
@@ -36,22 +45,144 @@ import com.tumble.tank5.util.DirectionVector.Direction;
  *
  */
 public class GameWorld {
+	/**
+	 * How much damage a bulk carve (see
+	 * {@link GameWorld#carveSphere(Position, double, DamageField, Entity, int, java.util.Queue)})
+	 * deals to each <code>Tile</code> in its region.
+	 */
+	public interface DamageField {
+		/**
+		 * Gets the damage to deal to the <code>Tile</code> at a given point.
+		 * 
+		 * @param tileCentre - the centre of the <code>Tile</code>'s cell.
+		 * 
+		 * @param distance   - the distance from the centre of the region to the
+		 *                   centre of the cell.
+		 * 
+		 * @return the damage to deal (values <= 0 leave the <code>Tile</code>
+		 *         alone).
+		 */
+		int damageAt(Position tileCentre, double distance);
+	}
+	
+	/**
+	 * Something that keeps its own view of where <code>Entities</code> can move in
+	 * a <code>GameWorld</code> (e.g., a pathfinder), and so needs to hear about it
+	 * whenever that changes.
+	 * 
+	 * @author Tumbl
+	 *
+	 */
+	public interface NavigationListener {
+		/**
+		 * Called once a new map has been loaded (so every cell may have changed).
+		 * 
+		 * @param world - the <code>GameWorld</code> that was loaded.
+		 */
+		void worldLoaded(GameWorld world);
+		
+		/**
+		 * Called whenever the exits of a cell change (see
+		 * {@link GameWorld#getExits(int, int, int)}).
+		 * 
+		 * @param x - the x-coordinate of the cell.
+		 * 
+		 * @param y - the y-coordinate of the cell.
+		 * 
+		 * @param z - the z-coordinate of the cell.
+		 */
+		void exitsChanged(int x, int y, int z);
+	}
+	
 	// The entities (mobile, non-Tile objects - either NPCs or Players) in the
 	// GameWorld.
 	private Set<Entity> entities;
+	// The slot (and handle) of each Entity in this GameWorld.
+	private EntityHandles handles;
+	// Each Entity's bookkeeping, by the slot index of its handle (see
+	// EntityHandles.index()): the cell it was in at the last collision pass,
+	// where it started the last tick it moved in (and that tick's number), and
+	// the cells it is filed under in the entity grid (-1 if none).
+	private int[] occupiedCells = new int[0];
+	private Position[] sweptFrom = new Position[0];
+	private int[] sweptTicks = new int[0];
+	private int[] gridFrom = new int[0], gridTo = new int[0];
 	// The tiles in the GameWorld. All layers must be of identical dimensions.
 	private Tile[][][] tiles;
 	// The number of layers (0), the north/south size of each layer (1) and the
 	// east/west size of each layer (2).
 	private int[] worldDimensions = new int[3];
+	// Which neighbours hold up the Tile in each cell (see cellIndex()), as a
+	// bitmask of SUPPORT_DIRECTIONS indices - the whole support graph, built once
+	// by loadWorld().
+	private byte[] supportedBy = new byte[0];
+	// The z-layer of the highest Tile that stops falling beneath each cell, in
+	// the same column (or -1 if nothing does) - i.e., where anything falling from
+	// the cell would land.
+	private int[] landingLayers = new int[0];
+	// The moves an Entity can make out of each cell, as a Navigation bitmask -
+	// built once by loadWorld() and patched around each changed Tile.
+	private short[] navigation = new short[0];
+	// Everything to tell when the navigation bitmasks change.
+	private List<NavigationListener> navigationListeners;
+	
+	// The neighbours a Tile can be held up by: below, north, east, south and west
+	// (as x, y, z offsets).
+	private static final int[][] SUPPORT_DIRECTIONS = {
+			{ 0, 0, -1 },
+			{ 0, 1, 0 },
+			{ 1, 0, 0 },
+			{ 0, -1, 0 },
+			{ -1, 0, 0 }
+	};
 	// Whether a map is currently loaded into the GameWorld.
 	private boolean loaded;
 	
-	private Set<Rubble> rubble;
-	private Map<Tile, Entity> toRubblify;
+	/**
+	 * The default number of ticks between compactions (see
+	 * {@link GameWorld#setCompaction(int, int)}).
+	 */
+	public static final int DEFAULT_COMPACTION_INTERVAL = 1000;
+	/**
+	 * The default capacity each of the <code>GameWorld</code>'s bookkeeping
+	 * collections is cut back to when compacted.
+	 */
+	public static final int DEFAULT_RETAINED_CAPACITY = 256;
+	
+	private int compactionInterval = DEFAULT_COMPACTION_INTERVAL;
+	private int retainedCapacity = DEFAULT_RETAINED_CAPACITY;
+	
+	// The destroyed Tiles (by cell - see cellIndex()), and who destroyed them.
+	private IntMap<Entity> toRubblify;
+	// The dead Entities, and who killed them.
 	private Map<Entity, Entity> toCorpsify;
 	
-	private Map<GameObject, Pair<Double, Entity>> fallingObjects;
+	private FallingBodies fallingBodies;
+	
+	// The Entities resting on (held up by the Tile in) each cell (see
+	// cellIndex()), and the cell each one was last indexed under (by identity, as
+	// a GameObject's hashCode() can change). Settled Rubble is only kept in the
+	// grid.
+	private IntMap<List<GameObject>> restingOn;
+	private Map<GameObject, Integer> supportCells;
+	// The Entities and settled Rubble piles that have moved, or whose support has
+	// been removed, since the last cleanUp() (i.e., that might need to start
+	// falling).
+	private Set<GameObject> toCheck;
+	
+	// Scratch space for checkCollisions(): the slots of the live Entities, and
+	// the cell each one is in (by index into the array).
+	private int[] occupants = new int[0];
+	private OccupancyTable occupancy = new OccupancyTable();
+	
+	// The handles of the Entities that are in (or have passed through, this tick)
+	// each cell - the broadphase for bullets - and of those filed under two cells
+	// (to be refiled under just the one they ended up in, once the tick is over).
+	private IntMap<IntArray> entityGrid;
+	private IntArray sweptEntities;
+	// Counts every tick this GameWorld has run (unlike the tick number, which
+	// restarts each Round), to tell which sweeps are current.
+	private int sweepTick = 0;
 
 	/**
 	 * Creates a <code>GameWorld</code> for a <code>Game</code> to take place in.
@@ -62,14 +193,23 @@ public class GameWorld {
 	 */
 	public GameWorld() {
 		entities = new HashSet<Entity>();
+		handles = new EntityHandles();
 
 		loaded = false;
 		
-		rubble = new HashSet<Rubble>();
-		toRubblify = new HashMap<Tile, Entity>();
+		toRubblify = new IntMap<Entity>();
 		toCorpsify = new HashMap<Entity, Entity>();
 		
-		fallingObjects = new HashMap<GameObject, Pair<Double, Entity>>();
+		fallingBodies = new FallingBodies();
+		
+		restingOn = new IntMap<List<GameObject>>();
+		supportCells = new IdentityHashMap<GameObject, Integer>();
+		toCheck = Collections.newSetFromMap(new IdentityHashMap<GameObject, Boolean>());
+		
+		entityGrid = new IntMap<IntArray>();
+		sweptEntities = new IntArray();
+		
+		navigationListeners = new ArrayList<NavigationListener>();
 	}
 	
 	Set<Entity> getEntities() {
@@ -80,6 +220,55 @@ public class GameWorld {
 		return loaded;
 	}
 
+	/**
+	 * @return the east/west size of the loaded map (in <code>Tile</code>s).
+	 */
+	public int getXDimension() {
+		return worldDimensions[2];
+	}
+	
+	/**
+	 * @return the north/south size of the loaded map (in <code>Tile</code>s).
+	 */
+	public int getYDimension() {
+		return worldDimensions[1];
+	}
+	
+	/**
+	 * @return the number of z-layers in the loaded map.
+	 */
+	public int getZDimension() {
+		return worldDimensions[0];
+	}
+	
+	/**
+	 * Registers something to be told whenever the navigation bitmasks of this
+	 * <code>GameWorld</code> change. Listeners are called on whichever thread
+	 * changes the world (i.e., the game thread).
+	 * 
+	 * @param listener - the <code>NavigationListener</code> to add.
+	 * 
+	 * @return <code>true</code> if it was added, or <code>false</code> if it was
+	 *         <code>null</code> or already registered.
+	 */
+	public boolean addNavigationListener(NavigationListener listener) {
+		if (listener == null || navigationListeners.contains(listener)) return false;
+		
+		return navigationListeners.add(listener);
+	}
+	
+	/**
+	 * Stops telling a <code>NavigationListener</code> about navigation changes.
+	 * 
+	 * @param listener - the <code>NavigationListener</code> to remove.
+	 * 
+	 * @return <code>true</code> if it was registered, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean removeNavigationListener(NavigationListener listener) {
+		return navigationListeners.remove(listener);
+	}
+	
 	/**
 	 * Loads a new world from a given <code>MapData</code> object, by validating the
 	 * world dimensions, constructing the multidimensional <code>tiles</code> array
@@ -103,6 +292,18 @@ public class GameWorld {
 		
 		tiles = new Tile[mD.getData().split("~").length][][];
 		entities.clear();
+		handles.clear();
+		
+		toRubblify.clear();
+		toCorpsify.clear();
+		fallingBodies.clear();
+		
+		restingOn.clear();
+		supportCells.clear();
+		toCheck.clear();
+		
+		entityGrid.clear();
+		sweptEntities.clear();
 
 		for (String level : mD.getData().split("~")) {
 			String[] rows = level.split("\n");
@@ -128,164 +329,1070 @@ public class GameWorld {
 
 			z++;
 		}
-
-		worldDimensions = new int[] { mD.getXDimension(), mD.getYDimension(), mD.getZDimension() };
+
+		worldDimensions = new int[] { mD.getZDimension(), mD.getYDimension(), mD.getXDimension() };
+		
+		loaded = true;
+		
+		buildSupportGraph();
+		buildLandingLayers();
+		buildNavigation();
+		
+		for (NavigationListener listener : navigationListeners) listener.worldLoaded(this);
+		
+		return true;
+	}
+
+	/**
+	 * Works out which neighbours hold up each <code>Tile</code>, in one sweep over
+	 * the freshly-loaded world.
+	 */
+	private void buildSupportGraph() {
+		supportedBy = new byte[worldDimensions[0] * worldDimensions[1] * worldDimensions[2]];
+		
+		for (int z = 0; z < worldDimensions[0]; z++) {
+			for (int y = 0; y < worldDimensions[1]; y++) {
+				for (int x = 0; x < worldDimensions[2]; x++) {
+					TileType type = tiles[z][y][x].getType();
+					int mask = 0;
+					
+					for (int d = 0; d < SUPPORT_DIRECTIONS.length; d++) {
+						int nX = x + SUPPORT_DIRECTIONS[d][0];
+						int nY = y + SUPPORT_DIRECTIONS[d][1];
+						int nZ = z + SUPPORT_DIRECTIONS[d][2];
+						
+						if (nX < 0 || nX >= worldDimensions[2]
+								|| nY < 0 || nY >= worldDimensions[1]
+								|| nZ < 0) continue;
+						
+						if (canBeSupported(type, tiles[nZ][nY][nX].getType(), d == 0)) mask |= 1 << d;
+					}
+					
+					supportedBy[cellIndex(x, y, z)] = (byte) mask;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Works out where anything falling from each cell would land, in one sweep up
+	 * each column of the freshly-loaded world.
+	 */
+	private void buildLandingLayers() {
+		landingLayers = new int[worldDimensions[0] * worldDimensions[1] * worldDimensions[2]];
+		
+		for (int y = 0; y < worldDimensions[1]; y++) {
+			for (int x = 0; x < worldDimensions[2]; x++) {
+				int highest = -1;
+				
+				for (int z = 0; z < worldDimensions[0]; z++) {
+					landingLayers[cellIndex(x, y, z)] = highest;
+					if (tiles[z][y][x].stopsFalling()) highest = z;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Brings the landing layers of the cells above a changed one up to date (only
+	 * as far up as the next <code>Tile</code> that stops falling, as nothing above
+	 * that is affected).
+	 * 
+	 * @param x - the x-coordinate of the changed cell.
+	 * 
+	 * @param y - the y-coordinate of the changed cell.
+	 * 
+	 * @param z - the z-coordinate of the changed cell.
+	 */
+	private void updateLandingLayers(int x, int y, int z) {
+		int highest = tiles[z][y][x].stopsFalling() ? z : landingLayers[cellIndex(x, y, z)];
+		
+		for (int above = z + 1; above < worldDimensions[0]; above++) {
+			landingLayers[cellIndex(x, y, above)] = highest;
+			if (tiles[above][y][x].stopsFalling()) break;
+		}
+	}
+	
+	/**
+	 * Brings the landing layers of a whole column up to date from a given cell
+	 * upwards, after any number of its cells (from that one up) have changed.
+	 * 
+	 * @param x - the x-coordinate of the column.
+	 * 
+	 * @param y - the y-coordinate of the column.
+	 * 
+	 * @param z - the lowest changed z-layer.
+	 */
+	private void updateLandingColumn(int x, int y, int z) {
+		int highest = landingLayers[cellIndex(x, y, z)];
+		
+		for (int above = z + 1; above < worldDimensions[0]; above++) {
+			if (tiles[above - 1][y][x].stopsFalling()) highest = above - 1;
+			landingLayers[cellIndex(x, y, above)] = highest;
+		}
+	}
+	
+	/**
+	 * Works out the legal moves out of every cell of the freshly-loaded world.
+	 */
+	private void buildNavigation() {
+		navigation = new short[worldDimensions[0] * worldDimensions[1] * worldDimensions[2]];
+		
+		for (int z = 0; z < worldDimensions[0]; z++) {
+			for (int y = 0; y < worldDimensions[1]; y++) {
+				for (int x = 0; x < worldDimensions[2]; x++) {
+					navigation[cellIndex(x, y, z)] = (short) findExits(x, y, z);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Brings the navigation bitmasks around a changed cell up to date. A cell's
+	 * exits only depend on the <code>Tile</code>s at most one step away from it
+	 * (in each axis), so only that neighbourhood can have changed.
+	 * 
+	 * @param x - the x-coordinate of the changed cell.
+	 * 
+	 * @param y - the y-coordinate of the changed cell.
+	 * 
+	 * @param z - the z-coordinate of the changed cell.
+	 */
+	private void updateNavigation(int x, int y, int z) {
+		for (int nZ = Math.max(0, z - 1); nZ <= Math.min(worldDimensions[0] - 1, z + 1); nZ++) {
+			for (int nY = Math.max(0, y - 1); nY <= Math.min(worldDimensions[1] - 1, y + 1); nY++) {
+				for (int nX = Math.max(0, x - 1); nX <= Math.min(worldDimensions[2] - 1, x + 1); nX++) {
+					refreshExits(nX, nY, nZ);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Brings the navigation bitmasks around a set of changed cells up to date,
+	 * working each affected cell out only once (however many of the changed cells
+	 * it neighbours).
+	 * 
+	 * @param changed - the changed cells (by cell index).
+	 */
+	private void updateNavigation(IntMap<?> changed) {
+		IntSet refreshed = new IntSet();
+		
+		for (IntMap.Entry<?> entry : changed.entries()) {
+			int z = entry.key / layerSize(), y = (entry.key / worldDimensions[2]) % worldDimensions[1], x = entry.key % worldDimensions[2];
+			
+			for (int nZ = Math.max(0, z - 1); nZ <= Math.min(worldDimensions[0] - 1, z + 1); nZ++) {
+				for (int nY = Math.max(0, y - 1); nY <= Math.min(worldDimensions[1] - 1, y + 1); nY++) {
+					for (int nX = Math.max(0, x - 1); nX <= Math.min(worldDimensions[2] - 1, x + 1); nX++) {
+						if (refreshed.add(cellIndex(nX, nY, nZ))) refreshExits(nX, nY, nZ);
+					}
+				}
+			}
+		}
+	}
+	
+	// Re-works out a single cell's exits, telling the listeners if they've changed.
+	private void refreshExits(int x, int y, int z) {
+		short exits = (short) findExits(x, y, z);
+		int cell = cellIndex(x, y, z);
+		
+		if (navigation[cell] == exits) return;
+		
+		navigation[cell] = exits;
+		for (NavigationListener listener : navigationListeners) listener.exitsChanged(x, y, z);
+	}
+	
+	/**
+	 * Works out which moves an <code>Entity</code> in a cell can legally make:
+	 * nothing can leave or enter a <code>Tile</code> through a side it obstructs
+	 * (or a <code>Ladder</code> through its bars), moving along a
+	 * <code>StairCase</code> changes z-layer, and only <code>Ladder</code>s can be
+	 * climbed up (or down onto).
+	 * 
+	 * @param x - the x-coordinate of the cell.
+	 * 
+	 * @param y - the y-coordinate of the cell.
+	 * 
+	 * @param z - the z-coordinate of the cell.
+	 * 
+	 * @return the cell's {@link Navigation} bitmask.
+	 */
+	private int findExits(int x, int y, int z) {
+		Tile current = tiles[z][y][x];
+		int exits = 0;
+		
+		for (int d = 0; d < Navigation.HORIZONTAL.length; d++) {
+			DirectionVector dir = Navigation.HORIZONTAL[d].asVector();
+			
+			if (current.isObstruction(dir)) continue;
+			
+			int nX = x + dir.x;
+			int nY = y + dir.y;
+			int nZ = z;
+			int heightChange = 0;
+			
+			if (nX < 0 || nX >= worldDimensions[2] || nY < 0 || nY >= worldDimensions[1]) continue;
+			
+			if (current.getType() == TileType.STAIRS && ((StairCase) current).upDirection.equals(dir)) {
+				// Going up StairCases.
+				nZ++;
+				heightChange = Navigation.climb(Navigation.HORIZONTAL[d]);
+			} else if (z > 0 && tiles[z - 1][nY][nX].getType() == TileType.STAIRS
+					&& ((StairCase) tiles[z - 1][nY][nX]).downDirection.equals(dir)) {
+				// Going down StairCases.
+				nZ--;
+				heightChange = Navigation.descend(Navigation.HORIZONTAL[d]);
+			}
+			
+			if (nZ >= worldDimensions[0]) continue;
+			
+			Tile next = tiles[nZ][nY][nX];
+			
+			// Entering a Ladder through its bars.
+			if (next.getType() == TileType.LADDER
+					&& next.isObstruction(Navigation.HORIZONTAL[(d + 2) % Navigation.HORIZONTAL.length].asVector()))
+				continue;
+			
+			if (!next.isObstruction(dir)) exits |= Navigation.exit(Navigation.HORIZONTAL[d]) | heightChange;
+		}
+		
+		// Can only climb up an (unobstructed) Ladder.
+		if (current.getType() == TileType.LADDER && z + 1 < worldDimensions[0]
+				&& !current.isObstruction(Direction.UP.asVector())
+				&& !tiles[z + 1][y][x].isObstruction(Direction.UP.asVector()))
+			exits |= Navigation.UP;
+		
+		// Climb down a Ladder (or off the bottom of one), onto one from above, or
+		// keep moving down after having dropped off a Ladder into empty space.
+		if (z > 0 && !current.isObstruction(Direction.DOWN.asVector())
+				&& !tiles[z - 1][y][x].isObstruction(Direction.DOWN.asVector())
+				&& (current.getType() == TileType.LADDER || tiles[z - 1][y][x].getType() == TileType.LADDER
+						|| z + 1 < worldDimensions[0] && tiles[z + 1][y][x].getType() == TileType.LADDER))
+			exits |= Navigation.DOWN;
+		
+		return exits;
+	}
+	
+	/**
+	 * The support rules for each <code>TileType</code>: anything solid can rest on
+	 * anything solid below it, <code>Wall</code>s and <code>Ceiling</code>s are
+	 * also braced by <code>Wall</code>s and <code>Ceiling</code>s beside them, and
+	 * <code>Ladder</code>s are fixed to <code>Wall</code>s beside them.
+	 * <code>Air</code> and <code>Rubble</code> are never part of a structure.
+	 * 
+	 * @param type     - the type of the <code>Tile</code> being held up.
+	 * 
+	 * @param neighbour - the type of the <code>Tile</code> next to it.
+	 * 
+	 * @param below     - whether the neighbour is directly beneath it.
+	 * 
+	 * @return <code>true</code> if the neighbour can hold it up, otherwise
+	 *         <code>false</code>.
+	 */
+	private static boolean canBeSupported(TileType type, TileType neighbour, boolean below) {
+		if (!isStructural(type) || !isStructural(neighbour)) return false;
+		
+		if (below) return true;
+		
+		switch (type) {
+		case WALL:
+		case CEILING:
+			return neighbour == TileType.WALL || neighbour == TileType.CEILING;
+		case LADDER:
+			return neighbour == TileType.WALL;
+		default:
+			return false;
+		}
+	}
+	
+	private static boolean isStructural(TileType type) {
+		return type == TileType.WALL
+				|| type == TileType.CEILING
+				|| type == TileType.LADDER
+				|| type == TileType.STAIRS;
+	}
+	
+	/**
+	 * Returns a new instance (except in the case of the singleton {@link Air#AIR})
+	 * of a <code>Tile</code> from a given <code>char</code>.
+	 * 
+	 * @param c   - the <code>char</code> (used to decide what kind of
+	 *            <code>Tile</code> to return).
+	 * 
+	 * @param pos - the <code>Position</code> to spawn the <code>Tile</code> at (not
+	 *            used for <code>Air</code>).
+	 * 
+	 * @return a new <code>Tile</code> of a type determined by the given
+	 *         <code>char</code>, or {@link Air#AIR} if the char was not recognised.
+	 */
+	private Tile tileFromChar(char c, Position pos) {
+		switch (c) {
+		case ' ':
+			return Air.AIR;
+		case 'W':
+			return new Wall(pos);
+		case '#':
+			// North-facing ladder.
+			return new Ladder(pos, 0);
+		case 'v':
+			// North-facing stairs.
+			return new StairCase(pos, DirectionVector.of(0, 1, 0));
+		case '<':
+			// East-facing stairs.
+			return new StairCase(pos, DirectionVector.of(1, 0, 0));
+		case '^':
+			// South-facing stairs.
+			return new StairCase(pos, DirectionVector.of(0, -1, 0));
+		case '>':
+			// West-facing stairs.
+			return new StairCase(pos, DirectionVector.of(-1, 0, 0));
+		default:
+			return Air.AIR;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		if (!loaded) return "unloaded";
+		
+		String toReturn = "";
+		
+		for (int z = 0; z < tiles.length; z++) {
+			for (int y = tiles[z].length - 1; y >= 0; y--) {
+				for (int x = 0; x < tiles[z][y].length; x++) {
+					Entity entity = entityAt(
+							new Position(
+									x * Tile.TILE_SIZE,
+									y * Tile.TILE_SIZE,
+									z * Tile.TILE_SIZE));
+					if (entity != null) {
+						toReturn += entity;
+					} else {
+						toReturn += tiles[z][y][x];
+					}
+				}
+				
+				if (y != 0) toReturn += "\n";
+			}
+			
+			if (z != tiles.length - 1) toReturn += "~";
+		}
+		
+		return toReturn;
+	}
+	
+	boolean spawnEntity(Entity e, Position pos) {
+		if (outOfBounds(pos) || entityAt(pos) != null
+				|| tiles[pos.getZ()][pos.getY()][pos.getX()].isObstruction(Direction.NONE.asVector()))
+			return false;
+
+		for (Entity existing : entities) {
+			if (existing.getID() == e.getID() || existing.getPosition().sameTile(pos)) return false;
+		}
+		
+		e.spawn(pos);
+		entities.add(e);
+		track(handles.acquire(e), cellIndex(pos));
+		objectMoved(e);
+		
+		return true;
+	}
+	
+	/**
+	 * Starts the bookkeeping for a newly spawned <code>Entity</code> (growing the
+	 * per-<code>Entity</code> tables if its slot is new).
+	 * 
+	 * @param handle - the <code>Entity</code>'s handle.
+	 * 
+	 * @param cell   - the cell it spawned in.
+	 */
+	private void track(int handle, int cell) {
+		int capacity = handles.capacity();
+		if (occupiedCells.length < capacity) {
+			capacity = Math.max(capacity, occupiedCells.length * 2);
+			
+			occupiedCells = Arrays.copyOf(occupiedCells, capacity);
+			sweptFrom = Arrays.copyOf(sweptFrom, capacity);
+			sweptTicks = Arrays.copyOf(sweptTicks, capacity);
+			gridFrom = Arrays.copyOf(gridFrom, capacity);
+			gridTo = Arrays.copyOf(gridTo, capacity);
+		}
+		
+		int slot = EntityHandles.index(handle);
+		
+		occupiedCells[slot] = cell;
+		sweptFrom[slot] = null;
+		sweptTicks[slot] = -1;
+		gridFrom[slot] = gridTo[slot] = -1;
+	}
+	
+	void setTile(Position position, Tile tile) {
+		if (position == null || outOfBounds(position) || tile == null)
+			return;
+
+		tiles[position.getZ()][position.getY()][position.getX()] = tile;
+		updateLandingLayers(position.getX(), position.getY(), position.getZ());
+		updateNavigation(position.getX(), position.getY(), position.getZ());
+		
+		// Let anything that was resting on the old Tile know it may have gone.
+		if (!tile.stopsFalling() || tile.isFalling()) supportRemoved(cellIndex(position));
+	}
+	
+	/**
+	 * Tells this <code>GameWorld</code> that an <code>Entity</code> may have
+	 * moved, so that it is checked for support in the next
+	 * {@link GameWorld#cleanUp(int, java.util.Queue)}.
+	 * 
+	 * @param gO - the <code>GameObject</code> that may have moved.
+	 */
+	public void objectMoved(GameObject gO) {
+		if (gO == null || !loaded) return;
+		// Corpses have already been cleared away.
+		if (gO instanceof Entity && !entities.contains(gO)) return;
+		
+		toCheck.add(gO);
+		indexSupport(gO);
+		
+		if (gO instanceof Entity) fileEntity((Entity) gO);
+	}
+	
+	/**
+	 * Tells this <code>GameWorld</code> that a <code>GameObject</code> is about to
+	 * move, so that it knows where the object started the current tick from (and
+	 * bullets fired this tick can be tested against the whole of its path,
+	 * whether they are fired before or after it moves).
+	 * 
+	 * @param gO - the <code>GameObject</code> about to move.
+	 */
+	public void objectMoving(GameObject gO) {
+		// Only Entities can be hit by bullets mid-move.
+		int handle = gO instanceof Entity ? handles.handleOf((Entity) gO) : EntityHandles.NONE;
+		if (handle == EntityHandles.NONE) return;
+		
+		int slot = EntityHandles.index(handle);
+		if (sweptTicks[slot] == sweepTick) return;
+		
+		sweptFrom[slot] = gO.position;
+		sweptTicks[slot] = sweepTick;
+	}
+	
+	/**
+	 * Starts a new tick (so that every <code>GameObject</code>'s sweep starts
+	 * again from wherever it is now, and every <code>Entity</code> that moved is
+	 * only filed under the cell it ended up in).
+	 */
+	void nextTick() {
+		sweepTick++;
+		
+		for (int i = 0; i < sweptEntities.size; i++) {
+			Entity e = handles.resolve(sweptEntities.get(i));
+			if (e != null) fileEntity(e);
+		}
+		sweptEntities.clear();
+		
+		if (sweepTick % compactionInterval == 0) compact();
+	}
+	
+	/**
+	 * Sets how often, and how far, this <code>GameWorld</code> cuts its
+	 * bookkeeping collections back down once they have grown (e.g., after a big
+	 * collapse), so that a long match doesn't hold on to every peak it has hit.
+	 * 
+	 * @param interval         - the number of ticks between compactions. Must be
+	 *                         > 0.
+	 * 
+	 * @param retainedCapacity - the capacity each collection is cut back to (if
+	 *                         it holds no more than that). Must be >= 0.
+	 * 
+	 * @throws GameError if <code>interval</code> <= 0 or
+	 *                   <code>retainedCapacity</code> < 0.
+	 */
+	public void setCompaction(int interval, int retainedCapacity) {
+		if (interval <= 0 || retainedCapacity < 0) {
+			throw new GameError("Invalid compaction settings (every " + interval + " ticks, down to " + retainedCapacity + ")!");
+		}
+		
+		compactionInterval = interval;
+		this.retainedCapacity = retainedCapacity;
+	}
+	
+	/**
+	 * Shrinks this <code>GameWorld</code>'s bookkeeping collections back down to
+	 * the retained capacity, or to however many entries each one holds, if that
+	 * is more.
+	 */
+	void compact() {
+		// IntMap.shrink() doesn't stop at the map's size, and a map cut back to
+		// fewer slots than it has entries never finds a free one again.
+		restingOn.shrink(Math.max(retainedCapacity, restingOn.size));
+		entityGrid.shrink(Math.max(retainedCapacity, entityGrid.size));
+		toRubblify.shrink(Math.max(retainedCapacity, toRubblify.size));
+		
+		// Java's Maps never shrink, so these are just rebuilt at their current size.
+		supportCells = new IdentityHashMap<GameObject, Integer>(supportCells);
+		
+		Set<GameObject> checking = toCheck;
+		toCheck = Collections.newSetFromMap(new IdentityHashMap<GameObject, Boolean>());
+		toCheck.addAll(checking);
+		
+		fallingBodies.compact(retainedCapacity);
+		occupancy.compact(retainedCapacity);
+		if (occupants.length > Math.max(retainedCapacity, entities.size())) {
+			occupants = new int[Math.max(retainedCapacity, entities.size())];
+		}
+	}
+	
+	// Where the Entity in a slot started the current tick from.
+	private Position sweepStart(int slot, Entity e) {
+		return sweptTicks[slot] == sweepTick && sweptFrom[slot] != null ? sweptFrom[slot] : e.getPosition();
+	}
+	
+	/**
+	 * (Re-)files an <code>Entity</code> in the entity grid, under the cells it
+	 * started the current tick in and is in now.
+	 */
+	private void fileEntity(Entity e) {
+		int handle = handles.handleOf(e);
+		if (handle == EntityHandles.NONE) return;
+		
+		int slot = EntityHandles.index(handle);
+		int from = cellIndex(sweepStart(slot, e));
+		int to = cellIndex(e.getPosition());
+		if (from == -1) from = to;
+		
+		if (gridFrom[slot] == from && gridTo[slot] == to) return;
+		
+		unfileEntity(handle, gridFrom[slot]);
+		if (gridTo[slot] != gridFrom[slot]) {
+			unfileEntity(handle, gridTo[slot]);
+		} else if (to != from) {
+			sweptEntities.add(handle);
+		}
+		
+		gridFrom[slot] = from;
+		gridTo[slot] = to;
+		
+		fileEntity(handle, from);
+		if (to != from) fileEntity(handle, to);
+	}
+	
+	private void fileEntity(int handle, int cell) {
+		if (cell == -1) return;
+		
+		IntArray filed = entityGrid.get(cell);
+		if (filed == null) {
+			filed = new IntArray(2);
+			entityGrid.put(cell, filed);
+		}
+		filed.add(handle);
+	}
+	
+	private void unfileEntity(int handle, int cell) {
+		IntArray filed = cell == -1 ? null : entityGrid.get(cell);
+		if (filed == null) return;
+		
+		filed.removeValue(handle);
+		if (filed.isEmpty()) entityGrid.remove(cell);
+	}
+	
+	/**
+	 * Notifies exactly the <code>GameObject</code>s resting on a given cell that
+	 * its <code>Tile</code> no longer holds them up.
+	 * 
+	 * @param cell - the cell whose <code>Tile</code> was removed (or started
+	 *             falling).
+	 */
+	private void supportRemoved(int cell) {
+		List<GameObject> resting = restingOn.get(cell);
+		if (resting != null) toCheck.addAll(resting);
+		
+		// Settled Rubble is only kept in the grid, so isn't indexed.
+		int above = neighbour(cell, SUPPORT_DIRECTIONS[0], -1);
+		if (above != -1 && tileAt(above).getType() == TileType.RUBBLE) toCheck.add(tileAt(above));
+	}
+	
+	/**
+	 * (Re-)files a <code>GameObject</code> in the <code>restingOn</code> index,
+	 * under the cell of the <code>Tile</code> that is currently holding it up:
+	 * its own cell for an <code>Entity</code> on a <code>Ladder</code> or
+	 * <code>StairCase</code>, otherwise the cell beneath it.
+	 * 
+	 * @param gO - the <code>GameObject</code> to index.
+	 */
+	private void indexSupport(GameObject gO) {
+		int ownCell = cellIndex(gO.getPosition());
+		int newCell = ownCell;
+		
+		if (ownCell != -1) {
+			Tile own = tileAt(gO.position);
+			
+			if (!(gO instanceof Entity) || !own.stopsFalling() || own.isFalling()) {
+				newCell = cellIndex(gO.getFootPosition().step(Direction.DOWN, 1));
+			}
+		}
+		
+		Integer oldCell = supportCells.get(gO);
+		if (oldCell != null && oldCell == newCell) return;
+		
+		unindexSupport(gO);
+		
+		if (newCell != -1) {
+			supportCells.put(gO, newCell);
+			List<GameObject> resting = restingOn.get(newCell);
+			if (resting == null) {
+				resting = new ArrayList<GameObject>();
+				restingOn.put(newCell, resting);
+			}
+			resting.add(gO);
+		}
+	}
+	
+	private void forgetObject(GameObject gO) {
+		toCheck.remove(gO);
+		unindexSupport(gO);
+	}
+	
+	private void unindexSupport(GameObject gO) {
+		Integer cell = supportCells.remove(gO);
+		if (cell == null) return;
+		
+		List<GameObject> objects = restingOn.get(cell);
+		objects.removeIf((GameObject o) -> o == gO);
+		if (objects.isEmpty()) restingOn.remove(cell);
+	}
+	
+	/**
+	 * Gets the index of the cell a <code>Position</code> lies in (unique amongst
+	 * every cell in the <code>tiles</code> array).
+	 * 
+	 * @param position - the <code>Position</code> to get the cell of.
+	 * 
+	 * @return the cell's index, or -1 if the <code>Position</code> is
+	 *         <code>null</code> or out of bounds.
+	 */
+	private int cellIndex(Position position) {
+		if (position == null || !loaded || outOfBounds(position)) return -1;
+		
+		return cellIndex(position.getX(), position.getY(), position.getZ());
+	}
+	
+	private int cellIndex(int x, int y, int z) {
+		return (z * worldDimensions[1] + y) * worldDimensions[2] + x;
+	}
+	
+	/**
+	 * Clears away any dead <code>Entities</code>, rubblifies any destroyed
+	 * <code>Tile</code>s (in place) and applies gravity to all
+	 * <code>Entities</code> and <code>Rubble Tile</code>s. Only the
+	 * <code>Entities</code> and <code>Rubble</code> piles that have moved, or
+	 * have been notified that the <code>Tile</code> they were resting on has gone,
+	 * since the last call are checked for support (nothing else can have started
+	 * falling).
+	 * 
+	 * @param currentTick - the current tick number (helpful if you don't know what
+	 *                    a 'tick' is).
+	 * 
+	 * @param eventStream - the stream of <code>Event</code>s to add any new
+	 *                    <code>DamageEvent</code>s or <code>DeathEvent</code>s to.
+	 */
+	void cleanUp(int currentTick, java.util.Queue<Event> eventStream) {
+		// Clear away any dead Entities.
+		if (!toCorpsify.isEmpty()) {
+			for (Map.Entry<Entity, Entity> entry : toCorpsify.entrySet()) corpsify(entry.getKey(), entry.getValue());
+			toCorpsify.clear();
+		}
+		
+		// Rubblify any destroyed Tiles, along with any structures they were holding
+		// up (which are killed straight away, so whole collapses happen in one go).
+		while (toRubblify.notEmpty()) {
+			IntMap<Entity> destroyed = new IntMap<Entity>(toRubblify);
+			toRubblify.clear();
+			
+			for (IntMap.Entry<Entity> entry : destroyed.entries()) {
+				Tile tile = tileAt(entry.key);
+				
+				// The remains take the Tile's place (and fall from there, if need be).
+				settleRubble(new Rubble(tile, tile.position, entry.value));
+			}
+			
+			collapseUnsupported(destroyed, currentTick, eventStream);
+		}
+		
+		// Find out if there any Entities or Rubble Tiles who should be falling but
+		// aren't, amongst those that have been notified. Anything that starts
+		// falling notifies whatever is resting on it in turn.
+		while (!toCheck.isEmpty()) {
+			List<GameObject> checking = new ArrayList<GameObject>(toCheck);
+			toCheck.clear();
+			
+			for (GameObject gO : checking) {
+				if (fallingBodies.contains(gO)) continue;
+				// Rubble is only checked while settled in the grid (and Entities while indexed).
+				if (gO instanceof Tile ? tileAt(gO.position) != gO : !supportCells.containsKey(gO)) continue;
+				
+				if (gO instanceof Rubble) {
+					Tile tileBelow = tileAt(gO.getFootPosition().step(Direction.DOWN, 1));
+					
+					// Piles resting on each other (e.g., a collapsed stack) are just one bigger pile.
+					if (tileBelow != null && tileBelow.getType() == TileType.RUBBLE) {
+						((Rubble) tileBelow).combine((Rubble) gO);
+						rubbleChanged((Rubble) tileBelow);
+						setTile(gO.position, Air.AIR);
+						continue;
+					}
+				}
+				
+				if (shouldFall(gO)) {
+					// A settled pile leaves the grid while it falls.
+					if (gO instanceof Tile && tileAt(gO.position) == gO) setTile(gO.position, Air.AIR);
+					
+					fallingBodies.add(gO, gO.getFootPosition().getFixedZ());
+					
+					supportRemoved(cellIndex(gO.getPosition()));
+				} else {
+					// Whatever is holding it up may have changed (e.g., from a Ladder to the floor).
+					indexSupport(gO);
+				}
+			}
+		}
+		
+		// Apply gravity to all the falling objects.
+		applyGravityToFallingObjects(currentTick, eventStream);
+	}
+	
+	/**
+	 * Removes a dead <code>Entity</code> from this <code>GameWorld</code>
+	 * altogether, leaving its corpse on the <code>Rubble</code> in its cell (or
+	 * as a new pile, if the cell is empty).
+	 * 
+	 * @param dead     - the dead <code>Entity</code>.
+	 * 
+	 * @param attacker - whoever killed it.
+	 */
+	private void corpsify(Entity dead, Entity attacker) {
+		if (!entities.remove(dead)) return;
+		
+		GameObject gO = dead;
+		if (fallingBodies.contains(gO)) fallingBodies.remove(gO.fallingIndex);
+		forgetObject(gO);
+		
+		int handle = handles.handleOf(dead);
+		int slot = EntityHandles.index(handle);
+		
+		unfileEntity(handle, gridFrom[slot]);
+		if (gridTo[slot] != gridFrom[slot]) unfileEntity(handle, gridTo[slot]);
+		gridFrom[slot] = gridTo[slot] = -1;
+		sweptFrom[slot] = null;
+		
+		handles.release(handle);
+		
+		// Bodies can't share a cell with a Ladder or StairCase, so they go to the
+		// nearest cell of the column that can hold them instead.
+		Position restAt = restingPlace(dead.getPosition());
+		if (restAt == null) return;
+		
+		Tile there = tileAt(restAt);
+		if (there.getType() == TileType.RUBBLE) {
+			((Rubble) there).absorb(dead);
+			rubbleChanged((Rubble) there);
+		} else {
+			settleRubble(new Rubble(dead, restAt.tileCentre(), attacker));
+		}
+	}
+	
+	/**
+	 * Finds the nearest cell to a <code>Position</code> in its column that is
+	 * either <code>Air</code> or a <code>Rubble</code> pile, looking above before
+	 * below at the same distance.
+	 * 
+	 * @param from - the <code>Position</code> to start at.
+	 * 
+	 * @return a <code>Position</code> in the found cell, or <code>null</code> if
+	 *         <code>from</code> is out of bounds or the whole column is solid.
+	 */
+	private Position restingPlace(Position from) {
+		if (tileAt(from) == null) return null;
+		
+		for (int d = 0; d < worldDimensions[0]; d++) {
+			Position up = from, down = from;
+			for (int i = 0; i < d; i++) {
+				up = up.move(Direction.UP);
+				down = down.move(Direction.DOWN);
+			}
+			
+			if (holdsRubble(tileAt(up))) return up;
+			if (holdsRubble(tileAt(down))) return down;
+		}
+		
+		return null;
+	}
+	
+	private static boolean holdsRubble(Tile tile) {
+		return tile != null && (tile.getType() == TileType.AIR || tile.getType() == TileType.RUBBLE);
+	}
+	
+	/**
+	 * Puts a <code>Rubble</code> pile into the grid at its own cell, where it is
+	 * just part of the terrain (it is only tracked separately again if it has to
+	 * fall).
+	 */
+	private void settleRubble(Rubble rub) {
+		setTile(rub.getPosition(), rub);
+		toCheck.add(rub);
+		
+		// Any pile already resting here joins it.
+		supportRemoved(cellIndex(rub.getPosition()));
+	}
+	
+	/**
+	 * Brings the navigation bitmasks around a settled <code>Rubble</code> pile up
+	 * to date after it has grown in place (as it may have just become heavy
+	 * enough to be an obstruction).
+	 */
+	private void rubbleChanged(Rubble rub) {
+		updateNavigation(rub.getPosition().getX(), rub.getPosition().getY(), rub.getPosition().getZ());
+	}
+	
+	/**
+	 * Kills every <code>Entity</code> that has ended up in the same cell as
+	 * another, or that has swapped cells with another (i.e., passed through it
+	 * head-on), since the last collision pass. Each live <code>Entity</code> is
+	 * hashed into an <code>OccupancyTable</code> by cell once, so the pass is
+	 * linear in the number of <code>Entities</code> (rather than checking every
+	 * pair).
+	 * 
+	 * @param currentTick - the current tick number.
+	 * 
+	 * @param eventStream - the stream of <code>Event</code>s to add the fatal
+	 *                    <code>DamageEvent</code>s to (each <code>Entity</code>
+	 *                    is killed by the one it collided with).
+	 * 
+	 * @return the number of <code>Entities</code> killed.
+	 */
+	public int checkCollisions(int currentTick, java.util.Queue<Event> eventStream) {
+		if (!loaded) return 0;
+		
+		if (occupants.length < entities.size()) occupants = new int[entities.size()];
+		
+		int count = 0;
+		for (int slot = 0; slot < handles.capacity(); slot++) {
+			Entity e = handles.inSlot(slot);
+			if (e != null && !e.isDead()) occupants[count++] = slot;
+		}
+		
+		occupancy.clear(count);
+		Entity[] killedBy = new Entity[count];
+		
+		// Arrivals in an occupied cell.
+		for (int i = 0; i < count; i++) {
+			int cell = cellIndex(handles.inSlot(occupants[i]).getPosition());
+			if (cell == -1) continue;
+			
+			int other = occupancy.putIfAbsent(cell, i);
+			if (other != -1) collide(i, other, killedBy);
+		}
+		
+		// Head-on swaps (which never share a cell).
+		for (int i = 0; i < count; i++) {
+			int cell = cellIndex(handles.inSlot(occupants[i]).getPosition());
+			int previous = occupiedCells[occupants[i]];
+			if (cell == -1 || previous == -1 || previous == cell) continue;
+			
+			int other = occupancy.get(previous);
+			if (other != -1 && other != i && occupiedCells[occupants[other]] == cell) collide(i, other, killedBy);
+		}
 		
-		loaded = true;
+		int killed = 0;
+		for (int i = 0; i < count; i++) {
+			Entity e = handles.inSlot(occupants[i]);
+			occupiedCells[occupants[i]] = cellIndex(e.getPosition());
+			
+			if (killedBy[i] != null) {
+				eventStream.add(
+						new DamageEvent(
+								killedBy[i],
+								new Damage(
+										e,
+										e.getHealth(),
+										e.getPosition())));
+				killed++;
+			}
+			
+		}
 		
-		return true;
+		return killed;
 	}
-
+	
+	private void collide(int a, int b, Entity[] killedBy) {
+		if (killedBy[a] == null) killedBy[a] = handles.inSlot(occupants[b]);
+		if (killedBy[b] == null) killedBy[b] = handles.inSlot(occupants[a]);
+	}
+	
 	/**
-	 * Returns a new instance (except in the case of the singleton {@link Air#AIR})
-	 * of a <code>Tile</code> from a given <code>char</code>.
+	 * Finds every <code>Tile</code> that has been left without a path of support
+	 * to the ground (z-layer 0) by the destruction of some others, and kills them
+	 * all in one go. Searches only from the cells the destroyed ones were holding
+	 * up, downwards along the support graph, stopping at the first grounded cell
+	 * found (so the cost is proportional to the structure affected, rather than
+	 * the whole world). Every cell visited by a search that doesn't reach the
+	 * ground is floating too.
 	 * 
-	 * @param c   - the <code>char</code> (used to decide what kind of
-	 *            <code>Tile</code> to return).
+	 * @param destroyed   - the cells of the destroyed <code>Tile</code>s, mapped to
+	 *                    whoever destroyed them (who is held responsible for the
+	 *                    collapse).
 	 * 
-	 * @param pos - the <code>Position</code> to spawn the <code>Tile</code> at (not
-	 *            used for <code>Air</code>).
+	 * @param currentTick - the current tick number.
 	 * 
-	 * @return a new <code>Tile</code> of a type determined by the given
-	 *         <code>char</code>, or {@link Air#AIR} if the char was not recognised.
+	 * @param eventStream - the stream of <code>Event</code>s being processed.
 	 */
-	private Tile tileFromChar(char c, Position pos) {
-		switch (c) {
-		case ' ':
-			return Air.AIR;
-		case 'W':
-			return new Wall(pos);
-		case '#':
-			// North-facing ladder.
-			return new Ladder(pos, 0);
-		case 'v':
-			// North-facing stairs.
-			return new StairCase(pos, new DirectionVector(0, 1, 0));
-		case '<':
-			// East-facing stairs.
-			return new StairCase(pos, new DirectionVector(1, 0, 0));
-		case '^':
-			// South-facing stairs.
-			return new StairCase(pos, new DirectionVector(0, -1, 0));
-		case '>':
-			// West-facing stairs.
-			return new StairCase(pos, new DirectionVector(-1, 0, 0));
-		default:
-			return Air.AIR;
+	private void collapseUnsupported(IntMap<Entity> destroyed, int currentTick, java.util.Queue<Event> eventStream) {
+		// The cells that have lost a support, and who to blame if they fall.
+		IntMap<Entity> candidates = new IntMap<Entity>();
+		IntArray toSearch = new IntArray();
+		
+		for (IntMap.Entry<Entity> entry : destroyed.entries()) {
+			addDependents(entry.key, entry.value, candidates, toSearch);
 		}
-	}
-	
-	@Override
-	public String toString() {
-		if (!loaded) return "unloaded";
 		
-		String toReturn = "";
+		IntSet grounded = new IntSet();
+		IntMap<Entity> floating = new IntMap<Entity>();
 		
-		for (int z = 0; z < tiles.length; z++) {
-			for (int y = tiles[z].length - 1; y >= 0; y--) {
-				for (int x = 0; x < tiles[z][y].length; x++) {
-					Entity entity = entityAt(
-							new Position(
-									x * Tile.TILE_SIZE,
-									y * Tile.TILE_SIZE,
-									z * Tile.TILE_SIZE));
-					if (entity != null) {
-						toReturn += entity;
-					} else {
-						toReturn += tiles[z][y][x];
-					}
+		// Each searched cell, mapped to the cell it was reached from.
+		IntIntMap cameFrom = new IntIntMap();
+		IntArray frontier = new IntArray();
+		
+		while (toSearch.notEmpty()) {
+			int start = toSearch.pop();
+			if (grounded.contains(start) || floating.containsKey(start)) continue;
+			
+			cameFrom.clear();
+			frontier.clear();
+			
+			cameFrom.put(start, -1);
+			frontier.add(start);
+			
+			int ground = -1;
+			while (frontier.notEmpty()) {
+				int cell = frontier.pop();
+				
+				if (cell < layerSize() || grounded.contains(cell)) {
+					ground = cell;
+					break;
 				}
 				
-				if (y != 0) toReturn += "\n";
+				for (int d = 0; d < SUPPORT_DIRECTIONS.length; d++) {
+					if ((supportedBy[cell] & (1 << d)) == 0) continue;
+					
+					int support = neighbour(cell, SUPPORT_DIRECTIONS[d], 1);
+					if (standing(support) && !floating.containsKey(support) && !cameFrom.containsKey(support)) {
+						cameFrom.put(support, cell);
+						frontier.add(support);
+					}
+				}
 			}
 			
-			if (z != tiles.length - 1) toReturn += "~";
+			if (ground != -1) {
+				// Everything on the path from the start to the ground is grounded.
+				for (int cell = ground; cell != -1; cell = cameFrom.get(cell, -1)) grounded.add(cell);
+			} else {
+				// Nothing reachable from the start is grounded, so it all falls - and
+				// everything it was holding up has to be checked in turn.
+				Entity attacker = candidates.get(start);
+				
+				for (IntIntMap.Entry entry : cameFrom.entries()) {
+					floating.put(entry.key, attacker);
+					addDependents(entry.key, attacker, candidates, toSearch);
+				}
+			}
 		}
 		
-		return toReturn;
+		for (IntMap.Entry<Entity> entry : floating.entries()) tileAt(entry.key).die(currentTick, entry.value, this, eventStream);
 	}
 	
-	boolean spawnEntity(Entity e, Position pos) {
-		if (outOfBounds(pos) || entityAt(pos) != null
-				|| tiles[pos.getZ()][pos.getY()][pos.getX()].isObstruction(Direction.NONE.asVector()))
-			return false;
-
-		for (Entity existing : entities) {
-			if (existing.getID() == e.getID() || existing.getPosition().sameTile(pos)) return false;
+	/**
+	 * Queues up every standing <code>Tile</code> held up by the one in a given
+	 * cell to be searched (if it hasn't been already).
+	 */
+	private void addDependents(int cell, Entity attacker, IntMap<Entity> candidates, IntArray toSearch) {
+		if (cell == -1) return;
+		
+		for (int d = 0; d < SUPPORT_DIRECTIONS.length; d++) {
+			// The neighbour that would be held up by this cell from direction d.
+			int dependent = neighbour(cell, SUPPORT_DIRECTIONS[d], -1);
+			
+			if (standing(dependent)
+					&& (supportedBy[dependent] & (1 << d)) != 0
+					&& !candidates.containsKey(dependent)) {
+				candidates.put(dependent, attacker);
+				toSearch.add(dependent);
+			}
 		}
+	}
+	
+	/**
+	 * Gets the cell next to a given one.
+	 * 
+	 * @param cell      - the cell to start from.
+	 * 
+	 * @param direction - the x, y, z offset to step by.
+	 * 
+	 * @param sign      - 1 to step forwards along the offset, or -1 to step
+	 *                  backwards.
+	 * 
+	 * @return the neighbouring cell, or -1 if it is off the map.
+	 */
+	private int neighbour(int cell, int[] direction, int sign) {
+		int x = cell % worldDimensions[2] + sign * direction[0];
+		int y = (cell / worldDimensions[2]) % worldDimensions[1] + sign * direction[1];
+		int z = cell / layerSize() + sign * direction[2];
 		
-		e.spawn(pos);
-		entities.add(e);
+		if (x < 0 || x >= worldDimensions[2]
+				|| y < 0 || y >= worldDimensions[1]
+				|| z < 0 || z >= worldDimensions[0]) return -1;
 		
-		return true;
+		return cellIndex(x, y, z);
 	}
 	
-	void setTile(Position position, Tile tile) {
-		if (position == null || outOfBounds(position) || tile == null)
-			return;
-
-		tiles[position.getZ()][position.getY()][position.getX()] = tile;
+	/**
+	 * Checks whether the <code>Tile</code> in a cell is still alive and part of a
+	 * structure (so can hold other <code>Tile</code>s up).
+	 */
+	private boolean standing(int cell) {
+		if (cell == -1) return false;
+		
+		Tile tile = tileAt(cell);
+		return isStructural(tile.getType()) && !tile.isDead();
+	}
+	
+	private Tile tileAt(int cell) {
+		return tiles[cell / layerSize()][(cell / worldDimensions[2]) % worldDimensions[1]][cell % worldDimensions[2]];
+	}
+	
+	private int layerSize() {
+		return worldDimensions[1] * worldDimensions[2];
 	}
 	
 	/**
-	 * Rubblifies any destroyed <code>Tile</code>s and applies gravity to all
-	 * <code>Entities</code> and <code>Rubble Tile</code>s.
+	 * Checks whether an <code>Entity</code> or <code>Rubble</code> pile has
+	 * nothing holding it up.
 	 * 
-	 * @param currentTick - the current tick number (helpful if you don't know what
-	 *                    a 'tick' is).
+	 * @param gO - the <code>GameObject</code> to check.
 	 * 
-	 * @param eventStream - the stream of <code>Event</code>s to add any new
-	 *                    <code>DamageEvent</code>s or <code>DeathEvent</code>s to.
+	 * @return <code>true</code> if it should start falling, otherwise
+	 *         <code>false</code>.
 	 */
-	void cleanUp(int currentTick, java.util.Queue<Event> eventStream) {
-		// Rubblify any destroyed Tiles.
-		for (Tile tile : toRubblify.keySet()) {
-			rubble.add(new Rubble(tile, tile.position, toRubblify.get(tile)));
-			
-			setTile(tile.position, Air.AIR);
-		}
-		
-		// Find out if there any Entities or Rubble Tiles who should be falling but aren't.
-		Position below;
-		Tile tileBelow;
+	private boolean shouldFall(GameObject gO) {
+		Tile tileBelow = tileAt(gO.getFootPosition().step(Direction.DOWN, 1));
 		
-		for (Entity e : entities) {
-			if (!fallingObjects.containsKey(e)) {
-				below = e.getFootPosition().step(Direction.DOWN, 1);
-				tileBelow = tileAt(below);
-				
-				if (tileBelow != null
-						&& (!tileBelow.stopsFalling() || tileBelow.isFalling())
-						&& (!tileAt(e.position).stopsFalling() || tileAt(e.position).isFalling())) {
-					fallingObjects.put(
-							e,
-							new Pair<Double, Entity>(
-									e.getFootPosition().z,
-									null));
-					((GameObject) e).falling = true;
-				}
-			}
-		}
+		if (tileBelow == null || (tileBelow.stopsFalling() && !tileBelow.isFalling())) return false;
 		
-		for (Rubble rub : rubble) {
-			if (!fallingObjects.containsKey(rub)) {
-				below = rub.getFootPosition().step(Direction.DOWN, 1);
-				tileBelow = tileAt(below);
-				
-				if (tileBelow != null
-						&& (!tileBelow.stopsFalling() || tileBelow.isFalling())) {
-					fallingObjects.put(
-							rub,
-							new Pair<Double, Entity>(
-									rub.getFootPosition().z,
-									null));
-					((GameObject) rub).falling = true;
-				}
-			}
+		if (gO instanceof Entity) {
+			// Entities can also hold on to Ladders (and stand on StairCases) in their own cell.
+			Tile tileAt = tileAt(gO.position);
+			return !tileAt.stopsFalling() || tileAt.isFalling();
 		}
 		
-		// Apply gravity to all the falling objects.
-		applyGravityToFallingObjects(currentTick, eventStream);
+		return true;
 	}
 	
 	private void applyGravityToFallingObjects(int currentTick, java.util.Queue<Event> eventStream) {
@@ -293,13 +1400,24 @@ public class GameWorld {
 		Tile tileBelow;
 		Entity entityBelow;
 		
-		for (GameObject gO : fallingObjects.keySet()) {
-			double initialAltitude = fallingObjects.get(gO).first();
+		// Backwards, so that bodies swapped into a landed body's slot have already
+		// been dealt with.
+		for (int b = fallingBodies.size() - 1; b >= 0; b--) {
+			GameObject gO = fallingBodies.body(b);
+			int initialAltitude = fallingBodies.startAltitude(b);
+			boolean landed = false;
+			
+			objectMoving(gO);
+			
+			// Carries on from where the last tick's steps left its feet (stepping
+			// below them first would skip a step, and could miss the landing layer).
+			below = gO.getFootPosition();
 			
-			below = gO.getFootPosition().step(Direction.DOWN, 1);
+			// Where it will land (known up front, so only Entities need checking on the way).
+			int landingLayer = landingLayers[cellIndex(gO.getPosition())];
 			
 			// Essentially displacement.
-			int numTilesFallen = (int) ((initialAltitude - below.z) / Tile.TILE_SIZE);
+			int numTilesFallen = (initialAltitude - below.getFixedZ()) / Position.UNITS_PER_TILE;
 			// Essentially velocity.
 			int numIterations = Math.max(
 					1,
@@ -311,15 +1429,15 @@ public class GameWorld {
 				oldBelow = below;
 				
 				below = below.step(Direction.DOWN, 1);
-				tileBelow = tileAt(below);
+				// Only null if landing on the bottom of the world.
+				tileBelow = below.getZ() <= landingLayer ? tileAt(below) : null;
 				entityBelow = entityAt(below);
 
-				if (oldBelow.getZ() != below.getZ())
-					fallingObjects.put(gO, new Pair<Double, Entity>(initialAltitude, null));
+				if (oldBelow.getZ() != below.getZ()) fallingBodies.setLastCrushed(b, null);
 				
-				numTilesFallen = (int) ((initialAltitude - below.z) / Tile.TILE_SIZE);
+				numTilesFallen = (initialAltitude - below.getFixedZ()) / Position.UNITS_PER_TILE;
 				
-				if (entityBelow != null && !entityBelow.isFalling() && entityBelow != fallingObjects.get(gO).second()) {
+				if (entityBelow != null && !entityBelow.isFalling() && entityBelow != fallingBodies.lastCrushed(b)) {
 					if (gO instanceof Entity) {
 						// Deal reduced fall damage to the falling Entity.
 						eventStream.add(
@@ -348,17 +1466,15 @@ public class GameWorld {
 												below)));
 					}
 
-					fallingObjects.put(gO, new Pair<Double, Entity>(initialAltitude, entityBelow));
+					fallingBodies.setLastCrushed(b, entityBelow);
 				}
 				
-				// below.z < 0 -> tileBelow == null
-				if (tileBelow == null
-						|| (tileBelow.stopsFalling() && !tileBelow.isFalling() && !tileBelow.equals(gO))) {
+				if (below.getZ() <= landingLayer) {
 					// Landed on a Tile.
-					gO.position = new Position(
-							gO.position.x,
-							gO.position.y,
-							(gO.position.getZ() + 0.5) * Tile.TILE_SIZE);
+					gO.position = Position.ofFixed(
+							gO.position.getFixedX(),
+							gO.position.getFixedY(),
+							gO.position.getZ() * Position.UNITS_PER_TILE + Position.UNITS_PER_TILE / 2);
 					
 					if (gO instanceof Entity) {
 						eventStream.add(
@@ -369,13 +1485,12 @@ public class GameWorld {
 												10 * numTilesFallen * numTilesFallen,
 												oldBelow)));
 						// Stop the Entity falling.
-						gO.falling = false;
+						landed = true;
 						break;
-					} else if (tileBelow.getType() == TileType.RUBBLE) {
-						// Rubble landed on Rubble Tile.
-						setTile(
-								below,
-								((Rubble) tileBelow).combine((Rubble) gO));
+					} else if (tileBelow != null && tileBelow.getType() == TileType.RUBBLE) {
+						// Rubble landed on Rubble Tile (which it joins, in place).
+						((Rubble) tileBelow).combine((Rubble) gO);
+						rubbleChanged((Rubble) tileBelow);
 						
 						// If the combined Rubble pile is now an obstruction, kill any trapped Entities.
 						if (tileAt(below).getWeight() >= Rubble.OBSTRUCTIVE_THRESHOLD) {
@@ -402,23 +1517,28 @@ public class GameWorld {
 													below)));
 						}
 						
+						// The falling pile is now part of the one it landed on.
+						forgetObject(gO);
+						
 						// Stop the Rubble falling.
-						gO.falling = false;
+						landed = true;
 						break;
 					} else {
-						// Rubble landed on a non-Rubble Tile.
+						// Rubble landed on a non-Rubble Tile (or the bottom of the world).
 						setTile(
 								oldBelow,
 								(Tile) gO);
 						
 						// Deal fall damage to the landed-on Tile.
-						eventStream.add(
-								new DamageEvent(
-										gO.getAttacker(),
-										new Damage(
-												tileBelow,
-												gO.weight * numTilesFallen * numTilesFallen,
-												below)));
+						if (tileBelow != null) {
+							eventStream.add(
+									new DamageEvent(
+											gO.getAttacker(),
+											new Damage(
+													tileBelow,
+													gO.weight * numTilesFallen * numTilesFallen,
+													below)));
+						}
 						
 						// If the Rubble pile is an obstruction, kill any trapped Entities.
 						if (gO.weight >= Rubble.OBSTRUCTIVE_THRESHOLD) {
@@ -434,43 +1554,194 @@ public class GameWorld {
 						}
 						
 						// Stop the Rubble falling.
-						gO.falling = false;
+						landed = true;
 						break;
 					}
 				}
 				
-				gO.position = new Position(
-						below.x,
-						below.y,
-						below.z + 0.5 * Tile.TILE_SIZE);
+				gO.position = Position.ofFixed(
+						below.getFixedX(),
+						below.getFixedY(),
+						below.getFixedZ() + Position.UNITS_PER_TILE / 2);
 				//if (gO instanceof Tile) setTile(below, (Tile) gO);
 			}
+			
+			// Forget about it once it has landed (so it can start falling again later).
+			if (landed) fallingBodies.remove(b);
+			
+			// (Rubble that has landed is just part of the grid again.)
+			if (gO instanceof Entity) objectMoved(gO);
 		}
-		
-		fallingObjects.keySet().removeIf((GameObject key) -> fallingObjects.get(key).first() < 0);
 	}
 	
 	public boolean requestRubblification(Tile tile, Entity attacker) {
 		if (tile == null
 				|| tile.getType() == TileType.AIR
 				|| tile.getType() == TileType.RUBBLE
-				|| !tile.equals(tileAt(tile.position))
+				|| tile != tileAt(tile.position)
 				|| !tile.isDead()
-				|| toRubblify.containsKey(tile)) return false;
-		toRubblify.put(tile, attacker);
+				|| toRubblify.containsKey(cellIndex(tile.position))) return false;
+		toRubblify.put(cellIndex(tile.position), attacker);
 		return true;
 	}
 	
+	/**
+	 * Damages every <code>Tile</code> within a sphere in one pass, without
+	 * raising any <code>DamageEvent</code>s or <code>DeathEvent</code>s for them.
+	 * See {@link GameWorld#carveBox(Position, Position, DamageField, Entity, int, java.util.Queue)}.
+	 * 
+	 * @param centre      - the centre of the sphere.
+	 * 
+	 * @param radius      - the radius of the sphere (cells whose centres lie
+	 *                    within it are carved).
+	 * 
+	 * @param field       - the damage to deal to each <code>Tile</code>.
+	 * 
+	 * @param attacker    - the <code>Entity</code> responsible.
+	 * 
+	 * @param currentTick - the current tick number.
+	 * 
+	 * @param eventStream - the stream of <code>Event</code>s being processed.
+	 * 
+	 * @return the number of <code>Tile</code>s destroyed.
+	 */
+	public int carveSphere(Position centre, double radius, DamageField field, Entity attacker, int currentTick, java.util.Queue<Event> eventStream) {
+		if (centre == null) return 0;
+		
+		return carve(
+				new Position(centre.x - radius, centre.y - radius, centre.z - radius),
+				new Position(centre.x + radius, centre.y + radius, centre.z + radius),
+				centre,
+				radius,
+				field,
+				attacker,
+				currentTick,
+				eventStream);
+	}
+	
+	/**
+	 * Damages every <code>Tile</code> within a box in one pass, without raising
+	 * any <code>DamageEvent</code>s or <code>DeathEvent</code>s for them. The
+	 * destroyed <code>Tile</code>s are replaced with air straight away, and their
+	 * remains are gathered into a single <code>Rubble</code> pile per unbroken run
+	 * of destroyed cells in each column of the region (at the lowest cell of the
+	 * run), rather than one per <code>Tile</code>. Anything left without support
+	 * is then collapsed in one go, as usual.
+	 * 
+	 * @param from        - one corner of the box.
+	 * 
+	 * @param to          - the opposite corner of the box.
+	 * 
+	 * @param field       - the damage to deal to each <code>Tile</code> (with
+	 *                    distances measured from the centre of the box).
+	 * 
+	 * @param attacker    - the <code>Entity</code> responsible.
+	 * 
+	 * @param currentTick - the current tick number.
+	 * 
+	 * @param eventStream - the stream of <code>Event</code>s being processed.
+	 * 
+	 * @return the number of <code>Tile</code>s destroyed.
+	 */
+	public int carveBox(Position from, Position to, DamageField field, Entity attacker, int currentTick, java.util.Queue<Event> eventStream) {
+		if (from == null || to == null) return 0;
+		
+		Position min = new Position(Math.min(from.x, to.x), Math.min(from.y, to.y), Math.min(from.z, to.z));
+		Position max = new Position(Math.max(from.x, to.x), Math.max(from.y, to.y), Math.max(from.z, to.z));
+		
+		return carve(
+				min,
+				max,
+				new Position((min.x + max.x) / 2, (min.y + max.y) / 2, (min.z + max.z) / 2),
+				Double.POSITIVE_INFINITY,
+				field,
+				attacker,
+				currentTick,
+				eventStream);
+	}
+	
+	private int carve(Position min, Position max, Position centre, double radius, DamageField field, Entity attacker, int currentTick, java.util.Queue<Event> eventStream) {
+		if (!loaded || field == null) return 0;
+		
+		// The destroyed cells, every pile of Rubble made, and the pile of the run of
+		// destroyed cells being carved in each column (by cell of the bottom layer).
+		IntMap<Entity> destroyed = new IntMap<Entity>();
+		List<Rubble> piles = new ArrayList<Rubble>();
+		IntMap<Rubble> runs = new IntMap<Rubble>();
+		
+		for (int z = Math.max(0, min.getZ()); z <= Math.min(worldDimensions[0] - 1, max.getZ()); z++) {
+			for (int y = Math.max(0, min.getY()); y <= Math.min(worldDimensions[1] - 1, max.getY()); y++) {
+				for (int x = Math.max(0, min.getX()); x <= Math.min(worldDimensions[2] - 1, max.getX()); x++) {
+					Tile tile = tiles[z][y][x];
+					if (tile.getType() == TileType.AIR || tile.getType() == TileType.RUBBLE || tile.isDead()) continue;
+					
+					Position tileCentre = new Position(
+							(x + 0.5) * Tile.TILE_SIZE,
+							(y + 0.5) * Tile.TILE_SIZE,
+							(z + 0.5) * Tile.TILE_SIZE);
+					double dist = Math.sqrt(
+							(tileCentre.x - centre.x) * (tileCentre.x - centre.x) +
+							(tileCentre.y - centre.y) * (tileCentre.y - centre.y) +
+							(tileCentre.z - centre.z) * (tileCentre.z - centre.z));
+					if (dist > radius) continue;
+					
+					int damage = field.damageAt(tileCentre, dist);
+					if (damage <= 0 || !tile.damage(damage, attacker) || !tile.kill(attacker)) continue;
+					
+					int cell = cellIndex(x, y, z);
+					destroyed.put(cell, attacker);
+					
+					// Layers are carved bottom-up, so each run of destroyed cells in a column
+					// gets a pile at its lowest cell (the remains can't pass through a Tile
+					// that survived).
+					Rubble pile = runs.get(cellIndex(x, y, 0));
+					if (pile != null && z > 0 && destroyed.containsKey(cellIndex(x, y, z - 1))) {
+						pile.absorb(tile);
+					} else {
+						pile = new Rubble(tile, tile.position, attacker);
+						piles.add(pile);
+						runs.put(cellIndex(x, y, 0), pile);
+					}
+					
+					// Everything that depends on the grid is brought up to date once, below.
+					tiles[z][y][x] = Air.AIR;
+				}
+			}
+		}
+		
+		IntSet columns = new IntSet();
+		for (Rubble pile : piles) {
+			Position p = pile.getPosition();
+			
+			tiles[p.getZ()][p.getY()][p.getX()] = pile;
+			toCheck.add(pile);
+		}
+		
+		// Each column's first pile is its lowest, and one pass up from there covers
+		// the rest of it.
+		for (Rubble pile : piles) {
+			Position p = pile.getPosition();
+			
+			if (columns.add(cellIndex(p.getX(), p.getY(), 0))) updateLandingColumn(p.getX(), p.getY(), p.getZ());
+		}
+		
+		updateNavigation(destroyed);
+		
+		// Let anything resting on the destroyed Tiles know they've gone (and any
+		// pile resting on one of the new piles join it).
+		for (IntMap.Entry<Entity> entry : destroyed.entries()) supportRemoved(entry.key);
+		
+		collapseUnsupported(destroyed, currentTick, eventStream);
+		
+		return destroyed.size;
+	}
+	
 	public boolean requestCorpsification(Entity dead, Entity attacker) {
 		if (dead == null
 				|| !dead.isDead()
 				|| toCorpsify.containsKey(dead)) return false;
 		
-		boolean foundEntity = false;
-
-		for (Entity e : entities)
-			if (dead.equals(e))
-				foundEntity = true;
+		boolean foundEntity = entities.contains(dead);
 
 		if (foundEntity) toCorpsify.put(dead, attacker);
 		
@@ -490,6 +1761,53 @@ public class GameWorld {
 		return e != null && !e.isDead() && entities.contains(e);
 	}
 	
+	/**
+	 * Gets the handle of an <code>Entity</code> in this <code>GameWorld</code>
+	 * (see <code>EntityHandles</code>), which stays the same for as long as the
+	 * <code>Entity</code> is in this <code>GameWorld</code>.
+	 * 
+	 * @param e - the <code>Entity</code> to get the handle of.
+	 * 
+	 * @return the handle, or {@link EntityHandles#NONE} if the
+	 *         <code>Entity</code> isn't in this <code>GameWorld</code>.
+	 */
+	public int getHandle(Entity e) {
+		if (e == null) return EntityHandles.NONE;
+		
+		return handles.handleOf(e);
+	}
+	
+	/**
+	 * Finds the (living) <code>Entity</code> a handle refers to.
+	 * 
+	 * @param handle - the handle to look up.
+	 * 
+	 * @return the <code>Entity</code>, or <code>null</code> if it is dead or the
+	 *         handle is stale (i.e., its <code>Entity</code> has left this
+	 *         <code>GameWorld</code>, even if its slot has since been reused).
+	 */
+	public Entity resolve(int handle) {
+		Entity e = handles.resolve(handle);
+		
+		return e == null || e.isDead() ? null : e;
+	}
+	
+	/**
+	 * Gets the size that per-<code>Entity</code> tables indexed by
+	 * {@link EntityHandles#index(int)} need to be (the number of handle slots that
+	 * have ever been used in this <code>GameWorld</code>).
+	 * 
+	 * @return the number of handle slots.
+	 */
+	public int getHandleCapacity() {
+		return handles.capacity();
+	}
+	
+	// The Entity in a handle slot (or null if the slot is free).
+	Entity entityInSlot(int slot) {
+		return handles.inSlot(slot);
+	}
+	
 	public Entity getEntity(int id) {
 		for (Entity e : entities) {
 			if (!e.isDead() && e.getID() == id) {
@@ -515,14 +1833,15 @@ public class GameWorld {
 			return null;
 
 		Entity closest = null;
-		double leastDist = 0;
+		long leastDist = 0;
 		
 		for (Entity e : entities) {
 			if (!e.isDead() && position.sameTile(e.getPosition())) {
-				double dist = Tile.TILE_SIZE * (
-						(position.x - e.getPosition().x) * (position.x - e.getPosition().x) + 
-						(position.y - e.getPosition().y) * (position.y - e.getPosition().y) +
-						(position.z - e.getPosition().z) * (position.z - e.getPosition().z));
+				// Squared distance, in fixed-point units (exact).
+				long dX = position.getFixedX() - e.getPosition().getFixedX();
+				long dY = position.getFixedY() - e.getPosition().getFixedY();
+				long dZ = position.getFixedZ() - e.getPosition().getFixedZ();
+				long dist = dX * dX + dY * dY + dZ * dZ;
 				if (closest == null || dist < leastDist) {
 					leastDist = dist;
 					closest = e;
@@ -533,10 +1852,64 @@ public class GameWorld {
 		return closest;
 	}
 
+	/**
+	 * Gets the moves an <code>Entity</code> could legally make out of the cell
+	 * containing a given <code>Position</code>.
+	 * 
+	 * @param position - the location to look up.
+	 * 
+	 * @return the cell's {@link Navigation} bitmask, or 0 if there is no such cell.
+	 */
+	public int getExits(Position position) {
+		int cell = cellIndex(position);
+		
+		return cell == -1 ? 0 : navigation[cell];
+	}
+	
+	/**
+	 * Gets the moves an <code>Entity</code> could legally make out of a cell.
+	 * 
+	 * @param x - the x-coordinate of the cell.
+	 * 
+	 * @param y - the y-coordinate of the cell.
+	 * 
+	 * @param z - the z-coordinate of the cell.
+	 * 
+	 * @return the cell's {@link Navigation} bitmask, or 0 if there is no such cell.
+	 */
+	public int getExits(int x, int y, int z) {
+		if (!loaded || x < 0 || x >= worldDimensions[2]
+				|| y < 0 || y >= worldDimensions[1]
+				|| z < 0 || z >= worldDimensions[0]) return 0;
+		
+		return navigation[cellIndex(x, y, z)];
+	}
+	
+	/**
+	 * Checks whether an <code>Entity</code> could legally make a whole-<code>Tile</code>
+	 * move out of the cell containing a given <code>Position</code> (according to
+	 * the <code>Tile</code>s, not to any other <code>Entities</code>).
+	 * 
+	 * @param position  - the location to move from.
+	 * 
+	 * @param direction - the direction to move in.
+	 * 
+	 * @return <code>true</code> if the move is legal, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean canExit(Position position, Direction direction) {
+		int cell = cellIndex(position);
+		
+		if (cell == -1 || direction == null) return false;
+		if (direction == Direction.NONE) return true;
+		
+		return (navigation[cell] & Navigation.exit(direction)) != 0;
+	}
+
 	/**
 	 * Finds the <code>Tile</code> at a given <code>Position</code> in this
-	 * <code>GameWorld</code> (via
-	 * {@link GameWorld#tileAt(double, double, double)}).
+	 * <code>GameWorld</code> (by its <code>Tile</code> coordinates, see
+	 * {@link Position#getX()}).
 	 * 
 	 * @param position - the location to look for a <code>Tile</code> at.
 	 * 
@@ -545,8 +1918,9 @@ public class GameWorld {
 	 *         <code>null Position</code>, etc.).
 	 */
 	public Tile tileAt(Position position) {
-		if (position == null) return null;
-		return tileAt(position.x, position.y, position.z);
+		if (position == null || !loaded || outOfBounds(position)) return null;
+		
+		return tiles[position.getZ()][position.getY()][position.getX()];
 	}
 
 	/**
@@ -637,7 +2011,11 @@ public class GameWorld {
 	 * Collects every <code>Tile</code> (that stop bullets) and <code>Entity</code>
 	 * between a given start (the <code>Tile</code>/<code>Entity</code> at which is
 	 * <i>excluded</i>) and end (the <code>Tile</code>/<code>Entity</code> at which
-	 * is <i>included</i>) <code>Position</code>.
+	 * is <i>included</i>) <code>Position</code>. <code>Entities</code> are hit
+	 * if the bullet passes through the cylinder they have swept out so far this
+	 * tick (so a moving <code>Entity</code> is hit the same whether it moves
+	 * before or after the shot), and only those filed in the entity grid under
+	 * the cells the bullet passes through are tested.
 	 * <br>
 	 * Credit to skrjablin's comment at:
 	 * https://playtechs.blogspot.com/2007/03/raytracing-on-grid.html
@@ -655,6 +2033,11 @@ public class GameWorld {
 						new Queue<Position>());
 		if (from.sameTile(to)) return hits;
 		
+		// An Entity can be filed under two cells, but should only be hit once.
+		List<Entity> hitEntities = new ArrayList<Entity>(2);
+		// The Entities hit in the current cell, to be put in order along the bullet.
+		List<Entity> hitInCell = new ArrayList<Entity>(2);
+		
 		double from_x = from.x / Tile.TILE_SIZE;
 		double from_y = from.y / Tile.TILE_SIZE;
 		double from_z = from.z / Tile.TILE_SIZE;
@@ -728,7 +2111,6 @@ public class GameWorld {
 					z * Tile.TILE_SIZE);
 			if (!pos.sameTile(from)) {
 				Tile tile = tileAt(pos);
-				Entity entity = entityAt(pos);
 				
 				if (tile != null
 						&& !tile.equals(hits.first().isEmpty() ? null : hits.first().first())
@@ -737,11 +2119,39 @@ public class GameWorld {
 					hits.second().addLast(pos);
 				}
 				
-				if (entity != null
-						&& !entity.equals(hits.first().isEmpty() ? null : hits.first().first())
-						&& GameUtils.collideEntityBullet(entity, from, to)) {
-					hits.first().addLast(entity);
-					hits.second().addLast(pos);
+				// Only the Entities filed under this cell can be hit in it.
+				IntArray filed = entityGrid.get(cellIndex(pos));
+				if (filed != null) {
+					hitInCell.clear();
+					
+					for (int i = 0; i < filed.size; i++) {
+						Entity entity = handles.resolve(filed.get(i));
+						
+						if (entity != null
+								&& !entity.isDead()
+								&& !hitEntities.contains(entity)
+								&& GameUtils.collideSweptCylinderBullet(
+										sweepStart(EntityHandles.index(filed.get(i)), entity),
+										entity.getPosition(),
+										entity.getRadius(),
+										Tile.TILE_SIZE,
+										from,
+										to)) {
+							hitEntities.add(entity);
+							hitInCell.add(entity);
+						}
+					}
+					
+					if (hitInCell.size() > 1) {
+						hitInCell.sort(
+								Comparator.comparingDouble(
+										(Entity entity) -> GameUtils.bulletParameter(entity.getPosition(), from, to)));
+					}
+					
+					for (Entity entity : hitInCell) {
+						hits.first().addLast(entity);
+						hits.second().addLast(pos);
+					}
 				}
 			}
 			
@@ -769,7 +2179,7 @@ public class GameWorld {
 	/**
 	 * Check whether a given <code>Position</code> represents a valid
 	 * <code>Tile</code> in the <code>tiles</code> array (if it has been loaded!),
-	 * via {@link GameWorld#outOfBounds(double, double, double)}.
+	 * by its <code>Tile</code> coordinates (see {@link Position#getX()}).
 	 * 
 	 * @param position - the <code>Position</code> to test.
 	 * 
@@ -778,8 +2188,14 @@ public class GameWorld {
 	 *         coordinates, unloaded game world, <code>null Position</code>, etc.).
 	 */
 	public boolean outOfBounds(Position position) {
-		if (position == null) return false;
-		return outOfBounds(position.x, position.y, position.z);
+		if (position == null || !loaded) return false;
+		
+		return position.getX() < 0
+				|| position.getX() >= worldDimensions[2]
+				|| position.getY() < 0
+				|| position.getY() >= worldDimensions[1]
+				|| position.getZ() < 0
+				|| position.getZ() >= worldDimensions[0];
 	}
 
 	/**
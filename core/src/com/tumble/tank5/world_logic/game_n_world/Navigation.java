@@ -0,0 +1,118 @@
+package com.tumble.tank5.world_logic.game_n_world;
+
+import com.tumble.tank5.util.DirectionVector.Direction;
+
+/**
+ * The layout of the navigation bitmask a <code>GameWorld</code> keeps for each
+ * cell (see {@link GameWorld#getExits(com.tumble.tank5.util.Position)}): which
+ * whole-<code>Tile</code> moves an <code>Entity</code> standing in the cell
+ * can legally make, and which of the horizontal ones take it up or down a
+ * z-layer (via a <code>StairCase</code>).
+ *
+ * @author Tumbl
+ *
+ */
+public final class Navigation {
+	/**
+	 * The horizontal directions, in the order their bits are laid out.
+	 */
+	public static final Direction[] HORIZONTAL = { Direction.N, Direction.E, Direction.S, Direction.W };
+
+	/** Set if the <code>Entity</code> can climb up (a <code>Ladder</code>). */
+	public static final int UP = 1 << 4;
+	/** Set if the <code>Entity</code> can climb (or drop) down. */
+	public static final int DOWN = 1 << 5;
+
+	// Where each group of horizontal bits starts.
+	private static final int EXIT_SHIFT = 0;
+	private static final int CLIMB_SHIFT = 6;
+	private static final int DESCEND_SHIFT = 10;
+
+	private Navigation() {
+		// Private constructor.
+	}
+
+	/**
+	 * Gets the bit that is set if an <code>Entity</code> can move in a given
+	 * direction.
+	 *
+	 * @param direction - the direction of the move.
+	 *
+	 * @return the direction's exit bit, or 0 if it isn't a valid
+	 *         <code>Entity</code> move (or is {@link Direction#NONE}).
+	 */
+	public static int exit(Direction direction) {
+		if (direction == null) return 0;
+
+		switch (direction) {
+		case UP:
+			return UP;
+		case DOWN:
+			return DOWN;
+		default:
+			int index = horizontalIndex(direction);
+			return index == -1 ? 0 : 1 << (EXIT_SHIFT + index);
+		}
+	}
+
+	/**
+	 * Gets the bit that is set if moving in a given horizontal direction takes an
+	 * <code>Entity</code> up a z-layer (i.e., up a <code>StairCase</code>).
+	 *
+	 * @param direction - the direction of the move.
+	 *
+	 * @return the direction's climb bit, or 0 if it isn't horizontal.
+	 */
+	public static int climb(Direction direction) {
+		int index = horizontalIndex(direction);
+		return index == -1 ? 0 : 1 << (CLIMB_SHIFT + index);
+	}
+
+	/**
+	 * Gets the bit that is set if moving in a given horizontal direction takes an
+	 * <code>Entity</code> down a z-layer (i.e., down onto a <code>StairCase</code>).
+	 *
+	 * @param direction - the direction of the move.
+	 *
+	 * @return the direction's descend bit, or 0 if it isn't horizontal.
+	 */
+	public static int descend(Direction direction) {
+		int index = horizontalIndex(direction);
+		return index == -1 ? 0 : 1 << (DESCEND_SHIFT + index);
+	}
+
+	/**
+	 * Gets the change in z-layer a (legal) move in a given direction makes.
+	 *
+	 * @param exits     - the navigation bitmask of the cell moved from.
+	 *
+	 * @param direction - the direction of the move.
+	 *
+	 * @return 1, -1 or 0.
+	 */
+	public static int heightChange(int exits, Direction direction) {
+		if (direction == Direction.UP) return 1;
+		if (direction == Direction.DOWN) return -1;
+
+		if ((exits & climb(direction)) != 0) return 1;
+		if ((exits & descend(direction)) != 0) return -1;
+		return 0;
+	}
+
+	static int horizontalIndex(Direction direction) {
+		if (direction == null) return -1;
+
+		switch (direction) {
+		case N:
+			return 0;
+		case E:
+			return 1;
+		case S:
+			return 2;
+		case W:
+			return 3;
+		default:
+			return -1;
+		}
+	}
+}
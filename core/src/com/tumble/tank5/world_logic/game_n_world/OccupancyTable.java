@@ -0,0 +1,104 @@
+package com.tumble.tank5.world_logic.game_n_world;
+
+import java.util.Arrays;
+
+/**
+ * A primitive open-addressing (linear probing) hash table from cells (see
+ * <code>GameWorld</code>'s cell indices) to the index of the first
+ * <code>Entity</code> found in each one, rebuilt from scratch for every
+ * collision pass. Nothing is ever removed, and it is only ever filled to at
+ * most half of its capacity, so probes stay short and clearing it is cheap.
+ *
+ * @author Tumbl
+ *
+ */
+final class OccupancyTable {
+	private static final int EMPTY = -1;
+
+	private int[] cells = new int[16];
+	private int[] occupants = new int[16];
+
+	/**
+	 * Empties the table, making sure it can hold a given number of cells.
+	 *
+	 * @param expected - the most cells that will be added before the next clear.
+	 */
+	void clear(int expected) {
+		int capacity = cells.length;
+		while (capacity < expected * 2) capacity *= 2;
+
+		if (capacity != cells.length) {
+			cells = new int[capacity];
+			occupants = new int[capacity];
+		}
+
+		Arrays.fill(cells, EMPTY);
+	}
+
+	/**
+	 * Empties the table, and cuts it back down to hold a given number of cells
+	 * (if it has grown past that).
+	 *
+	 * @param expected - the number of cells to keep room for.
+	 */
+	void compact(int expected) {
+		int capacity = 16;
+		while (capacity < expected * 2) capacity *= 2;
+
+		if (capacity < cells.length) {
+			cells = new int[capacity];
+			occupants = new int[capacity];
+		}
+
+		Arrays.fill(cells, EMPTY);
+	}
+
+	/**
+	 * Records an occupant of a cell, unless the cell is already occupied.
+	 *
+	 * @param cell     - the cell (>= 0).
+	 *
+	 * @param occupant - the index of the occupant.
+	 *
+	 * @return the index of the cell's existing occupant, or -1 if it was empty
+	 *         (and now holds the given one).
+	 */
+	int putIfAbsent(int cell, int occupant) {
+		int slot = find(cell);
+
+		if (cells[slot] == cell) return occupants[slot];
+
+		cells[slot] = cell;
+		occupants[slot] = occupant;
+		return -1;
+	}
+
+	/**
+	 * Gets the (first) occupant of a cell.
+	 *
+	 * @param cell - the cell to look up.
+	 *
+	 * @return the index of the occupant, or -1 if the cell is empty.
+	 */
+	int get(int cell) {
+		int slot = find(cell);
+
+		return cells[slot] == cell ? occupants[slot] : -1;
+	}
+
+	// The slot holding a cell, or the empty slot it would go in.
+	private int find(int cell) {
+		int mask = cells.length - 1;
+		int slot = mix(cell) & mask;
+
+		while (cells[slot] != EMPTY && cells[slot] != cell) slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	// Spreads neighbouring cells across the table (they would otherwise cluster).
+	private static int mix(int cell) {
+		int h = cell * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
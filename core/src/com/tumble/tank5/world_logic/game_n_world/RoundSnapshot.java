@@ -0,0 +1,169 @@
+package com.tumble.tank5.world_logic.game_n_world;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.tumble.tank5.game_object.entities.Entity;
+import com.tumble.tank5.util.DirectionVector.Direction;
+import com.tumble.tank5.util.Position;
+import com.tumble.tank5.weapons.Weapon;
+
+/**
+ * The living <code>Entities</code> of a <code>Game</code> as they were when
+ * it started taking <code>Input</code>s for a <code>Round</code>: which moves
+ * each one could make from where it was (see
+ * {@link GameWorld#getExits(Position)}), how much health it had, and how much
+ * ammunition its active <code>Weapon</code> had left (and when it was last
+ * fired). It never
+ * changes once taken, so any number of threads may validate
+ * <code>Input</code>s against it at once (see
+ * {@link Game#addInputs(java.util.Collection)}), without touching the
+ * <code>GameWorld</code> itself.
+ *
+ * @author Tumbl
+ *
+ */
+public final class RoundSnapshot {
+	// What was known about each Entity.
+	private static final class Frozen {
+		private final int exits;
+		private final int health;
+		// The active Weapon's ammunition (if it has one).
+		private final boolean reloading;
+		private final int magBullets, reserveBullets, lastFire;
+
+		private Frozen(int exits, int health, Weapon weapon) {
+			this.exits = exits;
+			this.health = health;
+
+			reloading = weapon != null && weapon.isReloading();
+			magBullets = weapon == null ? 0 : weapon.getMagBullets();
+			reserveBullets = weapon == null ? 0 : weapon.getReserveBullets();
+			lastFire = weapon == null ? 0 : weapon.getLastFire();
+		}
+	}
+
+	private final int roundNumber;
+	private final Map<Entity, Frozen> entities;
+
+	/**
+	 * Takes a snapshot of a <code>GameWorld</code>'s living
+	 * <code>Entities</code>. Must be called on the thread that updates its
+	 * <code>Game</code>.
+	 *
+	 * @param world       - the <code>GameWorld</code>.
+	 *
+	 * @param roundNumber - the number of the <code>Round</code> being taken
+	 *                    <code>Input</code>s for.
+	 */
+	RoundSnapshot(GameWorld world, int roundNumber) {
+		Map<Entity, Frozen> frozen = new IdentityHashMap<Entity, Frozen>();
+
+		for (Entity e : world.getEntities()) {
+			if (e.isDead()) continue;
+
+			frozen.put(e, new Frozen(world.getExits(e.getPosition()), e.getHealth(), e.getWeapon()));
+		}
+
+		this.roundNumber = roundNumber;
+		this.entities = Collections.unmodifiableMap(frozen);
+	}
+
+	/**
+	 * @return the number of the <code>Round</code> this snapshot was taken for.
+	 */
+	public int getRoundNumber() {
+		return roundNumber;
+	}
+
+	/**
+	 * @return <code>true</code> if the given <code>Entity</code> was alive (and
+	 *         in the <code>GameWorld</code>) when this snapshot was taken,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean contains(Entity e) {
+		return getHealth(e) > 0;
+	}
+
+	/**
+	 * @return the {@link Navigation} bitmask of the cell the given
+	 *         <code>Entity</code> was in, or 0 if it isn't in this snapshot.
+	 */
+	public int getExits(Entity e) {
+		Frozen f = e == null ? null : entities.get(e);
+
+		return f == null ? 0 : f.exits;
+	}
+
+	/**
+	 * @return the health the given <code>Entity</code> had, or 0 if it isn't in
+	 *         this snapshot.
+	 */
+	public int getHealth(Entity e) {
+		Frozen f = e == null ? null : entities.get(e);
+
+		return f == null ? 0 : f.health;
+	}
+
+	/**
+	 * Checks whether an <code>Entity</code> could have fired its active
+	 * <code>Weapon</code> in this snapshot's <code>Round</code> (like
+	 * {@link Weapon#ableToFire(int)}).
+	 *
+	 * @param e      - the <code>Entity</code> to fire.
+	 *
+	 * @param weapon - its active <code>Weapon</code> (which doesn't change while
+	 *               <code>Input</code>s are being taken).
+	 *
+	 * @return <code>true</code> if it could have fired, otherwise
+	 *         <code>false</code> (including if the <code>Entity</code> isn't in
+	 *         this snapshot).
+	 */
+	public boolean canFire(Entity e, Weapon weapon) {
+		Frozen f = e == null ? null : entities.get(e);
+		if (f == null || f.health <= 0 || weapon == null) return false;
+
+		return weapon.ableToFire(roundNumber, f.reloading, f.magBullets, f.lastFire);
+	}
+
+	/**
+	 * Checks whether an <code>Entity</code> could have reloaded its active
+	 * <code>Weapon</code> (like {@link Weapon#ableToReload()}).
+	 *
+	 * @param e      - the <code>Entity</code> to reload.
+	 *
+	 * @param weapon - its active <code>Weapon</code> (which doesn't change while
+	 *               <code>Input</code>s are being taken).
+	 *
+	 * @return <code>true</code> if it could have reloaded, otherwise
+	 *         <code>false</code> (including if the <code>Entity</code> isn't in
+	 *         this snapshot).
+	 */
+	public boolean canReload(Entity e, Weapon weapon) {
+		Frozen f = e == null ? null : entities.get(e);
+		if (f == null || f.health <= 0 || weapon == null) return false;
+
+		return weapon.ableToReload(f.reloading, f.magBullets, f.reserveBullets);
+	}
+
+	/**
+	 * Checks whether an <code>Entity</code> could legally have made a
+	 * whole-<code>Tile</code> move from where it was (like
+	 * {@link Entity#canMove(Direction, GameWorld)}).
+	 *
+	 * @param e         - the <code>Entity</code> to move.
+	 *
+	 * @param direction - the direction to move in.
+	 *
+	 * @return <code>true</code> if the move is legal, otherwise
+	 *         <code>false</code> (including if the <code>Entity</code> isn't in
+	 *         this snapshot).
+	 */
+	public boolean canExit(Entity e, Direction direction) {
+		if (!contains(e) || direction == null || !direction.validEntityMove()) return false;
+		if (direction == Direction.NONE) return true;
+
+		return (getExits(e) & Navigation.exit(direction)) != 0;
+	}
+}